@@ -0,0 +1,73 @@
+package sg.kata.cluster;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Static consistent-hash ring over the nodes of {@code bank.cluster.nodes}, each placed at
+ * {@code bank.cluster.virtual-nodes} points. An account belongs to the first node point at or after the hash of
+ * its id, so adding or removing a node only moves the accounts of the ranges next to its points. Every node must
+ * be configured with the same list, in which {@code bank.cluster.self} is its own base URL.
+ */
+@Component
+@ConditionalOnProperty(name = "bank.cluster.nodes")
+public class AccountRouter {
+
+    private final String self;
+    private final List<String> nodes;
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    public AccountRouter(@Value("${bank.cluster.self}") String self,
+                         @Value("${bank.cluster.nodes}") List<String> nodes,
+                         @Value("${bank.cluster.virtual-nodes:128}") int virtualNodes) {
+        if (!nodes.contains(self)) {
+            throw new IllegalArgumentException("bank.cluster.self " + self + " is not one of bank.cluster.nodes");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        this.self = self;
+        this.nodes = List.copyOf(nodes);
+        for (String node : this.nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    public String self() {
+        return self;
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    public String ownerOf(String accountId) {
+        Map.Entry<Long, String> point = ring.ceilingEntry(hash(accountId));
+        return point != null ? point.getValue() : ring.firstEntry().getValue();
+    }
+
+    public boolean isLocal(String accountId) {
+        return self.equals(ownerOf(accountId));
+    }
+
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package sg.kata.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sends every account request to the node owning its account: requests for local accounts go down the chain,
+ * the others are replayed as-is on their owner and its response is streamed back. The account is read from the
+ * JSON body; a transfer or a batch is routed only when all its accounts have the same owner, since nodes share
+ * no lock and each owner keeps its accounts' cache, journal index and read-your-writes marks in memory. A forwarded
+ * request is never forwarded again, so nodes with different memberships cannot loop.
+ */
+@Component
+@ConditionalOnProperty(name = "bank.cluster.nodes")
+public class AccountRoutingFilter extends OncePerRequestFilter {
+
+    public static final String FORWARDED_BY_HEADER = "X-Bank-Forwarded-By";
+    public static final String CROSS_NODE_MESSAGE = "Accounts of one request must be owned by the same node.";
+    public static final String MISROUTED_MESSAGE = "Account is not owned by this node.";
+    public static final String OWNER_UNAVAILABLE_MESSAGE = "Account owner node is unavailable.";
+
+    private static final String ACCOUNTS_PATH = "/api/accounts/";
+    private static final int MISDIRECTED_REQUEST = 421;
+
+    private final AccountRouter accountRouter;
+    private final ObjectMapper objectMapper;
+    private final RestClient restClient;
+
+    public AccountRoutingFilter(AccountRouter accountRouter, ObjectMapper objectMapper,
+                                RestClient.Builder restClientBuilder) {
+        this.accountRouter = accountRouter;
+        this.objectMapper = objectMapper;
+        this.restClient = restClientBuilder.build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(ACCOUNTS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        byte[] body = request.getInputStream().readAllBytes();
+        Set<String> owners = ownersOf(body);
+        if (owners.size() > 1) {
+            reject(response, HttpStatus.CONFLICT.value(), CROSS_NODE_MESSAGE);
+            return;
+        }
+        String owner = owners.isEmpty() ? accountRouter.self() : owners.iterator().next();
+        if (owner.equals(accountRouter.self())) {
+            chain.doFilter(new CachedBodyRequest(request, body), response);
+        } else if (request.getHeader(FORWARDED_BY_HEADER) != null) {
+            reject(response, MISDIRECTED_REQUEST, MISROUTED_MESSAGE);
+        } else {
+            forward(owner, request, body, response);
+        }
+    }
+
+    /**
+     * Owners of the accounts named in the body: {@code accountId}, or both sides of a transfer, or every
+     * operation of a batch. Bodies that are not JSON name no account.
+     */
+    private Set<String> ownersOf(byte[] body) {
+        Set<String> owners = new LinkedHashSet<>();
+        if (body.length == 0) {
+            return owners;
+        }
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(body);
+        } catch (IOException e) {
+            return owners;
+        }
+        if (root == null) {
+            return owners;
+        }
+        Iterable<JsonNode> operations = root.isArray() ? root : List.of(root);
+        for (JsonNode operation : operations) {
+            for (String field : new String[] {"accountId", "fromAccountId", "toAccountId"}) {
+                JsonNode accountId = operation.get(field);
+                if (accountId != null && accountId.isTextual()) {
+                    owners.add(accountRouter.ownerOf(accountId.asText()));
+                }
+            }
+        }
+        return owners;
+    }
+
+    private void forward(String owner, HttpServletRequest request, byte[] body, HttpServletResponse response)
+        throws IOException {
+        String query = request.getQueryString();
+        String uri = owner + request.getRequestURI() + (query == null ? "" : "?" + query);
+        try {
+            restClient.method(HttpMethod.valueOf(request.getMethod()))
+                .uri(uri)
+                .headers(headers -> {
+                    copyHeader(request, headers, HttpHeaders.CONTENT_TYPE);
+                    copyHeader(request, headers, HttpHeaders.ACCEPT);
+                    headers.set(FORWARDED_BY_HEADER, accountRouter.self());
+                })
+                .body(body)
+                .exchange((clientRequest, clientResponse) -> {
+                    response.setStatus(clientResponse.getStatusCode().value());
+                    String contentType = clientResponse.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
+                    if (contentType != null) {
+                        response.setContentType(contentType);
+                    }
+                    clientResponse.getBody().transferTo(response.getOutputStream());
+                    return null;
+                });
+        } catch (ResourceAccessException e) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE.value(), OWNER_UNAVAILABLE_MESSAGE);
+        }
+    }
+
+    private static void copyHeader(HttpServletRequest request, HttpHeaders headers, String name) {
+        String value = request.getHeader(name);
+        if (value != null) {
+            headers.set(name, value);
+        }
+    }
+
+    private static void reject(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+
+    /**
+     * The request with its body already read, served again to the rest of the chain.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+    }
+}
@@ -2,13 +2,32 @@ package sg.kata.controller;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import sg.kata.model.AccountOperation;
+import sg.kata.model.MonthlySummary;
+import sg.kata.model.OperationResult;
+import sg.kata.model.StatementFormat;
 import sg.kata.request.AccountOperationRequest;
+import sg.kata.request.TransferRequest;
 import sg.kata.service.BankAccountService;
+import sg.kata.service.GroupCommitPipeline;
+import sg.kata.service.LedgerProjector;
+import sg.kata.service.PartitionedAccountEngine;
+import sg.kata.service.StatementExport;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
+import static sg.kata.model.OperationType.DEPOSIT;
+import static sg.kata.model.OperationType.WITHDRAW;
 
 @RestController
 @RequestMapping("/api/accounts")
@@ -17,33 +36,124 @@ public class BankAccountController {
 
     public static final String DEPOSIT_SUCCESSFUL = "Deposit successful";
     public static final String WITHDRAW_SUCCESSFUL = "Withdraw successful";
+    public static final String TRANSFER_SUCCESSFUL = "Transfer successful";
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final MediaType TEXT_CSV = new MediaType("text", "csv");
 
 
     private final BankAccountService bankAccountService;
+    private final ObjectProvider<GroupCommitPipeline> groupCommitPipeline;
+    private final ObjectProvider<PartitionedAccountEngine> partitionedAccountEngine;
+    private final ObjectProvider<LedgerProjector> ledgerProjector;
 
     @PostMapping("/deposit")
-    @Transactional
     public ResponseEntity<String> deposit(@RequestBody @NonNull AccountOperationRequest request) {
-        bankAccountService.deposit(request.getAccountId(), request.getAmount());
+        PartitionedAccountEngine engine = partitionedAccountEngine.getIfAvailable();
+        GroupCommitPipeline pipeline = groupCommitPipeline.getIfAvailable();
+        if (engine != null) {
+            engine.execute(new AccountOperation(request.getAccountId(), DEPOSIT, request.getAmount()));
+        } else if (pipeline != null) {
+            pipeline.execute(new AccountOperation(request.getAccountId(), DEPOSIT, request.getAmount()));
+        } else {
+            bankAccountService.deposit(request.getAccountId(), request.getAmount());
+        }
         return ResponseEntity.ok(DEPOSIT_SUCCESSFUL);
     }
 
     @PostMapping("/withdraw")
-    @Transactional
     public ResponseEntity<String> withdraw(@RequestBody @NonNull AccountOperationRequest request) {
-        bankAccountService.withdraw(request.getAccountId(), request.getAmount());
+        PartitionedAccountEngine engine = partitionedAccountEngine.getIfAvailable();
+        GroupCommitPipeline pipeline = groupCommitPipeline.getIfAvailable();
+        if (engine != null) {
+            engine.execute(new AccountOperation(request.getAccountId(), WITHDRAW, request.getAmount()));
+        } else if (pipeline != null) {
+            pipeline.execute(new AccountOperation(request.getAccountId(), WITHDRAW, request.getAmount()));
+        } else {
+            bankAccountService.withdraw(request.getAccountId(), request.getAmount());
+        }
         return ResponseEntity.ok(WITHDRAW_SUCCESSFUL);
     }
 
+    @PostMapping("/transfer")
+    public ResponseEntity<String> transfer(@RequestBody @NonNull TransferRequest request) {
+        PartitionedAccountEngine engine = partitionedAccountEngine.getIfAvailable();
+        if (engine != null) {
+            engine.transfer(request.getFromAccountId(), request.getToAccountId(), request.getAmount());
+        } else {
+            bankAccountService.transfer(request.getFromAccountId(), request.getToAccountId(), request.getAmount());
+        }
+        return ResponseEntity.ok(TRANSFER_SUCCESSFUL);
+    }
+
+    @GetMapping("/statement/export")
+    public ResponseEntity<StreamingResponseBody> exportStatement(@RequestBody @NonNull AccountOperationRequest request,
+                                                                 @RequestParam(defaultValue = "TEXT") StatementFormat format) {
+        awaitLedgerProjection();
+        StatementExport export = bankAccountService.exportStatement(request.getAccountId(), format);
+        return ResponseEntity.ok()
+            .contentType(contentTypeOf(format))
+            .body(export::writeTo);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<OperationResult>> applyBatch(@RequestBody @NonNull List<AccountOperationRequest> requests) {
+        List<AccountOperation> operations = requests.stream()
+            .map(request -> new AccountOperation(request.getAccountId(), request.getOperationType(), request.getAmount()))
+            .toList();
+        PartitionedAccountEngine engine = partitionedAccountEngine.getIfAvailable();
+        return ResponseEntity.ok(engine != null
+            ? engine.applyBatch(operations)
+            : bankAccountService.applyBatch(operations));
+    }
+
     @GetMapping("/balance")
     public ResponseEntity<BigDecimal> getBalance(@RequestBody @NonNull AccountOperationRequest request) {
-        BigDecimal balance = bankAccountService.getBalance(request.getAccountId());
+        PartitionedAccountEngine engine = partitionedAccountEngine.getIfAvailable();
+        BigDecimal balance = engine != null
+            ? engine.getBalance(request.getAccountId())
+            : bankAccountService.getBalance(request.getAccountId());
         return ResponseEntity.ok(balance);
     }
 
     @GetMapping("/statement")
-    public ResponseEntity<String> printStatement(@RequestBody @NonNull AccountOperationRequest request) {
-        String statement = bankAccountService.printStatement(request.getAccountId());
+    public ResponseEntity<String> printStatement(@RequestBody @NonNull AccountOperationRequest request,
+                                                 @RequestParam(required = false) Integer page,
+                                                 @RequestParam(required = false) Integer size,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME) LocalDateTime from,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME) LocalDateTime to) {
+        awaitLedgerProjection();
+        if (page == null && size == null && from == null && to == null) {
+            return ResponseEntity.ok(bankAccountService.printStatement(request.getAccountId()));
+        }
+        String statement = bankAccountService.printStatement(request.getAccountId(), from, to,
+            page == null ? 0 : page, size == null ? DEFAULT_PAGE_SIZE : size);
         return ResponseEntity.ok(statement);
     }
+
+    @GetMapping("/summary")
+    public ResponseEntity<List<MonthlySummary>> getMonthlySummaries(@RequestBody @NonNull AccountOperationRequest request,
+                                                                    @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+                                                                    @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        awaitLedgerProjection();
+        return ResponseEntity.ok(bankAccountService.getMonthlySummaries(request.getAccountId(), from, to));
+    }
+
+    /**
+     * With the engine, statements and summaries are read from the store it is projected to, once every operation
+     * already completed has reached it.
+     */
+    private void awaitLedgerProjection() {
+        LedgerProjector projector = ledgerProjector.getIfAvailable();
+        if (projector != null) {
+            projector.awaitCaughtUp();
+        }
+    }
+
+    private static MediaType contentTypeOf(StatementFormat format) {
+        return switch (format) {
+            case TEXT -> MediaType.TEXT_PLAIN;
+            case CSV -> TEXT_CSV;
+            case NDJSON -> MediaType.APPLICATION_NDJSON;
+        };
+    }
 }
@@ -1,5 +1,8 @@
 package sg.kata.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -7,27 +10,62 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import static org.springframework.http.HttpStatus.*;
 
 @ControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    public static final String ERROR_COUNTER = "bank.errors";
+
     private static final String INTERNAL_ERROR_MESSAGE = "An unexpected error occurred.";
 
+    private final MeterRegistry meterRegistry;
+
     @ExceptionHandler(AccountNotFoundException.class)
     public ResponseEntity<String> handleAccountNotFoundException(AccountNotFoundException exception) {
-        return ResponseEntity.status(NOT_FOUND).body(exception.getMessage());
+        return respond(exception, NOT_FOUND, exception.getMessage());
     }
 
     @ExceptionHandler(InsufficientBalanceException.class)
     public ResponseEntity<String> handleInsufficientBalanceException(InsufficientBalanceException exception) {
-        return ResponseEntity.status(BAD_REQUEST).body(exception.getMessage());
+        return respond(exception, BAD_REQUEST, exception.getMessage());
     }
 
     @ExceptionHandler(InvalidAmountException.class)
     public ResponseEntity<String> handleInvalidAmountException(InvalidAmountException exception) {
-        return ResponseEntity.status(BAD_REQUEST).body(exception.getMessage());
+        return respond(exception, BAD_REQUEST, exception.getMessage());
+    }
+
+    @ExceptionHandler(InvalidPageException.class)
+    public ResponseEntity<String> handleInvalidPageException(InvalidPageException exception) {
+        return respond(exception, BAD_REQUEST, exception.getMessage());
+    }
+
+    @ExceptionHandler(InvalidPeriodException.class)
+    public ResponseEntity<String> handleInvalidPeriodException(InvalidPeriodException exception) {
+        return respond(exception, BAD_REQUEST, exception.getMessage());
+    }
+
+    @ExceptionHandler(InvalidTransferException.class)
+    public ResponseEntity<String> handleInvalidTransferException(InvalidTransferException exception) {
+        return respond(exception, BAD_REQUEST, exception.getMessage());
+    }
+
+    @ExceptionHandler(ConcurrentUpdateException.class)
+    public ResponseEntity<String> handleConcurrentUpdateException(ConcurrentUpdateException exception) {
+        return respond(exception, CONFLICT, exception.getMessage());
     }
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleGenericException(Exception exception) {
-        return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(INTERNAL_ERROR_MESSAGE);
+        return respond(exception, INTERNAL_SERVER_ERROR, INTERNAL_ERROR_MESSAGE);
+    }
+
+    /**
+     * Counts the error under {@value #ERROR_COUNTER}, tagged with its exception type and response status.
+     */
+    private ResponseEntity<String> respond(Exception exception, HttpStatus status, String body) {
+        meterRegistry.counter(ERROR_COUNTER,
+            "exception", exception.getClass().getSimpleName(),
+            "status", String.valueOf(status.value())).increment();
+        return ResponseEntity.status(status).body(body);
     }
 }
@@ -2,6 +2,7 @@ package sg.kata.request;
 
 import lombok.Builder;
 import lombok.Value;
+import sg.kata.model.OperationType;
 
 import java.math.BigDecimal;
 
@@ -10,4 +11,5 @@ import java.math.BigDecimal;
 public class AccountOperationRequest {
     String accountId;
     BigDecimal amount;
+    OperationType operationType;
 }
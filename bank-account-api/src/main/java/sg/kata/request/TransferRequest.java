@@ -0,0 +1,14 @@
+package sg.kata.request;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+@Builder
+public class TransferRequest {
+    String fromAccountId;
+    String toAccountId;
+    BigDecimal amount;
+}
@@ -0,0 +1,73 @@
+package sg.kata.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AccountRouterTest {
+
+    private static final List<String> NODES = List.of("http://node-a:8080", "http://node-b:8080", "http://node-c:8080");
+
+    @Test
+    void shouldAgreeOnOwnersAcrossNodes() {
+        // GIVEN
+        AccountRouter routerA = new AccountRouter(NODES.get(0), NODES, 128);
+        AccountRouter routerB = new AccountRouter(NODES.get(1), NODES, 128);
+
+        // WHEN - THEN
+        for (int i = 0; i < 1000; i++) {
+            String accountId = "account-" + i;
+            assertEquals(routerA.ownerOf(accountId), routerB.ownerOf(accountId));
+            assertEquals(routerA.isLocal(accountId), NODES.get(0).equals(routerA.ownerOf(accountId)));
+        }
+    }
+
+    @Test
+    void shouldSpreadAccountsOverAllNodes() {
+        // GIVEN
+        AccountRouter router = new AccountRouter(NODES.get(0), NODES, 128);
+
+        // WHEN
+        Map<String, Integer> accountsPerNode = new HashMap<>();
+        for (int i = 0; i < 30000; i++) {
+            accountsPerNode.merge(router.ownerOf("account-" + i), 1, Integer::sum);
+        }
+
+        // THEN
+        assertThat(accountsPerNode).containsOnlyKeys(NODES);
+        assertThat(accountsPerNode.values()).allSatisfy(count -> assertThat(count).isBetween(7000, 13000));
+    }
+
+    @Test
+    void shouldOnlyMoveAccountsToAnAddedNode() {
+        // GIVEN
+        AccountRouter before = new AccountRouter(NODES.get(0), NODES, 128);
+        List<String> grown = List.of(NODES.get(0), NODES.get(1), NODES.get(2), "http://node-d:8080");
+        AccountRouter after = new AccountRouter(NODES.get(0), grown, 128);
+
+        // WHEN
+        int moved = 0;
+        for (int i = 0; i < 10000; i++) {
+            String accountId = "account-" + i;
+            if (!before.ownerOf(accountId).equals(after.ownerOf(accountId))) {
+                assertEquals("http://node-d:8080", after.ownerOf(accountId));
+                moved++;
+            }
+        }
+
+        // THEN
+        assertThat(moved).isBetween(1500, 3500);
+    }
+
+    @Test
+    void shouldRejectASelfOutsideTheNodes() {
+        // WHEN - THEN
+        assertThrows(IllegalArgumentException.class, () -> new AccountRouter("http://other:8080", NODES, 128));
+    }
+}
@@ -0,0 +1,146 @@
+package sg.kata.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static sg.kata.cluster.AccountRoutingFilter.CROSS_NODE_MESSAGE;
+import static sg.kata.cluster.AccountRoutingFilter.FORWARDED_BY_HEADER;
+import static sg.kata.cluster.AccountRoutingFilter.MISROUTED_MESSAGE;
+
+public class AccountRoutingFilterTest {
+
+    private static final String SELF = "http://node-a:8080";
+    private static final String OTHER = "http://node-b:8080";
+
+    private final AccountRouter router = new AccountRouter(SELF, List.of(SELF, OTHER), 128);
+
+    private MockRestServiceServer server;
+    private AccountRoutingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = RestClient.builder();
+        server = MockRestServiceServer.bindTo(builder).build();
+        filter = new AccountRoutingFilter(router, new ObjectMapper(), builder);
+    }
+
+    @Test
+    void shouldHandleLocalAccountsAndKeepTheBody() throws Exception {
+        // GIVEN
+        String body = "{\"accountId\": \"" + accountOwnedBy(SELF, 0) + "\", \"amount\": 100}";
+        MockHttpServletRequest request = request("POST", "/api/accounts/deposit", body);
+        MockFilterChain chain = new MockFilterChain();
+
+        // WHEN
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // THEN
+        assertThat(chain.getRequest().getInputStream().readAllBytes()).isEqualTo(body.getBytes(UTF_8));
+        server.verify();
+    }
+
+    @Test
+    void shouldForwardRemoteAccountsToTheirOwner() throws Exception {
+        // GIVEN
+        String body = "{\"accountId\": \"" + accountOwnedBy(OTHER, 0) + "\", \"amount\": 100}";
+        MockHttpServletRequest request = request("POST", "/api/accounts/deposit", body);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        server.expect(requestTo(OTHER + "/api/accounts/deposit"))
+            .andExpect(method(POST))
+            .andExpect(header(FORWARDED_BY_HEADER, SELF))
+            .andExpect(content().string(body))
+            .andRespond(withSuccess("\"Deposit successful\"", APPLICATION_JSON));
+
+        // WHEN
+        filter.doFilter(request, response, chain);
+
+        // THEN
+        server.verify();
+        assertNull(chain.getRequest());
+        assertEquals(200, response.getStatus());
+        assertEquals("\"Deposit successful\"", response.getContentAsString());
+    }
+
+    @Test
+    void shouldRejectATransferBetweenNodes() throws Exception {
+        // GIVEN
+        String body = "{\"fromAccountId\": \"" + accountOwnedBy(SELF, 0) + "\", \"toAccountId\": \""
+            + accountOwnedBy(OTHER, 0) + "\", \"amount\": 10}";
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // WHEN
+        filter.doFilter(request("POST", "/api/accounts/transfer", body), response, new MockFilterChain());
+
+        // THEN
+        assertEquals(409, response.getStatus());
+        assertEquals(CROSS_NODE_MESSAGE, response.getContentAsString());
+    }
+
+    @Test
+    void shouldRouteABatchWhoseAccountsShareAnOwner() throws Exception {
+        // GIVEN
+        String body = "[{\"accountId\": \"" + accountOwnedBy(SELF, 0) + "\", \"operationType\": \"DEPOSIT\", \"amount\": 1},"
+            + "{\"accountId\": \"" + accountOwnedBy(SELF, 1) + "\", \"operationType\": \"DEPOSIT\", \"amount\": 2}]";
+        MockFilterChain chain = new MockFilterChain();
+
+        // WHEN
+        filter.doFilter(request("POST", "/api/accounts/batch", body), new MockHttpServletResponse(), chain);
+
+        // THEN
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void shouldNotForwardAForwardedRequestAgain() throws Exception {
+        // GIVEN
+        String body = "{\"accountId\": \"" + accountOwnedBy(OTHER, 0) + "\"}";
+        MockHttpServletRequest request = request("GET", "/api/accounts/balance", body);
+        request.addHeader(FORWARDED_BY_HEADER, OTHER);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // WHEN
+        filter.doFilter(request, response, new MockFilterChain());
+
+        // THEN
+        assertEquals(421, response.getStatus());
+        assertEquals(MISROUTED_MESSAGE, response.getContentAsString());
+        server.verify();
+    }
+
+    private static MockHttpServletRequest request(String method, String uri, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setContentType(APPLICATION_JSON.toString());
+        request.setContent(body.getBytes(UTF_8));
+        return request;
+    }
+
+    private String accountOwnedBy(String node, int index) {
+        return IntStream.range(0, 10000)
+            .mapToObj(i -> "account-" + i)
+            .filter(accountId -> router.ownerOf(accountId).equals(node))
+            .skip(index)
+            .findFirst()
+            .orElseThrow();
+    }
+}
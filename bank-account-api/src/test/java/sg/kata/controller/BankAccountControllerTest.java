@@ -1,26 +1,52 @@
 package sg.kata.controller;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import sg.kata.exception.InsufficientBalanceException;
+import sg.kata.model.AccountOperation;
+import sg.kata.model.MonthlySummary;
+import sg.kata.model.OperationResult;
+import sg.kata.model.StatementFormat;
 import sg.kata.service.BankAccountService;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.Matchers.is;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static sg.kata.controller.BankAccountController.DEFAULT_PAGE_SIZE;
 import static sg.kata.controller.BankAccountController.DEPOSIT_SUCCESSFUL;
+import static sg.kata.controller.BankAccountController.TEXT_CSV;
+import static sg.kata.controller.BankAccountController.TRANSFER_SUCCESSFUL;
 import static sg.kata.controller.BankAccountController.WITHDRAW_SUCCESSFUL;
+import static sg.kata.exception.GlobalExceptionHandler.ERROR_COUNTER;
+import static sg.kata.model.OperationType.DEPOSIT;
+import static sg.kata.model.OperationType.WITHDRAW;
+import static sg.kata.service.BankAccountService.INSUFFICIENT_BALANCE_MESSAGE;
 
 @WebMvcTest(BankAccountController.class)
+@Import(SimpleMeterRegistry.class)
 public class BankAccountControllerTest {
 
     @Autowired
@@ -29,6 +55,9 @@ public class BankAccountControllerTest {
     @MockitoBean
     private BankAccountService service;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     void shouldMakeADeposit() throws Exception {
         // GIVEN
@@ -63,6 +92,23 @@ public class BankAccountControllerTest {
         verify(service).withdraw("123", BigDecimal.valueOf(50));
     }
 
+    @Test
+    void shouldMakeATransfer() throws Exception {
+        // GIVEN
+        String requestBody = "{\"fromAccountId\": \"123\", \"toAccountId\": \"456\", \"amount\": 25}";
+
+        // WHEN - THEN
+        mockMvc.perform(
+            post("/api/accounts/transfer")
+                .contentType(APPLICATION_JSON)
+                .content(requestBody)
+        )
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", is(TRANSFER_SUCCESSFUL)));
+
+        verify(service).transfer("123", "456", BigDecimal.valueOf(25));
+    }
+
     @Test
     void shouldGetBalance() throws Exception {
         // GIVEN
@@ -82,6 +128,27 @@ public class BankAccountControllerTest {
         verify(service).getBalance("123");
     }
 
+    @Test
+    void shouldCountRejectedWithdraws() throws Exception {
+        // GIVEN
+        String requestBody = "{\"accountId\": \"123\", \"amount\": 100}";
+
+        doThrow(new InsufficientBalanceException(INSUFFICIENT_BALANCE_MESSAGE))
+            .when(service).withdraw("123", BigDecimal.valueOf(100));
+
+        // WHEN - THEN
+        mockMvc.perform(
+            post("/api/accounts/withdraw")
+                .contentType(APPLICATION_JSON)
+                .content(requestBody)
+        )
+        .andExpect(status().isBadRequest());
+
+        assertThat(meterRegistry.get(ERROR_COUNTER)
+            .tags("exception", "InsufficientBalanceException", "status", "400")
+            .counter().count()).isEqualTo(1);
+    }
+
     @Test
     void shouldPrintStatement() throws Exception {
         // GIVEN
@@ -101,4 +168,102 @@ public class BankAccountControllerTest {
 
         verify(service).printStatement("123");
     }
+
+    @Test
+    void shouldPrintAPageOfStatement() throws Exception {
+        // GIVEN
+        String requestBody = "{\"accountId\": \"123\"}";
+        String statement = "2025-01-15: DEPOSIT 100 (Balance: 100)";
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        when(service.printStatement("123", from, null, 1, DEFAULT_PAGE_SIZE)).thenReturn(statement);
+
+        // WHEN - THEN
+        mockMvc.perform(
+            get("/api/accounts/statement")
+                .param("page", "1")
+                .param("from", "2025-01-01T00:00:00")
+                .contentType(APPLICATION_JSON)
+                .content(requestBody)
+        )
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", is(statement)));
+
+        verify(service).printStatement("123", from, null, 1, DEFAULT_PAGE_SIZE);
+    }
+
+    @Test
+    void shouldGetMonthlySummaries() throws Exception {
+        // GIVEN
+        String requestBody = "{\"accountId\": \"123\"}";
+        YearMonth january = YearMonth.of(2025, 1);
+        when(service.getMonthlySummaries("123", january, null)).thenReturn(List.of(new MonthlySummary(january,
+            BigDecimal.ZERO, BigDecimal.valueOf(100), BigDecimal.valueOf(30), BigDecimal.valueOf(70), 2)));
+
+        // WHEN - THEN
+        mockMvc.perform(
+            get("/api/accounts/summary")
+                .param("from", "2025-01")
+                .contentType(APPLICATION_JSON)
+                .content(requestBody)
+        )
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].month", is("2025-01")))
+        .andExpect(jsonPath("$[0].totalDeposits", is(100)))
+        .andExpect(jsonPath("$[0].closingBalance", is(70)))
+        .andExpect(jsonPath("$[0].operationCount", is(2)));
+    }
+
+    @Test
+    void shouldApplyABatch() throws Exception {
+        // GIVEN
+        String requestBody = "[{\"accountId\": \"123\", \"amount\": 100, \"operationType\": \"DEPOSIT\"},"
+            + "{\"accountId\": \"456\", \"amount\": 50, \"operationType\": \"WITHDRAW\"}]";
+        List<AccountOperation> operations = List.of(
+            new AccountOperation("123", DEPOSIT, BigDecimal.valueOf(100)),
+            new AccountOperation("456", WITHDRAW, BigDecimal.valueOf(50)));
+
+        when(service.applyBatch(operations)).thenReturn(List.of(
+            OperationResult.succeeded(0, "123"),
+            OperationResult.failed(1, "456", "Insufficient balance.")));
+
+        // WHEN - THEN
+        mockMvc.perform(
+            post("/api/accounts/batch")
+                .contentType(APPLICATION_JSON)
+                .content(requestBody)
+        )
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].success", is(true)))
+        .andExpect(jsonPath("$[1].success", is(false)))
+        .andExpect(jsonPath("$[1].message", is("Insufficient balance.")));
+
+        verify(service).applyBatch(operations);
+    }
+
+    @Test
+    void shouldStreamStatementExport() throws Exception {
+        // GIVEN
+        String requestBody = "{\"accountId\": \"123\"}";
+        String csv = "date,operationType,amount,balance\n2025-01-15T10:30,DEPOSIT,100,100\n";
+
+        when(service.exportStatement("123", StatementFormat.CSV))
+            .thenReturn(outputStream -> outputStream.write(csv.getBytes(UTF_8)));
+
+        // WHEN
+        MvcResult result = mockMvc.perform(
+            get("/api/accounts/statement/export")
+                .param("format", "CSV")
+                .contentType(APPLICATION_JSON)
+                .content(requestBody)
+        )
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+        // THEN
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(TEXT_CSV))
+            .andExpect(content().string(csv));
+    }
 }
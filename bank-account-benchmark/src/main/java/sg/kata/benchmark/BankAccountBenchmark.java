@@ -0,0 +1,49 @@
+package sg.kata.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import sg.kata.model.BankAccount;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the domain rules in {@link BankAccount#deposit} and {@link BankAccount#withdraw}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BankAccountBenchmark {
+
+    private static final int MAX_STATEMENTS = 1024;
+    private static final BigDecimal AMOUNT = new BigDecimal("12.34");
+
+    private BankAccount account;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        account = new BankAccount("123", new BigDecimal("1000000000.00"), new ArrayList<>(MAX_STATEMENTS));
+    }
+
+    @Benchmark
+    public BankAccount deposit() {
+        account.deposit(AMOUNT);
+        return trimmed();
+    }
+
+    @Benchmark
+    public BankAccount withdraw() {
+        account.withdraw(AMOUNT);
+        return trimmed();
+    }
+
+    private BankAccount trimmed() {
+        if (account.getStatements().size() >= MAX_STATEMENTS) {
+            account.getStatements().clear();
+        }
+        return account;
+    }
+}
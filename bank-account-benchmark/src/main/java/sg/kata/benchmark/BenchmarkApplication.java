@@ -0,0 +1,37 @@
+package sg.kata.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Persistence and business beans on top of an embedded H2 database, without the web layer or metric export.
+ */
+@SpringBootApplication(scanBasePackages = {"sg.kata.config", "sg.kata.datasource", "sg.kata.repository", "sg.kata.service"})
+@EntityScan("sg.kata.entity")
+@EnableJpaRepositories("sg.kata.repository")
+public class BenchmarkApplication {
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(BenchmarkApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.jpa.properties.hibernate.auto_quote_keyword=true",
+                "logging.level.root=WARN")
+            .properties(properties)
+            .run();
+    }
+}
@@ -0,0 +1,79 @@
+package sg.kata.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import sg.kata.service.BankAccountService;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write throughput of {@link BankAccountService#deposit} under contention.
+ * Run with several thread counts, e.g. {@code java -jar target/benchmarks.jar ConcurrentWrite -t 1,2,4,8},
+ * and compare the striped account locks against a single global monitor.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentWriteBenchmark {
+
+    private static final BigDecimal AMOUNT = BigDecimal.valueOf(10);
+
+    @State(Scope.Benchmark)
+    public static class Bank {
+
+        @Param({"striped", "global"})
+        String locking;
+
+        @Param({"1", "64"})
+        int accounts;
+
+        @Param({"200"})
+        long writeCost;
+
+        BankAccountService service;
+        final Object globalMonitor = new Object();
+        final AtomicInteger threadIndex = new AtomicInteger();
+
+        @Setup
+        public void setUp() {
+            InMemoryBankAccountRepository repository = new InMemoryBankAccountRepository(writeCost);
+            for (int i = 0; i < accounts; i++) {
+                repository.open(accountId(i), BigDecimal.ZERO);
+            }
+            service = Services.bankAccountService(repository);
+        }
+
+        void deposit(String accountId) {
+            if ("global".equals(locking)) {
+                synchronized (globalMonitor) {
+                    service.deposit(accountId, AMOUNT);
+                }
+            } else {
+                service.deposit(accountId, AMOUNT);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+
+        String accountId;
+
+        @Setup
+        public void setUp(Bank bank) {
+            accountId = accountId(bank.threadIndex.getAndIncrement() % bank.accounts);
+        }
+    }
+
+    @Benchmark
+    public void deposit(Bank bank, Writer writer) {
+        bank.deposit(writer.accountId);
+    }
+
+    static String accountId(int index) {
+        return "account-" + index;
+    }
+}
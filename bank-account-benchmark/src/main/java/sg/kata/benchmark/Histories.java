@@ -0,0 +1,34 @@
+package sg.kata.benchmark;
+
+import sg.kata.model.Statement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static sg.kata.model.OperationType.DEPOSIT;
+import static sg.kata.model.OperationType.WITHDRAW;
+
+final class Histories {
+
+    private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 9, 30, 15);
+
+    private Histories() {
+    }
+
+    /**
+     * Builds a chronological history alternating deposits of 100.25 and withdrawals of 40.10, one minute apart.
+     */
+    static List<Statement> of(int size) {
+        List<Statement> statements = new ArrayList<>(size);
+        BigDecimal balance = BigDecimal.ZERO;
+        for (int i = 0; i < size; i++) {
+            boolean deposit = i % 2 == 0;
+            BigDecimal amount = deposit ? new BigDecimal("100.25") : new BigDecimal("40.10");
+            balance = deposit ? balance.add(amount) : balance.subtract(amount);
+            statements.add(new Statement(START.plusMinutes(i), deposit ? DEPOSIT : WITHDRAW, amount, balance));
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,50 @@
+package sg.kata.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import sg.kata.service.BankAccountService;
+import sg.kata.service.HotAccountDetector;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposit throughput on a single hot account, which every writer thread targets. With {@code slots = 0}
+ * deposits take the account lock as usual; otherwise the account is detected as hot from its first writes and
+ * deposits are spread across that many sub-balance slots, so throughput should grow with the slot count.
+ * Run with several threads, e.g. {@code java -jar target/benchmarks.jar HotAccount -t 8}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HotAccountBenchmark {
+
+    private static final String ACCOUNT_ID = "merchant";
+    private static final BigDecimal AMOUNT = BigDecimal.valueOf(10);
+
+    @Param({"0", "1", "4", "16"})
+    int slots;
+
+    @Param({"200"})
+    long writeCost;
+
+    private BankAccountService service;
+
+    @Setup
+    public void setUp() {
+        InMemoryBankAccountRepository repository = new InMemoryBankAccountRepository(writeCost);
+        repository.open(ACCOUNT_ID, BigDecimal.ZERO);
+        HotAccountDetector hotAccountDetector = slots == 0
+            ? HotAccountDetector.disabled()
+            : new HotAccountDetector(true, 1, Duration.ofHours(1), slots);
+        service = Services.bankAccountService(repository, hotAccountDetector);
+    }
+
+    @Benchmark
+    public void deposit() {
+        service.deposit(ACCOUNT_ID, AMOUNT);
+    }
+}
@@ -0,0 +1,98 @@
+package sg.kata.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import sg.kata.service.BankAccountService;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How many deposits can be in flight at once when each write blocks on a slow database.
+ * {@code platform} mimics Tomcat's default pool of 200 request threads, {@code virtual} runs every request on
+ * its own virtual thread as {@code spring.threads.virtual.enabled=true} does. Each deposit holds one of
+ * {@code connectionPoolSize} connections for its whole write, like a Hikari connection held by the transaction,
+ * so whatever the threads the pool still caps in-flight writes: 10 is Hikari's default, 100 the size set by the
+ * {@code virtual-threads} profile. Each invocation submits {@code inFlight} concurrent requests on distinct
+ * accounts and waits for all of them.
+ * <p>
+ * Requests never go through Tomcat here; the numbers compare thread models against a connection limit, not the
+ * HTTP stack. The virtual-thread executor is looked up at run time, so the {@code virtual} cases need a Java 21
+ * JVM while the module still compiles with release 17.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InFlightCapacityBenchmark {
+
+    private static final int PLATFORM_POOL_SIZE = 200;
+    private static final int IN_FLIGHT = 2000;
+    private static final BigDecimal AMOUNT = BigDecimal.valueOf(10);
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        @Param({"platform", "virtual"})
+        String threads;
+
+        @Param({"10", "100"})
+        int connectionPoolSize;
+
+        @Param({"10"})
+        long writeLatencyMillis;
+
+        BankAccountService service;
+        ExecutorService executor;
+        Semaphore connections;
+
+        @Setup
+        public void setUp() throws ReflectiveOperationException {
+            InMemoryBankAccountRepository repository =
+                new InMemoryBankAccountRepository(0, Duration.ofMillis(writeLatencyMillis));
+            for (int i = 0; i < IN_FLIGHT; i++) {
+                repository.open(ConcurrentWriteBenchmark.accountId(i), BigDecimal.ZERO);
+            }
+            service = Services.bankAccountService(repository);
+            connections = new Semaphore(connectionPoolSize);
+            executor = "virtual".equals(threads)
+                ? (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null)
+                : Executors.newFixedThreadPool(PLATFORM_POOL_SIZE);
+        }
+
+        @TearDown
+        public void tearDown() {
+            executor.shutdownNow();
+        }
+
+        void deposit(String accountId) throws InterruptedException {
+            connections.acquire();
+            try {
+                service.deposit(accountId, AMOUNT);
+            } finally {
+                connections.release();
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IN_FLIGHT)
+    public void concurrentDeposits(Server server) throws Exception {
+        Future<?>[] requests = new Future<?>[IN_FLIGHT];
+        for (int i = 0; i < IN_FLIGHT; i++) {
+            String accountId = ConcurrentWriteBenchmark.accountId(i);
+            requests[i] = server.executor.submit(() -> {
+                server.deposit(accountId);
+                return null;
+            });
+        }
+        for (Future<?> request : requests) {
+            request.get();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package sg.kata.benchmark;
+
+import org.openjdk.jmh.infra.Blackhole;
+import sg.kata.exception.AccountNotFoundException;
+import sg.kata.model.AccountUpdate;
+import sg.kata.model.BankAccount;
+import sg.kata.model.MonthlySummary;
+import sg.kata.model.ReversedList;
+import sg.kata.model.Statement;
+import sg.kata.repository.BankAccountRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static sg.kata.service.BankAccountService.INVALID_ACCOUNT_MESSAGE;
+
+/**
+ * In-memory repository used by the benchmarks. New statements are dropped after each update
+ * so the history does not grow during a run, {@code writeCost} simulates the persistence work
+ * done while the account lock is held and {@code writeLatency} a blocking database round trip.
+ * A fixed history can be attached to an account for read benchmarks. Each sub-balance slot has its own
+ * lock, held while the write cost is paid, so that deposits on different slots run in parallel.
+ */
+class InMemoryBankAccountRepository implements BankAccountRepository {
+
+    private final Map<String, BigDecimal> balances = new ConcurrentHashMap<>();
+    private final Map<String, List<Statement>> histories = new ConcurrentHashMap<>();
+    private final Map<String, SubBalance[]> subBalances = new ConcurrentHashMap<>();
+    static final int SLOTS = 64;
+
+    private final long writeCost;
+    private final long writeLatencyNanos;
+
+    InMemoryBankAccountRepository(long writeCost) {
+        this(writeCost, Duration.ZERO);
+    }
+
+    InMemoryBankAccountRepository(long writeCost, Duration writeLatency) {
+        this.writeCost = writeCost;
+        this.writeLatencyNanos = writeLatency.toNanos();
+    }
+
+    void open(String accountId, BigDecimal balance) {
+        balances.put(accountId, balance);
+    }
+
+    void open(String accountId, List<Statement> history) {
+        histories.put(accountId, history);
+        balances.put(accountId, history.isEmpty() ? BigDecimal.ZERO : history.get(history.size() - 1).getBalance());
+    }
+
+    @Override
+    public BankAccount findById(String accountId) {
+        return new BankAccount(accountId, findBalanceById(accountId), histories.getOrDefault(accountId, new ArrayList<>()));
+    }
+
+    @Override
+    public BankAccount findForUpdate(String accountId) {
+        return new BankAccount(accountId, accountBalance(accountId), new ArrayList<>());
+    }
+
+    @Override
+    public BigDecimal findBalanceById(String accountId) {
+        BigDecimal balance = accountBalance(accountId);
+        for (SubBalance subBalance : subBalances.getOrDefault(accountId, new SubBalance[0])) {
+            synchronized (subBalance) {
+                balance = balance.add(subBalance.balance);
+            }
+        }
+        return balance;
+    }
+
+    @Override
+    public void update(BankAccount bankAccount) {
+        update(bankAccount, 1);
+    }
+
+    @Override
+    public void update(BankAccount bankAccount, int newStatementCount) {
+        write();
+        balances.put(bankAccount.getAccountId(), bankAccount.getBalance());
+    }
+
+    @Override
+    public void updateAll(List<BankAccount> bankAccounts) {
+        bankAccounts.forEach(this::update);
+    }
+
+    @Override
+    public void updateBatch(List<AccountUpdate> updates) {
+        updates.forEach(update -> update(update.bankAccount(), update.newStatementCount()));
+    }
+
+    @Override
+    public void depositToSlot(String accountId, int slot, LocalDateTime date, BigDecimal amount) {
+        accountBalance(accountId);
+        SubBalance subBalance = subBalances.computeIfAbsent(accountId, id -> newSubBalances())[slot];
+        synchronized (subBalance) {
+            write();
+            subBalance.balance = subBalance.balance.add(amount);
+        }
+    }
+
+    @Override
+    public void settleSlots(String accountId) {
+        SubBalance[] slots = subBalances.get(accountId);
+        if (slots == null) {
+            return;
+        }
+        BigDecimal settled = BigDecimal.ZERO;
+        for (SubBalance subBalance : slots) {
+            synchronized (subBalance) {
+                settled = settled.add(subBalance.balance);
+                subBalance.balance = BigDecimal.ZERO;
+            }
+        }
+        if (settled.signum() != 0) {
+            write();
+            balances.merge(accountId, settled, BigDecimal::add);
+        }
+    }
+
+    @Override
+    public List<Statement> findStatements(String accountId, LocalDateTime from, LocalDateTime to, int page, int size) {
+        List<Statement> history = histories.getOrDefault(accountId, List.of());
+        int end = Math.max(0, history.size() - page * size);
+        return ReversedList.of(history.subList(Math.max(0, end - size), end));
+    }
+
+    @Override
+    public void forEachStatement(String accountId, Consumer<Statement> consumer) {
+        ReversedList.of(histories.getOrDefault(accountId, List.of())).forEach(consumer);
+    }
+
+    /**
+     * Folds the attached history on every call, as a repository without a rollup table would.
+     */
+    @Override
+    public List<MonthlySummary> findMonthlySummaries(String accountId, YearMonth from, YearMonth to) {
+        accountBalance(accountId);
+        Map<YearMonth, MonthlySummary> summaries = new LinkedHashMap<>();
+        for (Statement statement : histories.getOrDefault(accountId, List.of())) {
+            YearMonth month = YearMonth.from(statement.getDate());
+            if ((from == null || !month.isBefore(from)) && (to == null || !month.isAfter(to))) {
+                summaries.compute(month,
+                    (key, summary) -> summary == null ? MonthlySummary.of(statement) : summary.add(statement));
+            }
+        }
+        return List.copyOf(summaries.values());
+    }
+
+    private BigDecimal accountBalance(String accountId) {
+        BigDecimal balance = balances.get(accountId);
+        if (balance == null) {
+            throw new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE);
+        }
+        return balance;
+    }
+
+    private void write() {
+        Blackhole.consumeCPU(writeCost);
+        if (writeLatencyNanos > 0) {
+            LockSupport.parkNanos(writeLatencyNanos);
+        }
+    }
+
+    private static SubBalance[] newSubBalances() {
+        SubBalance[] slots = new SubBalance[SLOTS];
+        for (int i = 0; i < SLOTS; i++) {
+            slots[i] = new SubBalance();
+        }
+        return slots;
+    }
+
+    private static final class SubBalance {
+        private BigDecimal balance = BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,53 @@
+package sg.kata.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import sg.kata.model.BankAccount;
+import sg.kata.model.Money;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposit/withdraw rules on {@link BigDecimal} balances compared with {@code long} minor units.
+ * Run with {@code -prof gc} to compare allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("12.34");
+    private static final long AMOUNT_MINOR_UNITS = Money.toMinorUnits(AMOUNT);
+
+    private BigDecimal balance;
+    private long balanceMinorUnits;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        balance = new BigDecimal("1000000.00");
+        balanceMinorUnits = Money.toMinorUnits(balance);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalDepositThenWithdraw() {
+        if (AMOUNT.signum() <= 0 || AMOUNT.scale() > 2) {
+            throw new IllegalStateException();
+        }
+        balance = balance.add(AMOUNT);
+        if (AMOUNT.compareTo(balance) > 0) {
+            throw new IllegalStateException();
+        }
+        balance = balance.subtract(AMOUNT);
+        return balance;
+    }
+
+    @Benchmark
+    public long minorUnitsDepositThenWithdraw() {
+        balanceMinorUnits = BankAccount.depositMinorUnits(balanceMinorUnits, AMOUNT_MINOR_UNITS);
+        balanceMinorUnits = BankAccount.withdrawMinorUnits(balanceMinorUnits, AMOUNT_MINOR_UNITS);
+        return balanceMinorUnits;
+    }
+}
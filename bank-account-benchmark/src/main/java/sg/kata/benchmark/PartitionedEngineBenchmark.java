@@ -0,0 +1,120 @@
+package sg.kata.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sg.kata.model.AccountOperation;
+import sg.kata.model.LedgerEntry;
+import sg.kata.repository.OperationLog;
+import sg.kata.service.BankAccountService;
+import sg.kata.service.PartitionedAccountEngine;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static sg.kata.model.OperationType.DEPOSIT;
+
+/**
+ * Deposit throughput of the {@link PartitionedAccountEngine} against the locking {@link BankAccountService}.
+ * Both pay {@code writeCost} per write: per operation for the service, per appended batch for the engine.
+ * Run with several thread counts, e.g. {@code java -jar target/benchmarks.jar PartitionedEngine -t 1,4,8}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartitionedEngineBenchmark {
+
+    private static final BigDecimal AMOUNT = BigDecimal.valueOf(10);
+
+    @State(Scope.Benchmark)
+    public static class Bank {
+
+        @Param({"service", "engine"})
+        String mode;
+
+        @Param({"64"})
+        int accounts;
+
+        @Param({"200"})
+        long writeCost;
+
+        @Param({"4"})
+        int partitions;
+
+        BankAccountService service;
+        PartitionedAccountEngine engine;
+        final AtomicInteger threadIndex = new AtomicInteger();
+
+        @Setup
+        public void setUp() {
+            if ("engine".equals(mode)) {
+                engine = new PartitionedAccountEngine(new CostlyOperationLog(writeCost), partitions, 65536, 256);
+                for (int i = 0; i < accounts; i++) {
+                    engine.open(ConcurrentWriteBenchmark.accountId(i), BigDecimal.ZERO).join();
+                }
+            } else {
+                InMemoryBankAccountRepository repository = new InMemoryBankAccountRepository(writeCost);
+                for (int i = 0; i < accounts; i++) {
+                    repository.open(ConcurrentWriteBenchmark.accountId(i), BigDecimal.ZERO);
+                }
+                service = Services.bankAccountService(repository);
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            if (engine != null) {
+                engine.close();
+            }
+        }
+
+        void deposit(String accountId) {
+            if (engine != null) {
+                engine.execute(new AccountOperation(accountId, DEPOSIT, AMOUNT));
+            } else {
+                service.deposit(accountId, AMOUNT);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+
+        String accountId;
+
+        @Setup
+        public void setUp(Bank bank) {
+            accountId = ConcurrentWriteBenchmark.accountId(bank.threadIndex.getAndIncrement() % bank.accounts);
+        }
+    }
+
+    @Benchmark
+    public void deposit(Bank bank, Writer writer) {
+        bank.deposit(writer.accountId);
+    }
+
+    private record CostlyOperationLog(long writeCost) implements OperationLog {
+
+        @Override
+        public void append(List<LedgerEntry> entries) {
+            Blackhole.consumeCPU(writeCost);
+        }
+
+        @Override
+        public void replay(Consumer<LedgerEntry> consumer) {
+        }
+
+        @Override
+        public long size() {
+            return 0;
+        }
+
+        @Override
+        public void read(long from, long to, Consumer<LedgerEntry> consumer) {
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package sg.kata.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import sg.kata.service.BankAccountService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BankAccountService#printStatement} over the full history and over one page, at several history sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrintStatementBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int historySize;
+
+    private BankAccountService service;
+
+    @Setup
+    public void setUp() {
+        InMemoryBankAccountRepository repository = new InMemoryBankAccountRepository(0);
+        repository.open("123", Histories.of(historySize));
+        service = Services.bankAccountService(repository);
+    }
+
+    @Benchmark
+    public String printFullStatement() {
+        return service.printStatement("123");
+    }
+
+    @Benchmark
+    public String printLatestPage() {
+        return service.printStatement("123", null, null, 0, 50);
+    }
+}
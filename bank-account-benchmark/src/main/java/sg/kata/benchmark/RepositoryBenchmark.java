@@ -0,0 +1,86 @@
+package sg.kata.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import sg.kata.entity.BankAccountEntity;
+import sg.kata.entity.StatementEntity;
+import sg.kata.model.BankAccount;
+import sg.kata.model.Statement;
+import sg.kata.repository.BankAccountEntityJpaRepository;
+import sg.kata.repository.BankAccountEntityRepository;
+import sg.kata.repository.StatementEntityJpaRepository;
+import sg.kata.service.BankAccountService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BankAccountEntityRepository} reads and writes against embedded H2, at several history sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+
+    @Param({"0", "1000", "10000"})
+    int historySize;
+
+    private ConfigurableApplicationContext context;
+    private BankAccountEntityRepository repository;
+    private BankAccountService service;
+    private String accountId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        repository = context.getBean(BankAccountEntityRepository.class);
+        service = context.getBean(BankAccountService.class);
+
+        List<Statement> history = Histories.of(historySize);
+        BigDecimal balance = history.isEmpty() ? BigDecimal.ZERO : history.get(history.size() - 1).getBalance();
+        accountId = context.getBean(BankAccountEntityJpaRepository.class)
+            .save(new BankAccountEntity(null, balance, new ArrayList<>(), null))
+            .getAccountId();
+        context.getBean(StatementEntityJpaRepository.class).saveAll(history.stream()
+            .map(statement -> StatementEntity.builder()
+                .accountId(accountId)
+                .date(statement.getDate())
+                .operationType(statement.getOperationType())
+                .amount(statement.getAmount())
+                .balance(statement.getBalance())
+                .build())
+            .toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BankAccount findById() {
+        return repository.findById(accountId);
+    }
+
+    @Benchmark
+    public BigDecimal findBalanceById() {
+        return repository.findBalanceById(accountId);
+    }
+
+    @Benchmark
+    public List<Statement> findLatestStatements() {
+        return repository.findStatements(accountId, null, null, 0, 50);
+    }
+
+    @Benchmark
+    public void deposit() {
+        service.deposit(accountId, AMOUNT);
+    }
+}
@@ -0,0 +1,28 @@
+package sg.kata.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import sg.kata.repository.BankAccountRepository;
+import sg.kata.service.AccountLockManager;
+import sg.kata.service.BankAccountService;
+import sg.kata.service.ConflictRetryPolicy;
+import sg.kata.service.HotAccountDetector;
+import sg.kata.service.StatementRenderer;
+
+import java.time.Duration;
+
+final class Services {
+
+    private Services() {
+    }
+
+    static BankAccountService bankAccountService(BankAccountRepository repository) {
+        return bankAccountService(repository, HotAccountDetector.disabled());
+    }
+
+    static BankAccountService bankAccountService(BankAccountRepository repository,
+                                                 HotAccountDetector hotAccountDetector) {
+        return new BankAccountService(repository, new AccountLockManager(),
+            new ConflictRetryPolicy(1, Duration.ZERO, Duration.ZERO), new SimpleMeterRegistry(), hotAccountDetector,
+            new StatementRenderer());
+    }
+}
@@ -0,0 +1,53 @@
+package sg.kata.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import sg.kata.model.Statement;
+import sg.kata.service.StatementRenderer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static sg.kata.service.BankAccountService.*;
+
+/**
+ * Rendering a history with {@code String.format(STATEMENT_FORMAT, ...)} per row compared with
+ * {@link StatementRenderer}, which produces the same bytes. Run with {@code -prof gc} to compare allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatementRenderBenchmark {
+
+    @Param({"50", "1000"})
+    int historySize;
+
+    private List<Statement> statements;
+    private final StatementRenderer renderer = new StatementRenderer();
+
+    @Setup
+    public void setUp() {
+        statements = Histories.of(historySize);
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(STATEMENT_TITLE);
+        sb.append(STATEMENT_DELIMITER);
+        for (Statement statement : statements) {
+            sb.append(String.format(STATEMENT_FORMAT,
+                statement.getDate(), statement.getOperationType(),
+                statement.getAmount(), statement.getBalance())
+            );
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public String statementRenderer() {
+        return renderer.render(statements);
+    }
+}
@@ -0,0 +1,7 @@
+package sg.kata.exception;
+
+public class InvalidPageException extends IllegalArgumentException {
+    public InvalidPageException(String message) {
+        super(message);
+    }
+}
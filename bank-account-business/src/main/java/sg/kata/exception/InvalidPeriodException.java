@@ -0,0 +1,7 @@
+package sg.kata.exception;
+
+public class InvalidPeriodException extends IllegalArgumentException {
+    public InvalidPeriodException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package sg.kata.exception;
+
+public class InvalidTransferException extends IllegalArgumentException {
+    public InvalidTransferException(String message) {
+        super(message);
+    }
+}
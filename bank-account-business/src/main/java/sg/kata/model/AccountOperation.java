@@ -0,0 +1,6 @@
+package sg.kata.model;
+
+import java.math.BigDecimal;
+
+public record AccountOperation(String accountId, OperationType operationType, BigDecimal amount) {
+}
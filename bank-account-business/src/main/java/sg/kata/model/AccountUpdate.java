@@ -0,0 +1,7 @@
+package sg.kata.model;
+
+/**
+ * An account to persist together with the number of statements appended to it since it was loaded.
+ */
+public record AccountUpdate(BankAccount bankAccount, int newStatementCount) {
+}
@@ -0,0 +1,61 @@
+package sg.kata.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Payload format of a {@code STATEMENT_ARCHIVE} segment: its statements, oldest first, gzip-compressed. Shared by
+ * the adapters that write and read the archive.
+ */
+public final class ArchivedStatements {
+
+    private static final OperationType[] OPERATION_TYPES = OperationType.values();
+
+    private ArchivedStatements() {
+    }
+
+    public static byte[] encode(List<Statement> statements) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            output.writeInt(statements.size());
+            for (Statement statement : statements) {
+                output.writeLong(statement.getDate().toEpochSecond(ZoneOffset.UTC));
+                output.writeInt(statement.getDate().getNano());
+                output.writeByte(statement.getOperationType().ordinal());
+                output.writeUTF(statement.getAmount().toPlainString());
+                output.writeUTF(statement.getBalance().toPlainString());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static List<Statement> decode(byte[] payload) {
+        try (DataInputStream input = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(payload)))) {
+            int count = input.readInt();
+            List<Statement> statements = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                LocalDateTime date = LocalDateTime.ofEpochSecond(input.readLong(), input.readInt(), ZoneOffset.UTC);
+                OperationType operationType = OPERATION_TYPES[input.readByte()];
+                BigDecimal amount = new BigDecimal(input.readUTF());
+                BigDecimal balance = new BigDecimal(input.readUTF());
+                statements.add(new Statement(date, operationType, amount, balance));
+            }
+            return statements;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
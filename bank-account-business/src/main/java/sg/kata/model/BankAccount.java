@@ -15,6 +15,10 @@ import static sg.kata.model.OperationType.DEPOSIT;
 import static sg.kata.model.OperationType.WITHDRAW;
 import static sg.kata.service.BankAccountService.*;
 
+/**
+ * Statements are only ever appended, by {@link #deposit(BigDecimal)} and {@link #withdraw(BigDecimal)}, and
+ * repositories load them oldest first, so the list is always in chronological order.
+ */
 @Data
 @AllArgsConstructor
 @Builder
@@ -22,29 +26,80 @@ public class BankAccount {
     private String accountId;
     private BigDecimal balance;
     private List<Statement> statements;
+    private Long version;
+
+    public BankAccount(String accountId, BigDecimal balance, List<Statement> statements) {
+        this(accountId, balance, statements, null);
+    }
 
     public void deposit(BigDecimal amount) {
-        compareWithZero(amount, DEPOSIT);
-        validatePrecision(amount);
+        validateDeposit(amount);
         balance = balance.add(amount);
         statements.add(new Statement(now(), DEPOSIT, amount, balance));
     }
 
     public void withdraw(BigDecimal amount) {
-        compareWithZero(amount, WITHDRAW);
-        validatePrecision(amount);
+        validateWithdrawal(amount);
         validateBalance(amount, balance);
         balance = balance.subtract(amount);
         statements.add(new Statement(now(), WITHDRAW, amount, balance));
     }
 
-    private void compareWithZero(BigDecimal amount, OperationType operationType) {
+    /**
+     * Most recent statement first, as a reversed view of the statements rather than a sorted copy.
+     */
+    public List<Statement> statementsMostRecentFirst() {
+        return ReversedList.of(statements);
+    }
+
+    /**
+     * Checks a deposit amount against the rules of {@link #deposit(BigDecimal)}, for deposits that are recorded
+     * without loading the account.
+     */
+    public static void validateDeposit(BigDecimal amount) {
+        compareWithZero(amount, DEPOSIT);
+        validatePrecision(amount);
+    }
+
+    /**
+     * Checks a withdrawal amount against the rules of {@link #withdraw(BigDecimal)} that do not depend on the
+     * balance.
+     */
+    public static void validateWithdrawal(BigDecimal amount) {
+        compareWithZero(amount, WITHDRAW);
+        validatePrecision(amount);
+    }
+
+    /**
+     * Same rules as {@link #deposit(BigDecimal)} on amounts in minor units; returns the new balance.
+     */
+    public static long depositMinorUnits(long balance, long amount) {
+        if (amount <= 0) {
+            throw new InvalidAmountException(DEPOSIT.getDescription() + POSITIVE_AMOUNT_MESSAGE);
+        }
+        return Money.add(balance, amount);
+    }
+
+    /**
+     * Same rules as {@link #withdraw(BigDecimal)} on amounts in minor units; returns the new balance.
+     */
+    public static long withdrawMinorUnits(long balance, long amount) {
+        if (amount <= 0) {
+            throw new InvalidAmountException(WITHDRAW.getDescription() + POSITIVE_AMOUNT_MESSAGE);
+        }
+        if (amount > balance) {
+            throw new InsufficientBalanceException(INSUFFICIENT_BALANCE_MESSAGE);
+        }
+        return balance - amount;
+    }
+
+    private static void compareWithZero(BigDecimal amount, OperationType operationType) {
         if (amount.compareTo(ZERO) <= 0) {
             throw new InvalidAmountException(operationType.getDescription() + POSITIVE_AMOUNT_MESSAGE);
         }
     }
 
-    private void validatePrecision(BigDecimal amount) {
+    private static void validatePrecision(BigDecimal amount) {
         if (amount.scale() > 2) {
             throw new InvalidAmountException(PRECISION_EXCEEDED_MESSAGE);
         }
@@ -0,0 +1,19 @@
+package sg.kata.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One applied operation as written to an {@link sg.kata.repository.OperationLog}, amounts in minor units.
+ * The opening entry of an account has no operation type and carries its initial balance.
+ */
+public record LedgerEntry(String accountId, OperationType operationType, LocalDateTime date, long amount,
+                          long balance) {
+
+    public static LedgerEntry opening(String accountId, LocalDateTime date, long balance) {
+        return new LedgerEntry(accountId, null, date, 0, balance);
+    }
+
+    public boolean isOpening() {
+        return operationType == null;
+    }
+}
@@ -0,0 +1,47 @@
+package sg.kata.model;
+
+import sg.kata.exception.InvalidAmountException;
+
+import java.math.BigDecimal;
+
+import static sg.kata.service.BankAccountService.AMOUNT_OUT_OF_RANGE_MESSAGE;
+import static sg.kata.service.BankAccountService.PRECISION_EXCEEDED_MESSAGE;
+
+/**
+ * Conversions between {@link BigDecimal} amounts and {@code long} numbers of cents, for the in-memory engine and
+ * the journal, which keep balances in minor units; {@link BankAccount#depositMinorUnits(long, long)} and
+ * {@link BankAccount#withdrawMinorUnits(long, long)} apply the business rules to them.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    public static long toMinorUnits(BigDecimal amount) {
+        if (amount.scale() > SCALE) {
+            throw new InvalidAmountException(PRECISION_EXCEEDED_MESSAGE);
+        }
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new InvalidAmountException(AMOUNT_OUT_OF_RANGE_MESSAGE);
+        }
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * Overflow-checked addition of two amounts in minor units.
+     */
+    public static long add(long first, long second) {
+        try {
+            return Math.addExact(first, second);
+        } catch (ArithmeticException e) {
+            throw new InvalidAmountException(AMOUNT_OUT_OF_RANGE_MESSAGE);
+        }
+    }
+}
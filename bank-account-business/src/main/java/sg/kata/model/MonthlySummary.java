@@ -0,0 +1,44 @@
+package sg.kata.model;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+import static java.math.BigDecimal.ZERO;
+import static sg.kata.model.OperationType.DEPOSIT;
+
+/**
+ * Totals of one account over one calendar month, folded from its statements in order: the opening balance is
+ * the balance before the month's first statement, the closing balance the one after its last.
+ */
+public record MonthlySummary(YearMonth month, BigDecimal openingBalance, BigDecimal totalDeposits,
+                             BigDecimal totalWithdrawals, BigDecimal closingBalance, long operationCount) {
+
+    /**
+     * Summary of a month made of this statement alone.
+     */
+    public static MonthlySummary of(Statement statement) {
+        BigDecimal amount = statement.getAmount();
+        boolean deposit = statement.getOperationType() == DEPOSIT;
+        return new MonthlySummary(
+            YearMonth.from(statement.getDate()),
+            deposit ? statement.getBalance().subtract(amount) : statement.getBalance().add(amount),
+            deposit ? amount : ZERO,
+            deposit ? ZERO : amount,
+            statement.getBalance(),
+            1);
+    }
+
+    /**
+     * This summary followed by a later statement of the same month.
+     */
+    public MonthlySummary add(Statement statement) {
+        boolean deposit = statement.getOperationType() == DEPOSIT;
+        return new MonthlySummary(
+            month,
+            openingBalance,
+            deposit ? totalDeposits.add(statement.getAmount()) : totalDeposits,
+            deposit ? totalWithdrawals : totalWithdrawals.add(statement.getAmount()),
+            statement.getBalance(),
+            operationCount + 1);
+    }
+}
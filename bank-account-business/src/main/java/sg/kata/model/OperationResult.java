@@ -0,0 +1,12 @@
+package sg.kata.model;
+
+public record OperationResult(int index, String accountId, boolean success, String message) {
+
+    public static OperationResult succeeded(int index, String accountId) {
+        return new OperationResult(index, accountId, true, null);
+    }
+
+    public static OperationResult failed(int index, String accountId, String message) {
+        return new OperationResult(index, accountId, false, message);
+    }
+}
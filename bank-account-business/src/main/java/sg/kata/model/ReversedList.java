@@ -0,0 +1,78 @@
+package sg.kata.model;
+
+import java.util.AbstractSequentialList;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Read-only view of a list in reverse order, walking the backing list's iterator backwards from
+ * {@code listIterator(size())}. Nothing is copied, and later appends to the backing list show up first in the view.
+ */
+public final class ReversedList<E> extends AbstractSequentialList<E> {
+
+    private final List<E> list;
+
+    private ReversedList(List<E> list) {
+        this.list = list;
+    }
+
+    public static <E> List<E> of(List<E> list) {
+        return new ReversedList<>(list);
+    }
+
+    @Override
+    public int size() {
+        return list.size();
+    }
+
+    @Override
+    public ListIterator<E> listIterator(int index) {
+        ListIterator<E> backing = list.listIterator(list.size() - index);
+        return new ListIterator<>() {
+            @Override
+            public boolean hasNext() {
+                return backing.hasPrevious();
+            }
+
+            @Override
+            public E next() {
+                return backing.previous();
+            }
+
+            @Override
+            public boolean hasPrevious() {
+                return backing.hasNext();
+            }
+
+            @Override
+            public E previous() {
+                return backing.next();
+            }
+
+            @Override
+            public int nextIndex() {
+                return list.size() - backing.nextIndex();
+            }
+
+            @Override
+            public int previousIndex() {
+                return nextIndex() - 1;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void set(E e) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void add(E e) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
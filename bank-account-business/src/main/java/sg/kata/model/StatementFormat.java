@@ -0,0 +1,7 @@
+package sg.kata.model;
+
+public enum StatementFormat {
+    TEXT,
+    CSV,
+    NDJSON
+}
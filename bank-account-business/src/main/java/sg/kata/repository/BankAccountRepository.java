@@ -1,11 +1,72 @@
 package sg.kata.repository;
 
+import sg.kata.model.AccountUpdate;
 import sg.kata.model.BankAccount;
-import sg.kata.model.OperationType;
+import sg.kata.model.MonthlySummary;
+import sg.kata.model.Statement;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface BankAccountRepository {
     BankAccount findById(String accountId);
+
+    /**
+     * Returns the account's balance and version without its statement history.
+     */
+    BankAccount findForUpdate(String accountId);
+
+    /**
+     * Returns the account's balance, including the deposits still pending in its sub-balance slots.
+     */
+    BigDecimal findBalanceById(String accountId);
+
     void update(BankAccount bankAccount);
+
+    /**
+     * Persists the last {@code newStatementCount} statements of the account and the resulting balance in one write.
+     */
+    void update(BankAccount bankAccount, int newStatementCount);
+
+    /**
+     * Persists the last statement of every account atomically.
+     */
+    void updateAll(List<BankAccount> bankAccounts);
+
+    /**
+     * Persists every update, each with its own number of new statements, in a single commit.
+     */
+    void updateBatch(List<AccountUpdate> updates);
+
+    /**
+     * Records a deposit against one of the account's sub-balance slots without writing the account itself,
+     * so deposits on different slots of a hot account do not contend. The deposit counts in
+     * {@link #findBalanceById(String)} at once but only becomes a statement when the slots are settled.
+     */
+    void depositToSlot(String accountId, int slot, LocalDateTime date, BigDecimal amount);
+
+    /**
+     * Folds the pending slot deposits into the account, in date order, as regular deposit statements.
+     */
+    void settleSlots(String accountId);
+
+    /**
+     * Returns one page of statements, most recent first, dated in {@code [from, to)}.
+     * A {@code null} bound leaves that side of the range open.
+     */
+    List<Statement> findStatements(String accountId, LocalDateTime from, LocalDateTime to, int page, int size);
+
+    /**
+     * Passes every statement of the account to {@code consumer}, most recent first, as they are read.
+     */
+    void forEachStatement(String accountId, Consumer<Statement> consumer);
+
+    /**
+     * Returns the summaries of the months in {@code [from, to]} in which the account has statements, oldest first.
+     * A {@code null} bound leaves that side of the range open.
+     */
+    List<MonthlySummary> findMonthlySummaries(String accountId, YearMonth from, YearMonth to);
 }
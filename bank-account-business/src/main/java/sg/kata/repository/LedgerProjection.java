@@ -0,0 +1,22 @@
+package sg.kata.repository;
+
+import sg.kata.model.LedgerEntry;
+
+import java.util.List;
+
+/**
+ * Store kept in step with an {@link OperationLog}, so that statements, summaries and exports read from it see
+ * every logged operation. Entries are applied in log order and the position moves with them, atomically.
+ */
+public interface LedgerProjection {
+
+    /**
+     * Number of the first log entry not applied yet.
+     */
+    long position();
+
+    /**
+     * Applies the entries, which start at {@link #position()}, and moves the position past them.
+     */
+    void apply(List<LedgerEntry> entries);
+}
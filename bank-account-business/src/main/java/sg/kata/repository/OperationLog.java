@@ -0,0 +1,32 @@
+package sg.kata.repository;
+
+import sg.kata.model.LedgerEntry;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Sequential write-ahead log of applied operations, the only durable state of the in-memory account engine.
+ */
+public interface OperationLog {
+
+    /**
+     * Appends the entries in order and returns once they are durable according to the log's fsync policy.
+     */
+    void append(List<LedgerEntry> entries);
+
+    /**
+     * Passes every entry to {@code consumer}, oldest first.
+     */
+    void replay(Consumer<LedgerEntry> consumer);
+
+    /**
+     * Number of entries appended so far. Entries are numbered from zero in log order.
+     */
+    long size();
+
+    /**
+     * Passes the entries numbered from {@code from} inclusive to {@code to} exclusive to {@code consumer}, in order.
+     */
+    void read(long from, long to, Consumer<LedgerEntry> consumer);
+}
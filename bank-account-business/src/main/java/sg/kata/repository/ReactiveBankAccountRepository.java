@@ -0,0 +1,42 @@
+package sg.kata.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sg.kata.model.BankAccount;
+import sg.kata.model.Statement;
+
+import java.math.BigDecimal;
+
+/**
+ * Non-blocking counterpart of {@link BankAccountRepository}. Missing accounts are signalled as an
+ * {@link sg.kata.exception.AccountNotFoundException} error rather than an empty publisher.
+ */
+public interface ReactiveBankAccountRepository {
+
+    /**
+     * Emits the account's balance and version without its statement history.
+     */
+    Mono<BankAccount> findForUpdate(String accountId);
+
+    /**
+     * Emits the account's balance, including the sub-balance slots of a hot account that are not settled yet.
+     */
+    Mono<BigDecimal> findBalanceById(String accountId);
+
+    /**
+     * Persists the last statement of the account and the resulting balance in one transaction, failing with
+     * {@link sg.kata.exception.ConcurrentUpdateException} when the account's version has moved on.
+     */
+    Mono<Void> update(BankAccount bankAccount);
+
+    /**
+     * Folds the account's pending slot deposits into its balance and statements, as
+     * {@link BankAccountRepository#settleSlots(String)} does, completing at once when there are none.
+     */
+    Mono<Void> settleSlots(String accountId);
+
+    /**
+     * Streams every statement of the account, most recent first, as rows are read.
+     */
+    Flux<Statement> findStatements(String accountId);
+}
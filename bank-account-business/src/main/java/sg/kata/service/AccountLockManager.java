@@ -0,0 +1,131 @@
+package sg.kata.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes writes per account with a fixed array of striped locks, so that
+ * unrelated accounts can be updated in parallel while the same account stays linearizable.
+ * Each stripe is a read-write lock: regular writes take it exclusively, while sub-balance slot
+ * deposits, which never touch the account itself, share it and only exclude the exclusive writers.
+ */
+@Component
+public class AccountLockManager {
+
+    private static final int DEFAULT_STRIPES = 1024;
+
+    private final ReentrantReadWriteLock[] stripes;
+
+    public AccountLockManager() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public AccountLockManager(int stripes) {
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantReadWriteLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    public void withLock(String accountId, Runnable action) {
+        withLock(accountId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T withLock(String accountId, Supplier<T> action) {
+        Lock lock = lockFor(accountId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the action while sharing the account's stripe with other shared holders; exclusive writers wait
+     * for all of them to finish.
+     */
+    public void withSharedLock(String accountId, Runnable action) {
+        Lock lock = stripes[stripeOf(accountId)].readLock();
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Locks both accounts in stripe order, so that opposing transfers cannot deadlock.
+     */
+    public <T> T withLocks(String firstAccountId, String secondAccountId, Supplier<T> action) {
+        int firstStripe = stripeOf(firstAccountId);
+        int secondStripe = stripeOf(secondAccountId);
+        if (firstStripe == secondStripe) {
+            return withLock(firstAccountId, action);
+        }
+        Lock outer = stripes[Math.min(firstStripe, secondStripe)].writeLock();
+        Lock inner = stripes[Math.max(firstStripe, secondStripe)].writeLock();
+        outer.lock();
+        try {
+            inner.lock();
+            try {
+                return action.get();
+            } finally {
+                inner.unlock();
+            }
+        } finally {
+            outer.unlock();
+        }
+    }
+
+    public void withLocks(String firstAccountId, String secondAccountId, Runnable action) {
+        withLocks(firstAccountId, secondAccountId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Locks every account of the collection in stripe order, each stripe once.
+     */
+    public void withLocks(Collection<String> accountIds, Runnable action) {
+        int[] lockedStripes = accountIds.stream()
+            .mapToInt(this::stripeOf)
+            .distinct()
+            .sorted()
+            .toArray();
+        int locked = 0;
+        try {
+            for (int stripe : lockedStripes) {
+                stripes[stripe].writeLock().lock();
+                locked++;
+            }
+            action.run();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[lockedStripes[i]].writeLock().unlock();
+            }
+        }
+    }
+
+    int stripeOf(String accountId) {
+        int hash = accountId.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+
+    private Lock lockFor(String accountId) {
+        return stripes[stripeOf(accountId)].writeLock();
+    }
+}
@@ -1,19 +1,45 @@
 package sg.kata.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import sg.kata.exception.ConcurrentUpdateException;
+import sg.kata.exception.InsufficientBalanceException;
+import sg.kata.exception.InvalidAmountException;
+import sg.kata.exception.InvalidPageException;
+import sg.kata.exception.InvalidPeriodException;
+import sg.kata.exception.InvalidTransferException;
+import sg.kata.model.AccountOperation;
 import sg.kata.model.BankAccount;
-import sg.kata.model.Statement;
+import sg.kata.model.MonthlySummary;
+import sg.kata.model.OperationResult;
+import sg.kata.model.StatementFormat;
 import sg.kata.repository.BankAccountRepository;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static sg.kata.model.OperationType.WITHDRAW;
 
 @Service
 @RequiredArgsConstructor
 public class BankAccountService {
 
     public static final String PRECISION_EXCEEDED_MESSAGE = "Amount must not have more than two decimal places.";
+    public static final String AMOUNT_OUT_OF_RANGE_MESSAGE = "Amount is out of range.";
     public static final String INSUFFICIENT_BALANCE_MESSAGE = "Insufficient balance.";
     public static final String INVALID_ACCOUNT_MESSAGE = "Account does not exist.";
     public static final String POSITIVE_AMOUNT_MESSAGE = " amount must be positive.";
@@ -22,47 +48,234 @@ public class BankAccountService {
     public static final String STATEMENT_FORMAT = "%-20s| %-10s| %-8.2f| %-8.2f\n";
     public static final String ACCOUNT_WITHOUT_STATEMENT = "Account has no statement.";
     public static final String UPDATE_WITHOUT_STATEMENT = "Update must have a statement.";
+    public static final String UPDATE_WITHOUT_VERSION = "Update must be of an account read with its version.";
+    public static final String INVALID_PAGE_MESSAGE = "Page must be positive and size between 1 and 1000.";
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final String INVALID_PERIOD_MESSAGE = "Period start must not be after its end.";
+    public static final String INVALID_OPERATION_MESSAGE = "Operation must have a type and an amount.";
+    public static final String SAME_ACCOUNT_TRANSFER_MESSAGE = "Transfer accounts must be different.";
+    public static final String CONCURRENT_UPDATE_MESSAGE = "Account was updated concurrently.";
+    public static final String SERVICE_TIMER = "bank.service";
+    public static final String LOCK_WAIT_TIMER = "bank.lock.wait";
 
 
     private final BankAccountRepository bankAccountRepository;
+    private final AccountLockManager accountLockManager;
+    private final ConflictRetryPolicy conflictRetryPolicy;
+    private final MeterRegistry meterRegistry;
+    private final HotAccountDetector hotAccountDetector;
+    private final StatementRenderer statementRenderer;
 
-    public synchronized void deposit(String accountId, BigDecimal amount) {
-        BankAccount bankAccount = bankAccountRepository.findById(accountId);
-        bankAccount.deposit(amount);
-        bankAccountRepository.update(bankAccount);
+    /**
+     * Deposits on a hot account go to one of its sub-balance slots under a shared lock, so they run in parallel
+     * with each other and only wait for the exclusive writes that settle the slots.
+     */
+    public void deposit(String accountId, BigDecimal amount) {
+        if (hotAccountDetector.recordWrite(accountId)) {
+            timed("slotDeposit", () -> {
+                BankAccount.validateDeposit(amount);
+                int slot = hotAccountDetector.nextSlot();
+                conflictRetryPolicy.execute(() -> accountLockManager.withSharedLock(accountId,
+                    () -> bankAccountRepository.depositToSlot(accountId, slot, LocalDateTime.now(), amount)));
+            });
+            return;
+        }
+        timed("deposit", () -> conflictRetryPolicy.execute(() -> locked(accountId, () -> {
+            settleSlots(accountId);
+            BankAccount bankAccount = bankAccountRepository.findForUpdate(accountId);
+            bankAccount.deposit(amount);
+            bankAccountRepository.update(bankAccount);
+        })));
     }
 
-    public synchronized void withdraw(String accountId, BigDecimal amount) {
-        BankAccount bankAccount = bankAccountRepository.findById(accountId);
-        bankAccount.withdraw(amount);
-        bankAccountRepository.update(bankAccount);
+    public void withdraw(String accountId, BigDecimal amount) {
+        timed("withdraw", () -> conflictRetryPolicy.execute(() -> locked(accountId, () -> {
+            settleSlots(accountId);
+            BankAccount bankAccount = bankAccountRepository.findForUpdate(accountId);
+            bankAccount.withdraw(amount);
+            bankAccountRepository.update(bankAccount);
+        })));
+    }
+
+    public void transfer(String fromAccountId, String toAccountId, BigDecimal amount) {
+        if (fromAccountId.equals(toAccountId)) {
+            throw new InvalidTransferException(SAME_ACCOUNT_TRANSFER_MESSAGE);
+        }
+        timed("transfer", () -> conflictRetryPolicy.execute(() -> {
+            long lockRequested = System.nanoTime();
+            accountLockManager.withLocks(fromAccountId, toAccountId, () -> {
+                recordLockWait(lockRequested);
+                settleSlots(fromAccountId);
+                settleSlots(toAccountId);
+                BankAccount from = bankAccountRepository.findForUpdate(fromAccountId);
+                BankAccount to = bankAccountRepository.findForUpdate(toAccountId);
+                from.withdraw(amount);
+                to.deposit(amount);
+                bankAccountRepository.updateAll(List.of(from, to));
+            });
+        }));
+    }
+
+    public List<OperationResult> applyBatch(List<AccountOperation> operations) {
+        Map<String, List<Integer>> indexesByAccount = new LinkedHashMap<>();
+        OperationResult[] results = new OperationResult[operations.size()];
+        for (int i = 0; i < operations.size(); i++) {
+            String accountId = operations.get(i).accountId();
+            if (accountId == null) {
+                results[i] = OperationResult.failed(i, null, INVALID_OPERATION_MESSAGE);
+                continue;
+            }
+            indexesByAccount.computeIfAbsent(accountId, id -> new ArrayList<>()).add(i);
+        }
+        timed("batch", () -> indexesByAccount.forEach((accountId, indexes) -> conflictRetryPolicy.execute(
+            () -> locked(accountId, () -> applyToAccount(accountId, indexes, operations, results)))));
+        return Arrays.asList(results);
     }
 
     public BigDecimal getBalance(String accountId) {
-        BankAccount bankAccount = bankAccountRepository.findById(accountId);
-        return bankAccount.getBalance();
+        return timed("getBalance", () -> bankAccountRepository.findBalanceById(accountId));
     }
 
     public String printStatement(String accountId) {
-        BankAccount bankAccount = bankAccountRepository.findById(accountId);
+        return timed("printStatement", () -> {
+            settle(accountId);
+            return statementRenderer.render(bankAccountRepository.findById(accountId).statementsMostRecentFirst());
+        });
+    }
+
+    public String printStatement(String accountId, LocalDateTime from, LocalDateTime to, int page, int size) {
+        if (page < 0 || size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new InvalidPageException(INVALID_PAGE_MESSAGE);
+        }
+        return timed("printStatement", () -> {
+            settle(accountId);
+            return statementRenderer.render(bankAccountRepository.findStatements(accountId, from, to, page, size));
+        });
+    }
+
+    /**
+     * Returns the account's monthly totals for the months in {@code [from, to]} that have statements, oldest
+     * first, read from the rollup kept by the repository rather than folded from the statements.
+     */
+    public List<MonthlySummary> getMonthlySummaries(String accountId, YearMonth from, YearMonth to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new InvalidPeriodException(INVALID_PERIOD_MESSAGE);
+        }
+        return timed("monthlySummaries", () -> {
+            settle(accountId);
+            return bankAccountRepository.findMonthlySummaries(accountId, from, to);
+        });
+    }
+
+    /**
+     * Checks that the account exists, then returns an export that streams its statements, most recent first.
+     */
+    public StatementExport exportStatement(String accountId, StatementFormat format) {
+        bankAccountRepository.findBalanceById(accountId);
+        settle(accountId);
+        return outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            StatementStreamWriter statementWriter = new StatementStreamWriter(writer, format, statementRenderer);
+            bankAccountRepository.forEachStatement(accountId, statementWriter);
+            statementWriter.finish();
+        };
+    }
+
+    private void applyToAccount(String accountId, List<Integer> indexes, List<AccountOperation> operations,
+                                OperationResult[] results) {
+        settleSlots(accountId);
+        BankAccount bankAccount;
+        try {
+            bankAccount = bankAccountRepository.findForUpdate(accountId);
+        } catch (RuntimeException e) {
+            indexes.forEach(index -> results[index] = OperationResult.failed(index, accountId, e.getMessage()));
+            return;
+        }
+
+        for (int index : indexes) {
+            AccountOperation operation = operations.get(index);
+            if (operation.operationType() == null || operation.amount() == null) {
+                results[index] = OperationResult.failed(index, accountId, INVALID_OPERATION_MESSAGE);
+                continue;
+            }
+            try {
+                if (operation.operationType() == WITHDRAW) {
+                    bankAccount.withdraw(operation.amount());
+                } else {
+                    bankAccount.deposit(operation.amount());
+                }
+                results[index] = OperationResult.succeeded(index, accountId);
+            } catch (InvalidAmountException | InsufficientBalanceException e) {
+                results[index] = OperationResult.failed(index, accountId, e.getMessage());
+            }
+        }
+
         if (bankAccount.getStatements().isEmpty()) {
-            return ACCOUNT_WITHOUT_STATEMENT;
+            return;
         }
-        List<Statement> statements = bankAccount.getStatements()
-            .stream()
-            .sorted((s1, s2) -> s2.getDate().compareTo(s1.getDate()))
-            .toList();
-        StringBuilder sb = new StringBuilder();
-        sb.append(STATEMENT_TITLE);
-        sb.append(STATEMENT_DELIMITER);
-        for (Statement statement : statements) {
-            sb.append(String.format(STATEMENT_FORMAT,
-                statement.getDate(), statement.getOperationType(),
-                statement.getAmount(), statement.getBalance())
-            );
+        try {
+            bankAccountRepository.update(bankAccount, bankAccount.getStatements().size());
+        } catch (ConcurrentUpdateException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            indexes.stream()
+                .filter(index -> results[index].success())
+                .forEach(index -> results[index] = OperationResult.failed(index, accountId, e.getMessage()));
         }
-        return sb.toString();
     }
 
+    /**
+     * Times the call under {@value #SERVICE_TIMER}, tagged with the operation and either {@code success}
+     * or the simple name of the exception it threw.
+     */
+    private <T> T timed(String operation, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer(SERVICE_TIMER, "operation", operation, "outcome", outcome));
+        }
+    }
+
+    private void timed(String operation, Runnable action) {
+        timed(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
 
+    /**
+     * Settles the account's slots on their own, before its statements are read.
+     */
+    private void settle(String accountId) {
+        if (hotAccountDetector.isEnabled()) {
+            conflictRetryPolicy.execute(() -> locked(accountId, () -> bankAccountRepository.settleSlots(accountId)));
+        }
+    }
+
+    /**
+     * Folds pending slot deposits into the account before an exclusive write, so that its balance is complete
+     * and its statements stay in date order. Callers hold the account's lock.
+     */
+    private void settleSlots(String accountId) {
+        if (hotAccountDetector.isEnabled()) {
+            bankAccountRepository.settleSlots(accountId);
+        }
+    }
+
+    private void locked(String accountId, Runnable action) {
+        long lockRequested = System.nanoTime();
+        accountLockManager.withLock(accountId, () -> {
+            recordLockWait(lockRequested);
+            action.run();
+        });
+    }
+
+    private void recordLockWait(long lockRequested) {
+        meterRegistry.timer(LOCK_WAIT_TIMER).record(System.nanoTime() - lockRequested, TimeUnit.NANOSECONDS);
+    }
 }
@@ -0,0 +1,89 @@
+package sg.kata.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import sg.kata.exception.ConcurrentUpdateException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Retries a write that lost an optimistic version check, with a bounded number of attempts
+ * and an exponential, jittered backoff.
+ */
+@Component
+public class ConflictRetryPolicy implements MeterBinder {
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public ConflictRetryPolicy(@Value("${bank.retry.max-attempts:5}") int maxAttempts,
+                               @Value("${bank.retry.initial-backoff:5ms}") Duration initialBackoff,
+                               @Value("${bank.retry.max-backoff:200ms}") Duration maxBackoff) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    public void execute(Runnable action) {
+        execute(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        long backoff = initialBackoffNanos;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (ConcurrentUpdateException e) {
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    throw e;
+                }
+                retries.increment();
+                if (backoff > 0) {
+                    LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+                }
+                backoff = Math.min(backoff * 2, maxBackoffNanos);
+            }
+        }
+    }
+
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("bank.retry.conflicts", this, ConflictRetryPolicy::getConflicts)
+            .description("Writes that lost an optimistic version check")
+            .register(registry);
+        FunctionCounter.builder("bank.retry.retries", this, ConflictRetryPolicy::getRetries)
+            .description("Writes replayed after a conflict")
+            .register(registry);
+        FunctionCounter.builder("bank.retry.exhausted", this, ConflictRetryPolicy::getExhausted)
+            .description("Writes that still conflicted after the last attempt")
+            .register(registry);
+    }
+}
@@ -0,0 +1,212 @@
+package sg.kata.service;
+
+import sg.kata.exception.InsufficientBalanceException;
+import sg.kata.exception.InvalidAmountException;
+import sg.kata.model.AccountOperation;
+import sg.kata.model.AccountUpdate;
+import sg.kata.model.BankAccount;
+import sg.kata.repository.BankAccountRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static sg.kata.model.OperationType.WITHDRAW;
+
+/**
+ * Funnels deposits and withdrawals through a bounded queue drained by a single writer thread.
+ * The writer takes up to {@code batchSize} operations, waiting at most {@code linger} after the first one,
+ * applies them under the locks of every account involved and persists them with one
+ * {@link BankAccountRepository#updateBatch(List)} call, so a whole batch costs one commit.
+ * Each caller's future completes only once that commit has returned; an operation rejected by the business
+ * rules fails on its own without affecting the rest of the batch.
+ * When hot accounts are enabled, each account's pending slot deposits are settled under its lock before it is read,
+ * as the service does before any exclusive write.
+ */
+public class GroupCommitPipeline implements AutoCloseable {
+
+    public static final String PIPELINE_CLOSED_MESSAGE = "Write pipeline is closed.";
+
+    private static final long CLOSE_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final BankAccountRepository bankAccountRepository;
+    private final AccountLockManager accountLockManager;
+    private final ConflictRetryPolicy conflictRetryPolicy;
+    private final HotAccountDetector hotAccountDetector;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<PendingOperation> queue;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public GroupCommitPipeline(BankAccountRepository bankAccountRepository,
+                               AccountLockManager accountLockManager,
+                               ConflictRetryPolicy conflictRetryPolicy,
+                               HotAccountDetector hotAccountDetector,
+                               int batchSize, Duration linger, int capacity) {
+        if (batchSize <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("batchSize and capacity must be positive");
+        }
+        this.bankAccountRepository = bankAccountRepository;
+        this.accountLockManager = accountLockManager;
+        this.conflictRetryPolicy = conflictRetryPolicy;
+        this.hotAccountDetector = hotAccountDetector;
+        this.batchSize = batchSize;
+        this.lingerNanos = linger.toNanos();
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::drain, "group-commit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues the operation, blocking while the queue is full, and returns a future completed after its batch commits.
+     * When the pipeline closes while the operation is being queued, the operation is taken back out of the queue and
+     * failed, unless the writer or {@link #close()} already took it.
+     */
+    public CompletableFuture<Void> submit(AccountOperation operation) {
+        PendingOperation pending = new PendingOperation(operation, new CompletableFuture<>());
+        try {
+            do {
+                if (!running) {
+                    pending.future().completeExceptionally(new IllegalStateException(PIPELINE_CLOSED_MESSAGE));
+                    return pending.future();
+                }
+            } while (!queue.offer(pending, CLOSE_CHECK_NANOS, TimeUnit.NANOSECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.future().completeExceptionally(e);
+            return pending.future();
+        }
+        if (!running && queue.remove(pending)) {
+            pending.future().completeExceptionally(new IllegalStateException(PIPELINE_CLOSED_MESSAGE));
+        }
+        return pending.future();
+    }
+
+    /**
+     * Submits the operation and waits for its commit, rethrowing the failure the service would have thrown.
+     */
+    public void execute(AccountOperation operation) {
+        try {
+            submit(operation).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingOperation> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(pending ->
+            pending.future().completeExceptionally(new IllegalStateException(PIPELINE_CLOSED_MESSAGE)));
+    }
+
+    private void drain() {
+        List<PendingOperation> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOperation next = remaining > 0
+                        ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                        : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (batch.isEmpty()) {
+                    return;
+                }
+            }
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    private void commit(List<PendingOperation> batch) {
+        Map<String, List<PendingOperation>> byAccount = new LinkedHashMap<>();
+        for (PendingOperation pending : batch) {
+            byAccount.computeIfAbsent(pending.operation().accountId(), accountId -> new ArrayList<>()).add(pending);
+        }
+        Map<PendingOperation, RuntimeException> failures;
+        try {
+            failures = conflictRetryPolicy.execute(() -> {
+                Map<PendingOperation, RuntimeException> attemptFailures = new IdentityHashMap<>();
+                accountLockManager.withLocks(byAccount.keySet(), () -> apply(byAccount, attemptFailures));
+                return attemptFailures;
+            });
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.future().completeExceptionally(e));
+            return;
+        }
+        for (PendingOperation pending : batch) {
+            RuntimeException failure = failures.get(pending);
+            if (failure == null) {
+                pending.future().complete(null);
+            } else {
+                pending.future().completeExceptionally(failure);
+            }
+        }
+    }
+
+    private void apply(Map<String, List<PendingOperation>> byAccount, Map<PendingOperation, RuntimeException> failures) {
+        List<AccountUpdate> updates = new ArrayList<>(byAccount.size());
+        byAccount.forEach((accountId, operations) -> {
+            BankAccount bankAccount;
+            try {
+                if (hotAccountDetector.isEnabled()) {
+                    bankAccountRepository.settleSlots(accountId);
+                }
+                bankAccount = bankAccountRepository.findForUpdate(accountId);
+            } catch (RuntimeException e) {
+                operations.forEach(pending -> failures.put(pending, e));
+                return;
+            }
+            for (PendingOperation pending : operations) {
+                AccountOperation operation = pending.operation();
+                try {
+                    if (operation.operationType() == WITHDRAW) {
+                        bankAccount.withdraw(operation.amount());
+                    } else {
+                        bankAccount.deposit(operation.amount());
+                    }
+                } catch (InvalidAmountException | InsufficientBalanceException e) {
+                    failures.put(pending, e);
+                }
+            }
+            if (!bankAccount.getStatements().isEmpty()) {
+                updates.add(new AccountUpdate(bankAccount, bankAccount.getStatements().size()));
+            }
+        });
+        if (!updates.isEmpty()) {
+            bankAccountRepository.updateBatch(updates);
+        }
+    }
+
+    private record PendingOperation(AccountOperation operation, CompletableFuture<Void> future) {
+    }
+}
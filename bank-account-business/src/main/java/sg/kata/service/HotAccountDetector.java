@@ -0,0 +1,100 @@
+package sg.kata.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spots hot accounts from their write rate: writes are counted per account over fixed windows, and an account
+ * is hot while its count in the current or the previous window reaches the threshold. Only the accounts written
+ * during the last two windows are tracked. Deposits on a hot account are spread across its sub-balance slots.
+ */
+@Component
+public class HotAccountDetector {
+
+    private final boolean enabled;
+    private final long threshold;
+    private final long windowNanos;
+    private final int slots;
+    private volatile Window window;
+
+    public HotAccountDetector(@Value("${bank.hot-accounts.enabled:false}") boolean enabled,
+                              @Value("${bank.hot-accounts.threshold:500}") long threshold,
+                              @Value("${bank.hot-accounts.window:1s}") Duration window,
+                              @Value("${bank.hot-accounts.slots:8}") int slots) {
+        if (threshold <= 0 || window.isNegative() || window.isZero() || slots <= 0) {
+            throw new IllegalArgumentException("threshold, window and slots must be positive");
+        }
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.windowNanos = window.toNanos();
+        this.slots = slots;
+        this.window = new Window(System.nanoTime(), Map.of());
+    }
+
+    public static HotAccountDetector disabled() {
+        return new HotAccountDetector(false, 1, Duration.ofSeconds(1), 1);
+    }
+
+    /**
+     * Whether accounts may have pending slot deposits, which must then be settled before exclusive writes.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Counts one write on the account and tells whether it should go to a sub-balance slot.
+     */
+    public boolean recordWrite(String accountId) {
+        if (!enabled) {
+            return false;
+        }
+        Window current = currentWindow(System.nanoTime());
+        LongAdder counter = current.counts.computeIfAbsent(accountId, id -> new LongAdder());
+        counter.increment();
+        if (counter.sum() >= threshold) {
+            return true;
+        }
+        LongAdder previous = current.previousCounts.get(accountId);
+        return previous != null && previous.sum() >= threshold;
+    }
+
+    public int nextSlot() {
+        return ThreadLocalRandom.current().nextInt(slots);
+    }
+
+    private Window currentWindow(long now) {
+        Window current = window;
+        if (now - current.start < windowNanos) {
+            return current;
+        }
+        synchronized (this) {
+            current = window;
+            if (now - current.start >= windowNanos) {
+                Map<String, LongAdder> previousCounts = now - current.start < 2 * windowNanos
+                    ? current.counts
+                    : Map.of();
+                current = new Window(now, previousCounts);
+                window = current;
+            }
+            return current;
+        }
+    }
+
+    private static final class Window {
+        private final long start;
+        private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> previousCounts;
+
+        private Window(long start, Map<String, LongAdder> previousCounts) {
+            this.start = start;
+            this.previousCounts = previousCounts;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package sg.kata.service;
+
+import sg.kata.model.LedgerEntry;
+import sg.kata.repository.LedgerProjection;
+import sg.kata.repository.OperationLog;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tails the {@link OperationLog} of the {@link PartitionedAccountEngine} on a single thread and applies the entries
+ * to a {@link LedgerProjection}, up to {@code batchSize} at a time, from the position the projection last reached.
+ * A failed batch is retried from the same position. Reads that must see every completed operation call
+ * {@link #awaitCaughtUp()} first.
+ */
+public class LedgerProjector implements AutoCloseable {
+
+    public static final String PROJECTION_BEHIND_MESSAGE = "Ledger projection is behind the engine.";
+
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final OperationLog operationLog;
+    private final LedgerProjection projection;
+    private final int batchSize;
+    private final long timeoutNanos;
+    private final Object progress = new Object();
+    private final Thread thread;
+    private volatile long position;
+    private volatile RuntimeException lastFailure;
+    private volatile boolean running = true;
+
+    public LedgerProjector(OperationLog operationLog, LedgerProjection projection, int batchSize, Duration timeout) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.operationLog = operationLog;
+        this.projection = projection;
+        this.batchSize = batchSize;
+        this.timeoutNanos = timeout.toNanos();
+        this.position = projection.position();
+        this.thread = new Thread(this::run, "ledger-projector");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Waits until every entry logged before the call is applied, failing after {@code timeout} with the last
+     * projection failure, if any, as cause.
+     */
+    public void awaitCaughtUp() {
+        long target = operationLog.size();
+        if (position >= target) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        long deadline = System.nanoTime() + timeoutNanos;
+        synchronized (progress) {
+            while (position < target) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !running) {
+                    throw new IllegalStateException(PROJECTION_BEHIND_MESSAGE, lastFailure);
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(progress, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(PROJECTION_BEHIND_MESSAGE, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            long end = Math.min(operationLog.size(), position + batchSize);
+            if (end == position) {
+                LockSupport.parkNanos(MAX_PARK_NANOS);
+                continue;
+            }
+            List<LedgerEntry> entries = new ArrayList<>((int) (end - position));
+            try {
+                operationLog.read(position, end, entries::add);
+                projection.apply(entries);
+            } catch (RuntimeException e) {
+                lastFailure = e;
+                LockSupport.parkNanos(RETRY_NANOS);
+                continue;
+            }
+            synchronized (progress) {
+                position = end;
+                lastFailure = null;
+                progress.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,537 @@
+package sg.kata.service;
+
+import sg.kata.exception.AccountNotFoundException;
+import sg.kata.exception.InvalidTransferException;
+import sg.kata.model.AccountOperation;
+import sg.kata.model.BankAccount;
+import sg.kata.model.LedgerEntry;
+import sg.kata.model.Money;
+import sg.kata.model.OperationResult;
+import sg.kata.model.OperationType;
+import sg.kata.repository.OperationLog;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static sg.kata.model.OperationType.DEPOSIT;
+import static sg.kata.model.OperationType.WITHDRAW;
+import static sg.kata.service.BankAccountService.INVALID_ACCOUNT_MESSAGE;
+import static sg.kata.service.BankAccountService.INVALID_OPERATION_MESSAGE;
+import static sg.kata.service.BankAccountService.SAME_ACCOUNT_TRANSFER_MESSAGE;
+
+/**
+ * In-memory execution mode: every account is owned by one of {@code partitions} threads, chosen by hashing its id,
+ * which holds its balance in minor units and is the only thread that ever reads or writes it. Commands reach
+ * their partition through a lock-free {@link MpscRingBuffer}; the partition takes up to {@code batchSize} of them,
+ * applies the {@link BankAccount} rules without any lock or database round trip, appends the resulting entries to
+ * the {@link OperationLog} in one call and only then completes the callers' futures. On construction, the balances
+ * are rebuilt by replaying the log.
+ * <p>
+ * A transfer is logged as one append holding both of its entries. When its accounts live on different partitions,
+ * the source partition coordinates it: both partitions first log what they had queued before it, the target
+ * partition then waits while the source applies and logs both sides. Transfers spanning partitions are queued
+ * under one lock, so every partition sees them in the same order and two of them never wait for each other.
+ * <p>
+ * Every write to an account the engine owns must go through it, transfers and batches included: the log is the
+ * account's ledger, and the database only sees it through a {@link LedgerProjector}.
+ */
+public class PartitionedAccountEngine implements AutoCloseable {
+
+    public static final String ENGINE_CLOSED_MESSAGE = "Account engine is closed.";
+
+    private static final int SPINS_BEFORE_PARKING = 100;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final OperationLog operationLog;
+    private final Partition[] partitions;
+    private final int batchSize;
+    private final int replayedAccounts;
+    private final Set<String> accounts = ConcurrentHashMap.newKeySet();
+    private final Object transferLock = new Object();
+    private volatile boolean running = true;
+
+    public PartitionedAccountEngine(OperationLog operationLog, int partitions, int ringSize, int batchSize) {
+        if (partitions <= 0 || ringSize <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("partitions, ringSize and batchSize must be positive");
+        }
+        this.operationLog = operationLog;
+        this.batchSize = batchSize;
+        this.partitions = new Partition[partitions];
+        for (int i = 0; i < partitions; i++) {
+            this.partitions[i] = new Partition(i, ringSize);
+        }
+        operationLog.replay(entry -> partitionOf(entry.accountId()).balances.put(entry.accountId(), entry.balance()));
+        for (Partition partition : this.partitions) {
+            accounts.addAll(partition.balances.keySet());
+            partition.thread.start();
+        }
+        this.replayedAccounts = accounts.size();
+    }
+
+    /**
+     * Number of accounts rebuilt from the log on construction.
+     */
+    public int replayedAccounts() {
+        return replayedAccounts;
+    }
+
+    /**
+     * Whether the account was opened in the engine, which then owns all of its operations.
+     */
+    public boolean owns(String accountId) {
+        return accounts.contains(accountId);
+    }
+
+    /**
+     * Opens an account with its initial balance; the future completes once its opening entry is logged.
+     */
+    public CompletableFuture<BigDecimal> open(String accountId, BigDecimal initialBalance) {
+        return submit(new Command(Command.Kind.OPEN, accountId, initialBalance));
+    }
+
+    /**
+     * Queues a deposit or withdrawal, spinning while the partition's ring is full, and returns a future
+     * completed with the resulting balance once the operation is logged.
+     */
+    public CompletableFuture<BigDecimal> submit(AccountOperation operation) {
+        Command.Kind kind = operation.operationType() == WITHDRAW ? Command.Kind.WITHDRAW : Command.Kind.DEPOSIT;
+        return submit(new Command(kind, operation.accountId(), operation.amount()));
+    }
+
+    /**
+     * Submits the operation and waits for it, rethrowing the failure the service would have thrown.
+     */
+    public void execute(AccountOperation operation) {
+        join(submit(operation));
+    }
+
+    /**
+     * Withdraws from the source account and deposits on the target account, logging both entries in one append:
+     * either both are applied or neither is, and no reader sees one without the other.
+     */
+    public void transfer(String fromAccountId, String toAccountId, BigDecimal amount) {
+        if (fromAccountId.equals(toAccountId)) {
+            throw new InvalidTransferException(SAME_ACCOUNT_TRANSFER_MESSAGE);
+        }
+        Partition target = partitionOf(toAccountId);
+        Transfer transfer = new Transfer(toAccountId, target);
+        Command command = new Command(Command.Kind.TRANSFER, fromAccountId, amount, transfer);
+        if (partitionOf(fromAccountId) == target) {
+            join(submit(command));
+            return;
+        }
+        synchronized (transferLock) {
+            submit(command);
+            submit(new Command(Command.Kind.JOIN_TRANSFER, toAccountId, null, transfer));
+        }
+        join(command.future);
+    }
+
+    /**
+     * Submits every operation before waiting for any, and reports each outcome as
+     * {@link BankAccountService#applyBatch(List)} does. Operations on the same account share a ring and are
+     * applied in order.
+     */
+    public List<OperationResult> applyBatch(List<AccountOperation> operations) {
+        List<CompletableFuture<BigDecimal>> futures = new ArrayList<>(operations.size());
+        for (AccountOperation operation : operations) {
+            futures.add(operation.accountId() == null || operation.operationType() == null || operation.amount() == null
+                ? null
+                : submit(operation));
+        }
+        List<OperationResult> results = new ArrayList<>(operations.size());
+        for (int index = 0; index < operations.size(); index++) {
+            String accountId = operations.get(index).accountId();
+            if (futures.get(index) == null) {
+                results.add(OperationResult.failed(index, accountId, INVALID_OPERATION_MESSAGE));
+                continue;
+            }
+            try {
+                join(futures.get(index));
+                results.add(OperationResult.succeeded(index, accountId));
+            } catch (RuntimeException e) {
+                results.add(OperationResult.failed(index, accountId, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Reads the balance on the owning partition, after every command queued before it.
+     */
+    public BigDecimal getBalance(String accountId) {
+        return join(submit(new Command(Command.Kind.BALANCE, accountId, null)));
+    }
+
+    /**
+     * Stops the partitions; each one fails the commands left in its ring before its thread ends.
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Partition partition : partitions) {
+            LockSupport.unpark(partition.thread);
+        }
+        for (Partition partition : partitions) {
+            try {
+                partition.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Offers the command to its partition's ring. When the engine closes meanwhile, the partition may already have
+     * failed what was left in its ring, so the command is failed here unless the partition took it first.
+     */
+    private CompletableFuture<BigDecimal> submit(Command command) {
+        Partition partition = partitionOf(command.accountId);
+        while (running) {
+            if (partition.ring.offer(command)) {
+                if (partition.parked) {
+                    LockSupport.unpark(partition.thread);
+                }
+                if (!running) {
+                    fail(command, new IllegalStateException(ENGINE_CLOSED_MESSAGE));
+                }
+                return command.future;
+            }
+            Thread.onSpinWait();
+        }
+        fail(command, new IllegalStateException(ENGINE_CLOSED_MESSAGE));
+        return command.future;
+    }
+
+    /**
+     * Fails a command no partition has started, releasing the target partition of a transfer it coordinates.
+     */
+    private static void fail(Command command, RuntimeException failure) {
+        if (command.claim()) {
+            command.future.completeExceptionally(failure);
+            if (command.kind == Command.Kind.TRANSFER) {
+                command.transfer.done.countDown();
+            }
+        }
+    }
+
+    private Partition partitionOf(String accountId) {
+        int hash = accountId.hashCode();
+        return partitions[Math.floorMod(hash ^ (hash >>> 16), partitions.length)];
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private final class Partition {
+        private final MpscRingBuffer<Command> ring;
+        private final Map<String, Long> balances = new HashMap<>();
+        private final Thread thread;
+        private volatile boolean parked;
+
+        private Partition(int index, int ringSize) {
+            this.ring = new MpscRingBuffer<>(ringSize);
+            this.thread = new Thread(this::run, "account-partition-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void run() {
+            List<Command> batch = new ArrayList<>(batchSize);
+            int idleSpins = 0;
+            while (running) {
+                Command barrier = null;
+                for (Command command = ring.poll(); command != null; command = batch.size() < batchSize ? ring.poll() : null) {
+                    if (spansPartitions(command)) {
+                        barrier = command;
+                        break;
+                    }
+                    batch.add(command);
+                }
+                if (!batch.isEmpty() || barrier != null) {
+                    if (!batch.isEmpty()) {
+                        process(batch);
+                        batch.clear();
+                    }
+                    if (barrier != null && barrier.kind == Command.Kind.TRANSFER) {
+                        coordinate(barrier);
+                    } else if (barrier != null) {
+                        awaitCoordinator(barrier.transfer);
+                    }
+                    idleSpins = 0;
+                } else if (idleSpins++ < SPINS_BEFORE_PARKING) {
+                    Thread.onSpinWait();
+                } else {
+                    parked = true;
+                    if (ring.isEmpty() && running) {
+                        LockSupport.parkNanos(MAX_PARK_NANOS);
+                    }
+                    parked = false;
+                }
+            }
+            for (Command command = ring.poll(); command != null; command = ring.poll()) {
+                fail(command, new IllegalStateException(ENGINE_CLOSED_MESSAGE));
+            }
+        }
+
+        private boolean spansPartitions(Command command) {
+            return command.kind == Command.Kind.JOIN_TRANSFER
+                || command.kind == Command.Kind.TRANSFER && command.transfer.target != this;
+        }
+
+        /**
+         * Runs a transfer whose target account lives on another partition, once that partition has logged what was
+         * queued before the transfer and stopped. Both balances are then only touched by this thread, and both
+         * entries are appended together; a failed append leaves both balances as they were.
+         */
+        private void coordinate(Command command) {
+            if (!command.claim()) {
+                return;
+            }
+            Transfer transfer = command.transfer;
+            try {
+                if (!awaitParticipant(transfer)) {
+                    command.future.completeExceptionally(new IllegalStateException(ENGINE_CLOSED_MESSAGE));
+                    return;
+                }
+                Map<String, Long> targetBalances = transfer.target.balances;
+                List<LedgerEntry> entries = new ArrayList<>(2);
+                Map<String, Long> previousBalances = new HashMap<>();
+                long balance;
+                try {
+                    balance = applyTransfer(command, targetBalances, LocalDateTime.now(), entries, previousBalances);
+                    operationLog.append(entries);
+                } catch (RuntimeException e) {
+                    if (!previousBalances.isEmpty()) {
+                        balances.put(command.accountId, previousBalances.get(command.accountId));
+                        targetBalances.put(transfer.toAccountId, previousBalances.get(transfer.toAccountId));
+                    }
+                    command.future.completeExceptionally(e);
+                    return;
+                }
+                command.future.complete(Money.toBigDecimal(balance));
+            } finally {
+                transfer.done.countDown();
+            }
+        }
+
+        /**
+         * Waits for the target partition to reach the transfer; gives up when the engine closes before it does.
+         */
+        private boolean awaitParticipant(Transfer transfer) {
+            try {
+                while (!transfer.arrived.await(MAX_PARK_NANOS, TimeUnit.NANOSECONDS)) {
+                    if (!running) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        /**
+         * Stops this partition, as the target of a transfer, until the source partition has run it.
+         */
+        private void awaitCoordinator(Transfer transfer) {
+            transfer.arrived.countDown();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    transfer.done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Applies the batch, remembering the balance each account had before it, so that a failed append can be
+         * undone and leaves memory as the log left it.
+         */
+        private void process(List<Command> batch) {
+            List<LedgerEntry> entries = new ArrayList<>(batch.size());
+            Map<String, Long> previousBalances = new HashMap<>();
+            LocalDateTime now = LocalDateTime.now();
+            for (Command command : batch) {
+                if (!command.claim()) {
+                    command.failure = new IllegalStateException(ENGINE_CLOSED_MESSAGE);
+                    continue;
+                }
+                try {
+                    command.result = apply(command, now, entries, previousBalances);
+                } catch (RuntimeException e) {
+                    command.failure = e;
+                }
+            }
+            if (!entries.isEmpty()) {
+                try {
+                    operationLog.append(entries);
+                } catch (RuntimeException e) {
+                    previousBalances.forEach((accountId, balance) -> {
+                        if (balance == null) {
+                            balances.remove(accountId);
+                        } else {
+                            balances.put(accountId, balance);
+                        }
+                    });
+                    batch.forEach(command -> command.future.completeExceptionally(e));
+                    return;
+                }
+            }
+            for (Command command : batch) {
+                if (command.failure == null) {
+                    if (command.kind == Command.Kind.OPEN) {
+                        accounts.add(command.accountId);
+                    }
+                    command.future.complete(Money.toBigDecimal(command.result));
+                } else {
+                    command.future.completeExceptionally(command.failure);
+                }
+            }
+        }
+
+        private long apply(Command command, LocalDateTime now, List<LedgerEntry> entries,
+                           Map<String, Long> previousBalances) {
+            String accountId = command.accountId;
+            Long current = balances.get(accountId);
+            if (command.kind == Command.Kind.OPEN) {
+                if (current != null) {
+                    throw new IllegalArgumentException("Account " + accountId + " already exists");
+                }
+                long balance = Money.toMinorUnits(command.amount);
+                previousBalances.putIfAbsent(accountId, null);
+                balances.put(accountId, balance);
+                entries.add(LedgerEntry.opening(accountId, now, balance));
+                return balance;
+            }
+            if (current == null) {
+                throw new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE);
+            }
+            if (command.kind == Command.Kind.BALANCE) {
+                return current;
+            }
+            if (command.kind == Command.Kind.TRANSFER) {
+                return applyTransfer(command, balances, now, entries, previousBalances);
+            }
+
+            OperationType operationType;
+            long amount;
+            long balance;
+            if (command.kind == Command.Kind.WITHDRAW) {
+                BankAccount.validateWithdrawal(command.amount);
+                operationType = WITHDRAW;
+                amount = Money.toMinorUnits(command.amount);
+                balance = BankAccount.withdrawMinorUnits(current, amount);
+            } else {
+                BankAccount.validateDeposit(command.amount);
+                operationType = DEPOSIT;
+                amount = Money.toMinorUnits(command.amount);
+                balance = BankAccount.depositMinorUnits(current, amount);
+            }
+            previousBalances.putIfAbsent(accountId, current);
+            balances.put(accountId, balance);
+            entries.add(new LedgerEntry(accountId, operationType, now, amount, balance));
+            return balance;
+        }
+
+        /**
+         * Applies both sides of a transfer, the target balance being read from and written to
+         * {@code targetBalances}; returns the new source balance. Nothing is changed when either side is rejected.
+         */
+        private long applyTransfer(Command command, Map<String, Long> targetBalances, LocalDateTime now,
+                                   List<LedgerEntry> entries, Map<String, Long> previousBalances) {
+            String fromAccountId = command.accountId;
+            String toAccountId = command.transfer.toAccountId;
+            Long source = balances.get(fromAccountId);
+            Long target = targetBalances.get(toAccountId);
+            if (source == null || target == null) {
+                throw new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE);
+            }
+            BankAccount.validateWithdrawal(command.amount);
+            long amount = Money.toMinorUnits(command.amount);
+            long sourceBalance = BankAccount.withdrawMinorUnits(source, amount);
+            long targetBalance = BankAccount.depositMinorUnits(target, amount);
+            previousBalances.putIfAbsent(fromAccountId, source);
+            previousBalances.putIfAbsent(toAccountId, target);
+            balances.put(fromAccountId, sourceBalance);
+            targetBalances.put(toAccountId, targetBalance);
+            entries.add(new LedgerEntry(fromAccountId, WITHDRAW, now, amount, sourceBalance));
+            entries.add(new LedgerEntry(toAccountId, DEPOSIT, now, amount, targetBalance));
+            return sourceBalance;
+        }
+    }
+
+    /**
+     * A transfer between two accounts, shared by the command queued on the source partition and the one queued on
+     * the target partition when they differ.
+     */
+    private static final class Transfer {
+        private final String toAccountId;
+        private final Partition target;
+        private final CountDownLatch arrived = new CountDownLatch(1);
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private Transfer(String toAccountId, Partition target) {
+            this.toAccountId = toAccountId;
+            this.target = target;
+        }
+    }
+
+    private static final class Command {
+
+        private enum Kind { OPEN, DEPOSIT, WITHDRAW, BALANCE, TRANSFER, JOIN_TRANSFER }
+
+        private final Kind kind;
+        private final String accountId;
+        private final BigDecimal amount;
+        private final Transfer transfer;
+        private final CompletableFuture<BigDecimal> future = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private long result;
+        private RuntimeException failure;
+
+        private Command(Kind kind, String accountId, BigDecimal amount) {
+            this(kind, accountId, amount, null);
+        }
+
+        private Command(Kind kind, String accountId, BigDecimal amount, Transfer transfer) {
+            this.kind = kind;
+            this.accountId = accountId;
+            this.amount = amount;
+            this.transfer = transfer;
+        }
+
+        /**
+         * Whether the caller is the first to take the command, either to run it or to fail it.
+         */
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package sg.kata.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import sg.kata.exception.ConcurrentUpdateException;
+import sg.kata.model.BankAccount;
+import sg.kata.model.Statement;
+import sg.kata.repository.ReactiveBankAccountRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Reactive variant of {@link BankAccountService}. Writes apply the same {@link BankAccount} rules, then rely on the
+ * repository's version check instead of account locks, so no thread ever waits: a write that loses the race is
+ * reloaded and replayed with an exponential backoff, up to {@code maxAttempts} times.
+ * Slot deposits left pending by the blocking api's hot accounts are settled before each write and each statement
+ * export, so that withdrawals see the whole balance and statements stay in date order.
+ */
+public class ReactiveBankAccountService {
+
+    private final ReactiveBankAccountRepository bankAccountRepository;
+    private final Retry conflictRetry;
+
+    public ReactiveBankAccountService(ReactiveBankAccountRepository bankAccountRepository,
+                                      int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.conflictRetry = Retry.backoff(Math.max(0, maxAttempts - 1), initialBackoff)
+            .maxBackoff(maxBackoff)
+            .filter(ConcurrentUpdateException.class::isInstance)
+            .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    public Mono<Void> deposit(String accountId, BigDecimal amount) {
+        return write(accountId, bankAccount -> bankAccount.deposit(amount));
+    }
+
+    public Mono<Void> withdraw(String accountId, BigDecimal amount) {
+        return write(accountId, bankAccount -> bankAccount.withdraw(amount));
+    }
+
+    public Mono<BigDecimal> getBalance(String accountId) {
+        return bankAccountRepository.findBalanceById(accountId);
+    }
+
+    /**
+     * Checks that the account exists, then streams its statements, most recent first.
+     */
+    public Flux<Statement> streamStatements(String accountId) {
+        return bankAccountRepository.findBalanceById(accountId)
+            .then(Mono.defer(() -> bankAccountRepository.settleSlots(accountId)).retryWhen(conflictRetry))
+            .thenMany(bankAccountRepository.findStatements(accountId));
+    }
+
+    private Mono<Void> write(String accountId, Consumer<BankAccount> operation) {
+        return Mono.defer(() -> bankAccountRepository.settleSlots(accountId)
+                .then(bankAccountRepository.findForUpdate(accountId)))
+            .flatMap(bankAccount -> {
+                operation.accept(bankAccount);
+                return bankAccountRepository.update(bankAccount);
+            })
+            .retryWhen(conflictRetry);
+    }
+}
@@ -0,0 +1,9 @@
+package sg.kata.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+@FunctionalInterface
+public interface StatementExport {
+    void writeTo(OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,161 @@
+package sg.kata.service;
+
+import org.springframework.stereotype.Component;
+import sg.kata.model.Statement;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+import static sg.kata.service.BankAccountService.*;
+
+/**
+ * Renders statement rows exactly as {@code String.format(STATEMENT_FORMAT, ...)} would, but appends the columns
+ * straight into the caller's buffer: dates are written field by field the way {@link LocalDateTime#toString()}
+ * does, and amounts are rounded half-up to two decimals with the default format locale's zero digit and decimal
+ * separator. Those two symbols are looked up again only when the default locale changes.
+ */
+@Component
+public class StatementRenderer {
+
+    private static final int DATE_WIDTH = 20;
+    private static final int TYPE_WIDTH = 10;
+    private static final int AMOUNT_WIDTH = 8;
+    private static final int ROW_LENGTH = 56;
+
+    private volatile Symbols symbols = Symbols.of(Locale.getDefault(Locale.Category.FORMAT));
+
+    /**
+     * Renders the statements in the given order under the title, or
+     * {@link BankAccountService#ACCOUNT_WITHOUT_STATEMENT} when there are none.
+     */
+    public String render(List<Statement> statements) {
+        if (statements.isEmpty()) {
+            return ACCOUNT_WITHOUT_STATEMENT;
+        }
+        StringBuilder sb = new StringBuilder(
+            STATEMENT_TITLE.length() + STATEMENT_DELIMITER.length() + statements.size() * ROW_LENGTH);
+        sb.append(STATEMENT_TITLE);
+        sb.append(STATEMENT_DELIMITER);
+        Symbols current = currentSymbols();
+        for (Statement statement : statements) {
+            appendRow(sb, statement, current);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Appends one row, line feed included.
+     */
+    public void appendRow(StringBuilder sb, Statement statement) {
+        appendRow(sb, statement, currentSymbols());
+    }
+
+    private void appendRow(StringBuilder sb, Statement statement, Symbols current) {
+        int start = sb.length();
+        appendDate(sb, statement.getDate());
+        pad(sb, start, DATE_WIDTH);
+        sb.append("| ");
+
+        start = sb.length();
+        sb.append(statement.getOperationType());
+        pad(sb, start, TYPE_WIDTH);
+        sb.append("| ");
+
+        appendAmount(sb, statement.getAmount(), current);
+        sb.append("| ");
+        appendAmount(sb, statement.getBalance(), current);
+        sb.append('\n');
+    }
+
+    private static void appendDate(StringBuilder sb, LocalDateTime date) {
+        if (date == null || date.getYear() < 0 || date.getYear() > 9999) {
+            sb.append(date);
+            return;
+        }
+        appendDigits(sb, date.getYear(), 4);
+        sb.append('-');
+        appendDigits(sb, date.getMonthValue(), 2);
+        sb.append('-');
+        appendDigits(sb, date.getDayOfMonth(), 2);
+        sb.append('T');
+        appendDigits(sb, date.getHour(), 2);
+        sb.append(':');
+        appendDigits(sb, date.getMinute(), 2);
+        int second = date.getSecond();
+        int nano = date.getNano();
+        if (second > 0 || nano > 0) {
+            sb.append(':');
+            appendDigits(sb, second, 2);
+            if (nano > 0) {
+                sb.append('.');
+                if (nano % 1_000_000 == 0) {
+                    appendDigits(sb, nano / 1_000_000, 3);
+                } else if (nano % 1_000 == 0) {
+                    appendDigits(sb, nano / 1_000, 6);
+                } else {
+                    appendDigits(sb, nano, 9);
+                }
+            }
+        }
+    }
+
+    private static void appendAmount(StringBuilder sb, BigDecimal amount, Symbols current) {
+        int start = sb.length();
+        if (amount == null) {
+            // the precision of %.2f also truncates "null"
+            sb.append("nu");
+        } else {
+            if (amount.signum() < 0) {
+                sb.append('-');
+            }
+            String digits = amount.abs().setScale(2, RoundingMode.HALF_UP).toPlainString();
+            for (int i = 0; i < digits.length(); i++) {
+                char c = digits.charAt(i);
+                sb.append(c == '.' ? current.decimalSeparator() : (char) (c - '0' + current.zeroDigit()));
+            }
+        }
+        pad(sb, start, AMOUNT_WIDTH);
+    }
+
+    private static void appendDigits(StringBuilder sb, int value, int width) {
+        for (int divisor = pow10(width - 1); divisor > 0; divisor /= 10) {
+            sb.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static int pow10(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+
+    private static void pad(StringBuilder sb, int start, int width) {
+        for (int length = sb.length() - start; length < width; length++) {
+            sb.append(' ');
+        }
+    }
+
+    private Symbols currentSymbols() {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        Symbols current = symbols;
+        if (!current.locale().equals(locale)) {
+            current = Symbols.of(locale);
+            symbols = current;
+        }
+        return current;
+    }
+
+    private record Symbols(Locale locale, char zeroDigit, char decimalSeparator) {
+
+        static Symbols of(Locale locale) {
+            DecimalFormatSymbols decimalFormatSymbols = DecimalFormatSymbols.getInstance(locale);
+            return new Symbols(locale, decimalFormatSymbols.getZeroDigit(), decimalFormatSymbols.getDecimalSeparator());
+        }
+    }
+}
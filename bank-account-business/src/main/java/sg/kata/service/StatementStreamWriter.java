@@ -0,0 +1,84 @@
+package sg.kata.service;
+
+import sg.kata.model.Statement;
+import sg.kata.model.StatementFormat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+import static sg.kata.service.BankAccountService.*;
+
+/**
+ * Writes statements one at a time in the requested format, so an export never holds more than one row.
+ */
+class StatementStreamWriter implements Consumer<Statement> {
+
+    static final String CSV_HEADER = "date,operationType,amount,balance\n";
+
+    private final Writer writer;
+    private final StatementFormat format;
+    private final StatementRenderer statementRenderer;
+    private final StringBuilder row = new StringBuilder();
+    private boolean empty = true;
+
+    StatementStreamWriter(Writer writer, StatementFormat format, StatementRenderer statementRenderer) {
+        this.writer = writer;
+        this.format = format;
+        this.statementRenderer = statementRenderer;
+    }
+
+    @Override
+    public void accept(Statement statement) {
+        try {
+            if (empty) {
+                writeHeader();
+                empty = false;
+            }
+            writeRow(statement);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Completes an export with no statement: the text format says so and a CSV export still gets its header.
+     */
+    void finish() throws IOException {
+        if (empty && format == StatementFormat.TEXT) {
+            writer.write(ACCOUNT_WITHOUT_STATEMENT);
+        } else if (empty && format == StatementFormat.CSV) {
+            writer.write(CSV_HEADER);
+        }
+        writer.flush();
+    }
+
+    private void writeHeader() throws IOException {
+        switch (format) {
+            case TEXT -> {
+                writer.write(STATEMENT_TITLE);
+                writer.write(STATEMENT_DELIMITER);
+            }
+            case CSV -> writer.write(CSV_HEADER);
+            case NDJSON -> {
+            }
+        }
+    }
+
+    private void writeRow(Statement statement) throws IOException {
+        switch (format) {
+            case TEXT -> {
+                row.setLength(0);
+                statementRenderer.appendRow(row, statement);
+                writer.append(row);
+            }
+            case CSV -> writer.write(statement.getDate() + "," + statement.getOperationType() + ","
+                + statement.getAmount().toPlainString() + "," + statement.getBalance().toPlainString() + "\n");
+            case NDJSON -> writer.write("{\"date\":\"" + statement.getDate()
+                + "\",\"operationType\":\"" + statement.getOperationType()
+                + "\",\"amount\":" + statement.getAmount().toPlainString()
+                + ",\"balance\":" + statement.getBalance().toPlainString() + "}\n");
+        }
+    }
+}
@@ -7,6 +7,7 @@ import sg.kata.exception.InvalidAmountException;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.groups.Tuple.tuple;
@@ -118,4 +119,40 @@ public class BankAccountTest {
         // THEN
         assertThat(bankAccount.getStatements()).hasSize(2);
     }
+
+    @Test
+    void shouldGetStatementsMostRecentFirst() {
+        // GIVEN
+        bankAccount.deposit(BigDecimal.valueOf(100));
+        bankAccount.withdraw(BigDecimal.valueOf(50));
+        List<Statement> mostRecentFirst = bankAccount.statementsMostRecentFirst();
+
+        // WHEN
+        bankAccount.deposit(BigDecimal.valueOf(10));
+
+        // THEN
+        assertThat(mostRecentFirst)
+            .extracting(Statement::getOperationType, Statement::getAmount)
+            .containsExactly(
+                tuple(DEPOSIT, BigDecimal.valueOf(10)),
+                tuple(WITHDRAW, BigDecimal.valueOf(50)),
+                tuple(DEPOSIT, BigDecimal.valueOf(100)));
+        assertThat(mostRecentFirst.get(2).getAmount()).isEqualTo(BigDecimal.valueOf(100));
+        assertThat(mostRecentFirst.listIterator(1).previous().getAmount()).isEqualTo(BigDecimal.valueOf(10));
+    }
+
+    @Test
+    void shouldApplyTheSameRulesInMinorUnits() {
+        // WHEN - THEN
+        assertThat(BankAccount.depositMinorUnits(10000, 5050)).isEqualTo(15050);
+        assertThat(BankAccount.withdrawMinorUnits(10000, 5050)).isEqualTo(4950);
+
+        Exception invalidAmount = assertThrows(InvalidAmountException.class,
+            () -> BankAccount.depositMinorUnits(10000, -1));
+        assertThat(invalidAmount.getMessage()).isEqualTo(DEPOSIT.getDescription() + POSITIVE_AMOUNT_MESSAGE);
+
+        Exception insufficientBalance = assertThrows(InsufficientBalanceException.class,
+            () -> BankAccount.withdrawMinorUnits(3000, 5000));
+        assertThat(insufficientBalance.getMessage()).isEqualTo(INSUFFICIENT_BALANCE_MESSAGE);
+    }
 }
@@ -0,0 +1,53 @@
+package sg.kata.model;
+
+import org.junit.jupiter.api.Test;
+import sg.kata.exception.InvalidAmountException;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static sg.kata.service.BankAccountService.AMOUNT_OUT_OF_RANGE_MESSAGE;
+import static sg.kata.service.BankAccountService.PRECISION_EXCEEDED_MESSAGE;
+
+public class MoneyTest {
+
+    @Test
+    void shouldConvertFromAndToBigDecimal() {
+        // WHEN
+        long minorUnits = Money.toMinorUnits(new BigDecimal("123.4"));
+
+        // THEN
+        assertThat(minorUnits).isEqualTo(12340);
+        assertThat(Money.toBigDecimal(minorUnits)).isEqualTo(new BigDecimal("123.40"));
+    }
+
+    @Test
+    void shouldNotConvertAmountWithInvalidPrecision() {
+        // WHEN - THEN
+        Exception exception = assertThrows(InvalidAmountException.class,
+            () -> Money.toMinorUnits(new BigDecimal("1.001")));
+        assertThat(exception.getMessage()).isEqualTo(PRECISION_EXCEEDED_MESSAGE);
+    }
+
+    @Test
+    void shouldNotConvertAmountOutOfRange() {
+        // WHEN - THEN
+        Exception exception = assertThrows(InvalidAmountException.class,
+            () -> Money.toMinorUnits(BigDecimal.valueOf(Long.MAX_VALUE)));
+        assertThat(exception.getMessage()).isEqualTo(AMOUNT_OUT_OF_RANGE_MESSAGE);
+    }
+
+    @Test
+    void shouldAdd() {
+        // WHEN - THEN
+        assertThat(Money.add(1000, 55)).isEqualTo(1055);
+    }
+
+    @Test
+    void shouldNotOverflow() {
+        // WHEN - THEN
+        Exception exception = assertThrows(InvalidAmountException.class, () -> Money.add(Long.MAX_VALUE, 1));
+        assertThat(exception.getMessage()).isEqualTo(AMOUNT_OUT_OF_RANGE_MESSAGE);
+    }
+}
@@ -0,0 +1,151 @@
+package sg.kata.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AccountLockManagerTest {
+
+    private final AccountLockManager lockManager = new AccountLockManager(16);
+
+    @Test
+    void shouldNotBlockUnrelatedAccounts() throws InterruptedException {
+        // GIVEN
+        String firstAccount = "123";
+        String secondAccount = accountOnAnotherStripe(firstAccount);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean secondAccountUpdated = new AtomicBoolean();
+
+        Thread holder = new Thread(() -> lockManager.withLock(firstAccount, () -> {
+            locked.countDown();
+            await(release);
+        }));
+        holder.start();
+        locked.await();
+
+        // WHEN
+        Thread writer = new Thread(() -> lockManager.withLock(secondAccount, () -> secondAccountUpdated.set(true)));
+        writer.start();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+
+        // THEN
+        assertThat(secondAccountUpdated).isTrue();
+        release.countDown();
+        holder.join();
+    }
+
+    @Test
+    void shouldSerializeWritesOnTheSameAccount() throws InterruptedException {
+        // GIVEN
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        Runnable task = () -> {
+            for (int i = 0; i < 1000; i++) {
+                lockManager.withLock("123", () -> {
+                    maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                    inside.decrementAndGet();
+                });
+            }
+        };
+
+        // WHEN
+        Thread thread1 = new Thread(task);
+        Thread thread2 = new Thread(task);
+        thread1.start();
+        thread2.start();
+        thread1.join();
+        thread2.join();
+
+        // THEN
+        assertThat(maxInside.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldShareTheLockButExcludeWrites() throws InterruptedException {
+        // GIVEN
+        CountDownLatch shared = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean secondSharedHolderRan = new AtomicBoolean();
+        AtomicBoolean writerRan = new AtomicBoolean();
+
+        Thread holder = new Thread(() -> lockManager.withSharedLock("123", () -> {
+            shared.countDown();
+            await(release);
+        }));
+        holder.start();
+        shared.await();
+
+        // WHEN
+        Thread sharedHolder = new Thread(() -> lockManager.withSharedLock("123", () -> secondSharedHolderRan.set(true)));
+        sharedHolder.start();
+        sharedHolder.join(TimeUnit.SECONDS.toMillis(5));
+        Thread writer = new Thread(() -> lockManager.withLock("123", () -> writerRan.set(true)));
+        writer.start();
+        writer.join(200);
+
+        // THEN
+        assertThat(secondSharedHolderRan).isTrue();
+        assertThat(writerRan).isFalse();
+        release.countDown();
+        writer.join();
+        assertThat(writerRan).isTrue();
+        holder.join();
+    }
+
+    @Test
+    void shouldNotDeadlockOnOpposingTransfers() throws InterruptedException {
+        // GIVEN
+        String firstAccount = "123";
+        String secondAccount = accountOnAnotherStripe(firstAccount);
+        AtomicInteger transfers = new AtomicInteger();
+
+        // WHEN
+        Thread thread1 = new Thread(() -> {
+            for (int i = 0; i < 1000; i++) {
+                lockManager.withLocks(firstAccount, secondAccount, transfers::incrementAndGet);
+            }
+        });
+        Thread thread2 = new Thread(() -> {
+            for (int i = 0; i < 1000; i++) {
+                lockManager.withLocks(secondAccount, firstAccount, transfers::incrementAndGet);
+            }
+        });
+        thread1.start();
+        thread2.start();
+        thread1.join(TimeUnit.SECONDS.toMillis(10));
+        thread2.join(TimeUnit.SECONDS.toMillis(10));
+
+        // THEN
+        assertThat(transfers.get()).isEqualTo(2000);
+    }
+
+    @Test
+    void shouldReturnActionResult() {
+        // WHEN - THEN
+        assertThat(lockManager.withLock("123", () -> "done")).isEqualTo("done");
+    }
+
+    private String accountOnAnotherStripe(String accountId) {
+        int stripe = lockManager.stripeOf(accountId);
+        for (int i = 0; ; i++) {
+            String candidate = accountId + "-" + i;
+            if (lockManager.stripeOf(candidate) != stripe) {
+                return candidate;
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,22 +1,45 @@
 package sg.kata.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import sg.kata.exception.ConcurrentUpdateException;
+import sg.kata.exception.InsufficientBalanceException;
+import sg.kata.exception.InvalidPageException;
+import sg.kata.exception.InvalidPeriodException;
+import sg.kata.exception.InvalidTransferException;
+import sg.kata.model.AccountOperation;
 import sg.kata.model.BankAccount;
+import sg.kata.model.MonthlySummary;
+import sg.kata.model.OperationResult;
 import sg.kata.model.Statement;
+import sg.kata.model.StatementFormat;
 import sg.kata.repository.BankAccountRepository;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static java.math.BigDecimal.ZERO;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.time.LocalDateTime.now;
 import static java.util.Collections.emptyList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.verify;
 import static sg.kata.model.OperationType.DEPOSIT;
@@ -32,6 +55,21 @@ public class BankAccountServiceTest {
     @Mock
     private BankAccountRepository repository;
 
+    @Spy
+    private AccountLockManager accountLockManager = new AccountLockManager();
+
+    @Spy
+    private ConflictRetryPolicy conflictRetryPolicy = new ConflictRetryPolicy(3, Duration.ZERO, Duration.ZERO);
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private HotAccountDetector hotAccountDetector = HotAccountDetector.disabled();
+
+    @Spy
+    private StatementRenderer statementRenderer = new StatementRenderer();
+
     @Test
     void shouldMakeADeposit() {
         // GIVEN
@@ -39,7 +77,7 @@ public class BankAccountServiceTest {
         List<Statement> statements = new ArrayList<>();
         BankAccount bankAccount = new BankAccount("123", ZERO, statements);
 
-        when(repository.findById("123")).thenReturn(bankAccount);
+        when(repository.findForUpdate("123")).thenReturn(bankAccount);
 
         // WHEN
         service.deposit("123", depositAmount);
@@ -61,7 +99,7 @@ public class BankAccountServiceTest {
 
         List<Statement> statements = new ArrayList<>();
         BankAccount bankAccount = new BankAccount("123", initialBalance, statements);
-        when(repository.findById("123")).thenReturn(bankAccount);
+        when(repository.findForUpdate("123")).thenReturn(bankAccount);
 
         // WHEN
         service.withdraw("123", withdrawAmount);
@@ -77,19 +115,14 @@ public class BankAccountServiceTest {
     @Test
     void shouldGetBalance() {
         // GIVEN
-        BankAccount account = BankAccount.builder()
-            .accountId("123")
-            .balance(BigDecimal.valueOf(100))
-            .statements(emptyList())
-            .build();
-
-        when(repository.findById("123")).thenReturn(account);
+        when(repository.findBalanceById("123")).thenReturn(BigDecimal.valueOf(100));
 
         // WHEN
         BigDecimal balance = service.getBalance("123");
 
         // THEN
         assertThat(balance).isEqualTo(BigDecimal.valueOf(100));
+        verify(repository, never()).findById("123");
     }
 
     @Test
@@ -99,7 +132,7 @@ public class BankAccountServiceTest {
         BankAccount bankAccount1 = new BankAccount("123", ZERO, new ArrayList<>());
         BankAccount bankAccount2 = new BankAccount("123", ZERO.add(depositAmount), new ArrayList<>());
 
-        when(repository.findById("123")).thenReturn(bankAccount1, bankAccount2);
+        when(repository.findForUpdate("123")).thenReturn(bankAccount1, bankAccount2);
 
         // WHEN
         Runnable depositTask = () -> service.deposit("123", depositAmount);
@@ -113,7 +146,7 @@ public class BankAccountServiceTest {
         thread2.join();
 
         // THEN
-        verify(repository, times(2)).findById("123");
+        verify(repository, times(2)).findForUpdate("123");
         bankAccount1.setBalance(ZERO.add(depositAmount));
         verify(repository).update(bankAccount1);
         bankAccount2.setBalance(depositAmount.add(depositAmount));
@@ -128,7 +161,7 @@ public class BankAccountServiceTest {
         BankAccount bankAccount1 = new BankAccount("123", initialBalance, new ArrayList<>());
         BankAccount bankAccount2 = new BankAccount("123", initialBalance.subtract(withdrawAmount), new ArrayList<>());
 
-        when(repository.findById("123")).thenReturn(bankAccount1, bankAccount2);
+        when(repository.findForUpdate("123")).thenReturn(bankAccount1, bankAccount2);
 
         // WHEN
         Runnable withdrawTask = () -> service.withdraw("123", withdrawAmount);
@@ -142,7 +175,7 @@ public class BankAccountServiceTest {
         thread2.join();
 
         // THEN
-        verify(repository, times(2)).findById("123");
+        verify(repository, times(2)).findForUpdate("123");
         bankAccount1.setBalance(initialBalance.subtract(withdrawAmount));
         verify(repository).update(bankAccount1);
         bankAccount2.setBalance(ZERO);
@@ -200,4 +233,341 @@ public class BankAccountServiceTest {
         // THEN
         assertThat(statement).isEqualTo(ACCOUNT_WITHOUT_STATEMENT);
     }
+
+    @Test
+    void shouldPrintStatementsMostRecentFirst() {
+        // GIVEN
+        LocalDateTime date = LocalDateTime.of(2025, 1, 15, 10, 30);
+        Statement deposit = new Statement(date, DEPOSIT, BigDecimal.valueOf(100), BigDecimal.valueOf(100));
+        Statement withdraw = new Statement(date.plusDays(1), WITHDRAW, BigDecimal.valueOf(30), BigDecimal.valueOf(70));
+        BankAccount account = spy(new BankAccount("123", BigDecimal.valueOf(70), List.of(deposit, withdraw)));
+
+        when(repository.findById("123")).thenReturn(account);
+
+        // WHEN
+        String printed = service.printStatement("123");
+
+        // THEN
+        assertThat(printed).isEqualTo(STATEMENT_TITLE + STATEMENT_DELIMITER
+            + String.format(STATEMENT_FORMAT, withdraw.getDate(), WITHDRAW, withdraw.getAmount(), withdraw.getBalance())
+            + String.format(STATEMENT_FORMAT, deposit.getDate(), DEPOSIT, deposit.getAmount(), deposit.getBalance()));
+        verify(account).statementsMostRecentFirst();
+    }
+
+    @Test
+    void shouldPrintAPageOfStatements() {
+        // GIVEN
+        LocalDateTime from = now().minusDays(1);
+        LocalDateTime to = now();
+        Statement statement = Statement.builder()
+            .date(from.plusHours(1))
+            .operationType(DEPOSIT)
+            .amount(BigDecimal.valueOf(100))
+            .balance(BigDecimal.valueOf(100))
+            .build();
+
+        when(repository.findStatements("123", from, to, 0, 10)).thenReturn(List.of(statement));
+
+        // WHEN
+        String printed = service.printStatement("123", from, to, 0, 10);
+
+        // THEN
+        assertThat(printed).startsWith(STATEMENT_TITLE + STATEMENT_DELIMITER);
+        assertThat(printed.contains("DEPOSIT")).isTrue();
+        verify(repository, never()).findById("123");
+    }
+
+    @Test
+    void shouldNotPrintAnInvalidPage() {
+        // WHEN - THEN
+        Exception exception = assertThrows(InvalidPageException.class,
+            () -> service.printStatement("123", null, null, 0, MAX_PAGE_SIZE + 1));
+        assertThat(exception.getMessage()).isEqualTo(INVALID_PAGE_MESSAGE);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void shouldApplyABatchWithOneLoadAndOneWritePerAccount() {
+        // GIVEN
+        List<AccountOperation> operations = List.of(
+            new AccountOperation("123", DEPOSIT, BigDecimal.valueOf(100)),
+            new AccountOperation("456", WITHDRAW, BigDecimal.valueOf(500)),
+            new AccountOperation("123", WITHDRAW, BigDecimal.valueOf(30)),
+            new AccountOperation("123", WITHDRAW, BigDecimal.valueOf(1000)));
+
+        when(repository.findForUpdate("123")).thenReturn(new BankAccount("123", ZERO, new ArrayList<>()));
+        when(repository.findForUpdate("456")).thenReturn(new BankAccount("456", BigDecimal.valueOf(50), new ArrayList<>()));
+
+        // WHEN
+        List<OperationResult> results = service.applyBatch(operations);
+
+        // THEN
+        assertThat(results).extracting(OperationResult::index, OperationResult::success, OperationResult::message)
+            .containsExactly(
+                tuple(0, true, null),
+                tuple(1, false, INSUFFICIENT_BALANCE_MESSAGE),
+                tuple(2, true, null),
+                tuple(3, false, INSUFFICIENT_BALANCE_MESSAGE));
+        ArgumentCaptor<BankAccount> captor = ArgumentCaptor.forClass(BankAccount.class);
+        verify(repository).update(captor.capture(), eq(2));
+        assertThat(captor.getValue().getBalance()).isEqualTo(BigDecimal.valueOf(70));
+        verify(repository, times(1)).findForUpdate("123");
+        verify(repository, never()).update(argThat(account -> account.getAccountId().equals("456")), anyInt());
+    }
+
+    @Test
+    void shouldReportBatchOperationsWithoutAccount() {
+        // GIVEN
+        List<AccountOperation> operations = new ArrayList<>();
+        operations.add(new AccountOperation("123", DEPOSIT, BigDecimal.valueOf(100)));
+        operations.add(new AccountOperation(null, DEPOSIT, BigDecimal.valueOf(5)));
+
+        when(repository.findForUpdate("123")).thenReturn(new BankAccount("123", ZERO, new ArrayList<>()));
+
+        // WHEN
+        List<OperationResult> results = service.applyBatch(operations);
+
+        // THEN
+        assertThat(results)
+            .extracting(OperationResult::index, OperationResult::accountId, OperationResult::success,
+                OperationResult::message)
+            .containsExactly(
+                tuple(0, "123", true, null),
+                tuple(1, null, false, INVALID_OPERATION_MESSAGE));
+        verify(repository, never()).findForUpdate(null);
+    }
+
+    @Test
+    void shouldTransferBetweenTwoAccountsInOneWrite() {
+        // GIVEN
+        when(repository.findForUpdate("123")).thenReturn(new BankAccount("123", BigDecimal.valueOf(100), new ArrayList<>()));
+        when(repository.findForUpdate("456")).thenReturn(new BankAccount("456", BigDecimal.valueOf(10), new ArrayList<>()));
+
+        // WHEN
+        service.transfer("123", "456", BigDecimal.valueOf(40));
+
+        // THEN
+        ArgumentCaptor<List<BankAccount>> captor = ArgumentCaptor.captor();
+        verify(repository).updateAll(captor.capture());
+        assertThat(captor.getValue())
+            .extracting(BankAccount::getAccountId, BankAccount::getBalance)
+            .containsExactly(tuple("123", BigDecimal.valueOf(60)), tuple("456", BigDecimal.valueOf(50)));
+        assertThat(captor.getValue())
+            .flatExtracting(BankAccount::getStatements)
+            .extracting(Statement::getOperationType)
+            .containsExactly(WITHDRAW, DEPOSIT);
+    }
+
+    @Test
+    void shouldNotTransferWithInsufficientBalance() {
+        // GIVEN
+        when(repository.findForUpdate("123")).thenReturn(new BankAccount("123", BigDecimal.valueOf(10), new ArrayList<>()));
+        when(repository.findForUpdate("456")).thenReturn(new BankAccount("456", BigDecimal.valueOf(10), new ArrayList<>()));
+
+        // WHEN - THEN
+        Exception exception = assertThrows(InsufficientBalanceException.class,
+            () -> service.transfer("123", "456", BigDecimal.valueOf(40)));
+        assertThat(exception.getMessage()).isEqualTo(INSUFFICIENT_BALANCE_MESSAGE);
+        verify(repository, never()).updateAll(any());
+    }
+
+    @Test
+    void shouldNotTransferToTheSameAccount() {
+        // WHEN - THEN
+        Exception exception = assertThrows(InvalidTransferException.class,
+            () -> service.transfer("123", "123", BigDecimal.valueOf(40)));
+        assertThat(exception.getMessage()).isEqualTo(SAME_ACCOUNT_TRANSFER_MESSAGE);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void shouldReadMonthlySummariesFromTheRepository() {
+        // GIVEN
+        YearMonth january = YearMonth.of(2025, 1);
+        MonthlySummary summary = new MonthlySummary(january, ZERO, BigDecimal.valueOf(100), BigDecimal.valueOf(30),
+            BigDecimal.valueOf(70), 2);
+        when(repository.findMonthlySummaries("123", january, null)).thenReturn(List.of(summary));
+
+        // WHEN
+        List<MonthlySummary> summaries = service.getMonthlySummaries("123", january, null);
+
+        // THEN
+        assertThat(summaries).containsExactly(summary);
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void shouldNotReadMonthlySummariesOfAReversedPeriod() {
+        // WHEN - THEN
+        Exception exception = assertThrows(InvalidPeriodException.class,
+            () -> service.getMonthlySummaries("123", YearMonth.of(2025, 3), YearMonth.of(2025, 1)));
+        assertThat(exception.getMessage()).isEqualTo(INVALID_PERIOD_MESSAGE);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void shouldRetryADepositAfterAConcurrentUpdate() {
+        // GIVEN
+        BankAccount staleAccount = new BankAccount("123", ZERO, new ArrayList<>(), 1L);
+        BankAccount freshAccount = new BankAccount("123", BigDecimal.valueOf(50), new ArrayList<>(), 2L);
+
+        when(repository.findForUpdate("123")).thenReturn(staleAccount, freshAccount);
+        doThrow(new ConcurrentUpdateException(CONCURRENT_UPDATE_MESSAGE)).when(repository).update(staleAccount);
+
+        // WHEN
+        service.deposit("123", BigDecimal.valueOf(50));
+
+        // THEN
+        verify(repository).update(freshAccount);
+        assertThat(freshAccount.getBalance()).isEqualTo(BigDecimal.valueOf(100));
+        assertThat(conflictRetryPolicy.getRetries()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldGiveUpAfterTooManyConcurrentUpdates() {
+        // GIVEN
+        when(repository.findForUpdate("123")).thenAnswer(invocation -> new BankAccount("123", ZERO, new ArrayList<>(), 1L));
+        doThrow(new ConcurrentUpdateException(CONCURRENT_UPDATE_MESSAGE)).when(repository).update(any(BankAccount.class));
+
+        // WHEN - THEN
+        assertThrows(ConcurrentUpdateException.class, () -> service.deposit("123", BigDecimal.valueOf(50)));
+        verify(repository, times(3)).update(any(BankAccount.class));
+        assertThat(conflictRetryPolicy.getExhausted()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTimeOperationsByOutcomeAndLockWait() {
+        // GIVEN
+        when(repository.findForUpdate("123")).thenAnswer(invocation -> new BankAccount("123", ZERO, new ArrayList<>()));
+
+        // WHEN
+        service.deposit("123", BigDecimal.valueOf(50));
+        assertThrows(InsufficientBalanceException.class, () -> service.withdraw("123", BigDecimal.valueOf(50)));
+
+        // THEN
+        assertThat(meterRegistry.get(SERVICE_TIMER).tags("operation", "deposit", "outcome", "success")
+            .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(SERVICE_TIMER)
+            .tags("operation", "withdraw", "outcome", "InsufficientBalanceException").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(LOCK_WAIT_TIMER).timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldExportStatementsAsCsv() throws IOException {
+        // GIVEN
+        LocalDateTime date = LocalDateTime.of(2025, 1, 15, 10, 30);
+        Statement statement = new Statement(date, DEPOSIT, new BigDecimal("100.50"), new BigDecimal("100.50"));
+
+        doAnswer(invocation -> {
+            invocation.<Consumer<Statement>>getArgument(1).accept(statement);
+            return null;
+        }).when(repository).forEachStatement(eq("123"), any());
+
+        // WHEN
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.exportStatement("123", StatementFormat.CSV).writeTo(output);
+
+        // THEN
+        assertThat(output.toString(UTF_8))
+            .isEqualTo("date,operationType,amount,balance\n2025-01-15T10:30,DEPOSIT,100.50,100.50\n");
+        verify(repository).findBalanceById("123");
+    }
+
+    @Test
+    void shouldExportStatementsAsNdjson() throws IOException {
+        // GIVEN
+        LocalDateTime date = LocalDateTime.of(2025, 1, 15, 10, 30);
+        Statement statement = new Statement(date, WITHDRAW, new BigDecimal("30"), new BigDecimal("70.50"));
+
+        doAnswer(invocation -> {
+            invocation.<Consumer<Statement>>getArgument(1).accept(statement);
+            return null;
+        }).when(repository).forEachStatement(eq("123"), any());
+
+        // WHEN
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.exportStatement("123", StatementFormat.NDJSON).writeTo(output);
+
+        // THEN
+        assertThat(output.toString(UTF_8))
+            .isEqualTo("{\"date\":\"2025-01-15T10:30\",\"operationType\":\"WITHDRAW\",\"amount\":30,\"balance\":70.50}\n");
+    }
+
+    @Test
+    void shouldExportTextLikePrintStatement() throws IOException {
+        // GIVEN
+        Statement statement = new Statement(LocalDateTime.of(2025, 1, 15, 10, 30), DEPOSIT,
+            BigDecimal.valueOf(100), BigDecimal.valueOf(100));
+        BankAccount account = new BankAccount("123", BigDecimal.valueOf(100), List.of(statement));
+
+        when(repository.findById("123")).thenReturn(account);
+        doAnswer(invocation -> {
+            invocation.<Consumer<Statement>>getArgument(1).accept(statement);
+            return null;
+        }).when(repository).forEachStatement(eq("123"), any());
+
+        // WHEN
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.exportStatement("123", StatementFormat.TEXT).writeTo(output);
+
+        // THEN
+        assertThat(output.toString(UTF_8)).isEqualTo(service.printStatement("123"));
+    }
+
+    @Test
+    void shouldExportEmptyTextStatement() throws IOException {
+        // WHEN
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.exportStatement("123", StatementFormat.TEXT).writeTo(output);
+
+        // THEN
+        assertThat(output.toString(UTF_8)).isEqualTo(ACCOUNT_WITHOUT_STATEMENT);
+    }
+
+    @Test
+    void shouldExportOnlyTheHeaderOfAnEmptyCsvStatement() throws IOException {
+        // WHEN
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.exportStatement("123", StatementFormat.CSV).writeTo(output);
+
+        // THEN
+        assertThat(output.toString(UTF_8)).isEqualTo("date,operationType,amount,balance\n");
+    }
+
+    @Test
+    void shouldSpreadDepositsOfAHotAccountAcrossSlots() {
+        // GIVEN
+        BankAccountService hotAccountService = new BankAccountService(repository, accountLockManager,
+            conflictRetryPolicy, meterRegistry, new HotAccountDetector(true, 2, Duration.ofMinutes(1), 4),
+            statementRenderer);
+        when(repository.findForUpdate("123")).thenReturn(new BankAccount("123", ZERO, new ArrayList<>(), 0L));
+
+        // WHEN
+        hotAccountService.deposit("123", BigDecimal.TEN);
+        hotAccountService.deposit("123", BigDecimal.ONE);
+
+        // THEN
+        verify(repository, times(1)).update(any());
+        verify(repository).depositToSlot(eq("123"), intThat(slot -> slot >= 0 && slot < 4), any(),
+            eq(BigDecimal.ONE));
+    }
+
+    @Test
+    void shouldSettleSlotsBeforeAWithdraw() {
+        // GIVEN
+        BankAccountService hotAccountService = new BankAccountService(repository, accountLockManager,
+            conflictRetryPolicy, meterRegistry, new HotAccountDetector(true, 100, Duration.ofMinutes(1), 4),
+            statementRenderer);
+        when(repository.findForUpdate("123"))
+            .thenReturn(new BankAccount("123", BigDecimal.valueOf(100), new ArrayList<>(), 1L));
+
+        // WHEN
+        hotAccountService.withdraw("123", BigDecimal.valueOf(100));
+
+        // THEN
+        InOrder inOrder = inOrder(repository);
+        inOrder.verify(repository).settleSlots("123");
+        inOrder.verify(repository).findForUpdate("123");
+        inOrder.verify(repository).update(any(BankAccount.class));
+    }
 }
@@ -0,0 +1,199 @@
+package sg.kata.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import sg.kata.exception.ConcurrentUpdateException;
+import sg.kata.exception.InsufficientBalanceException;
+import sg.kata.model.AccountOperation;
+import sg.kata.model.AccountUpdate;
+import sg.kata.model.BankAccount;
+import sg.kata.repository.BankAccountRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static java.math.BigDecimal.ZERO;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static sg.kata.model.OperationType.DEPOSIT;
+import static sg.kata.model.OperationType.WITHDRAW;
+import static sg.kata.service.BankAccountService.CONCURRENT_UPDATE_MESSAGE;
+import static sg.kata.service.BankAccountService.INSUFFICIENT_BALANCE_MESSAGE;
+
+@ExtendWith(MockitoExtension.class)
+public class GroupCommitPipelineTest {
+
+    @Mock
+    private BankAccountRepository repository;
+
+    @Captor
+    private ArgumentCaptor<List<AccountUpdate>> updatesCaptor;
+
+    private GroupCommitPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.close();
+        }
+    }
+
+    @Test
+    void shouldCommitQueuedOperationsInOneBatch() {
+        // GIVEN
+        when(repository.findForUpdate("123")).thenReturn(new BankAccount("123", ZERO, new ArrayList<>(), 0L));
+        when(repository.findForUpdate("456")).thenReturn(new BankAccount("456", ZERO, new ArrayList<>(), 0L));
+        pipeline = pipeline(3, Duration.ofSeconds(1));
+
+        // WHEN
+        List<CompletableFuture<Void>> futures = List.of(
+            pipeline.submit(new AccountOperation("123", DEPOSIT, BigDecimal.valueOf(100))),
+            pipeline.submit(new AccountOperation("456", DEPOSIT, BigDecimal.valueOf(50))),
+            pipeline.submit(new AccountOperation("123", WITHDRAW, BigDecimal.valueOf(30))));
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        // THEN
+        verify(repository).updateBatch(updatesCaptor.capture());
+        assertThat(updatesCaptor.getValue())
+            .extracting(update -> update.bankAccount().getAccountId(), AccountUpdate::newStatementCount)
+            .containsExactly(
+                tuple("123", 2),
+                tuple("456", 1));
+        assertThat(updatesCaptor.getValue().get(0).bankAccount().getBalance()).isEqualByComparingTo("70");
+    }
+
+    @Test
+    void shouldFailOnlyTheRejectedOperation() {
+        // GIVEN
+        when(repository.findForUpdate("123"))
+            .thenAnswer(invocation -> new BankAccount("123", ZERO, new ArrayList<>(), 0L));
+        pipeline = pipeline(2, Duration.ofSeconds(1));
+
+        // WHEN
+        CompletableFuture<Void> withdraw = pipeline.submit(new AccountOperation("123", WITHDRAW, BigDecimal.TEN));
+        CompletableFuture<Void> deposit = pipeline.submit(new AccountOperation("123", DEPOSIT, BigDecimal.ONE));
+        deposit.join();
+
+        // THEN
+        InsufficientBalanceException exception = assertThrows(InsufficientBalanceException.class,
+            () -> pipeline.execute(new AccountOperation("123", WITHDRAW, BigDecimal.TEN)));
+        assertEquals(INSUFFICIENT_BALANCE_MESSAGE, exception.getMessage());
+        assertThat(withdraw).isCompletedExceptionally();
+        assertThat(deposit).isCompleted();
+    }
+
+    @Test
+    void shouldCompleteOnlyAfterTheCommit() throws InterruptedException {
+        // GIVEN
+        CountDownLatch commitStarted = new CountDownLatch(1);
+        CountDownLatch releaseCommit = new CountDownLatch(1);
+        when(repository.findForUpdate("123")).thenReturn(new BankAccount("123", ZERO, new ArrayList<>(), 0L));
+        doAnswer(invocation -> {
+            commitStarted.countDown();
+            releaseCommit.await();
+            return null;
+        }).when(repository).updateBatch(anyList());
+        pipeline = pipeline(1, Duration.ZERO);
+
+        // WHEN
+        CompletableFuture<Void> future = pipeline.submit(new AccountOperation("123", DEPOSIT, BigDecimal.ONE));
+        commitStarted.await();
+
+        // THEN
+        assertThat(future).isNotDone();
+        releaseCommit.countDown();
+        future.join();
+    }
+
+    @Test
+    void shouldRetryTheBatchOnConflict() {
+        // GIVEN
+        when(repository.findForUpdate("123"))
+            .thenReturn(new BankAccount("123", ZERO, new ArrayList<>(), 0L))
+            .thenReturn(new BankAccount("123", BigDecimal.TEN, new ArrayList<>(), 1L));
+        doThrow(new ConcurrentUpdateException(CONCURRENT_UPDATE_MESSAGE))
+            .doNothing()
+            .when(repository).updateBatch(anyList());
+        pipeline = pipeline(1, Duration.ZERO);
+
+        // WHEN
+        pipeline.execute(new AccountOperation("123", DEPOSIT, BigDecimal.ONE));
+
+        // THEN
+        verify(repository, times(2)).updateBatch(updatesCaptor.capture());
+        assertThat(updatesCaptor.getValue().get(0).bankAccount().getBalance()).isEqualByComparingTo("11");
+    }
+
+    @Test
+    void shouldSettleSlotsBeforeReadingTheAccount() {
+        // GIVEN
+        when(repository.findForUpdate("123")).thenReturn(new BankAccount("123", BigDecimal.TEN, new ArrayList<>(), 1L));
+        pipeline = pipeline(1, Duration.ZERO, new HotAccountDetector(true, 100, Duration.ofSeconds(1), 4));
+
+        // WHEN
+        pipeline.execute(new AccountOperation("123", WITHDRAW, BigDecimal.ONE));
+
+        // THEN
+        InOrder inOrder = inOrder(repository);
+        inOrder.verify(repository).settleSlots("123");
+        inOrder.verify(repository).findForUpdate("123");
+        inOrder.verify(repository).updateBatch(anyList());
+    }
+
+    @Test
+    void shouldFailAnOperationQueuedWhileClosing() throws Exception {
+        // GIVEN
+        CountDownLatch commitStarted = new CountDownLatch(1);
+        when(repository.findForUpdate("123")).thenReturn(new BankAccount("123", ZERO, new ArrayList<>(), 0L));
+        doAnswer(invocation -> {
+            commitStarted.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }).when(repository).updateBatch(anyList());
+        pipeline = new GroupCommitPipeline(repository, new AccountLockManager(),
+            new ConflictRetryPolicy(1, Duration.ZERO, Duration.ZERO), HotAccountDetector.disabled(), 1, Duration.ZERO,
+            1);
+        pipeline.submit(new AccountOperation("123", DEPOSIT, BigDecimal.ONE));
+        commitStarted.await();
+        CompletableFuture<Void> queued = pipeline.submit(new AccountOperation("123", DEPOSIT, BigDecimal.ONE));
+        CompletableFuture<CompletableFuture<Void>> blocked = CompletableFuture.supplyAsync(
+            () -> pipeline.submit(new AccountOperation("123", DEPOSIT, BigDecimal.TEN)));
+
+        // WHEN
+        pipeline.close();
+
+        // THEN
+        assertThat(queued).isCompletedExceptionally();
+        assertThat(blocked.get(5, TimeUnit.SECONDS).handle((result, failure) -> failure).get(5, TimeUnit.SECONDS))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage(GroupCommitPipeline.PIPELINE_CLOSED_MESSAGE);
+    }
+
+    private GroupCommitPipeline pipeline(int batchSize, Duration linger) {
+        return pipeline(batchSize, linger, HotAccountDetector.disabled());
+    }
+
+    private GroupCommitPipeline pipeline(int batchSize, Duration linger, HotAccountDetector hotAccountDetector) {
+        return new GroupCommitPipeline(repository, new AccountLockManager(),
+            new ConflictRetryPolicy(3, Duration.ZERO, Duration.ZERO), hotAccountDetector, batchSize, linger, 100);
+    }
+}
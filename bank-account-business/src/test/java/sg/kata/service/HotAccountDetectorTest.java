@@ -0,0 +1,59 @@
+package sg.kata.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HotAccountDetectorTest {
+
+    @Test
+    void shouldDetectAnAccountOnceItReachesTheThreshold() {
+        // GIVEN
+        HotAccountDetector detector = new HotAccountDetector(true, 3, Duration.ofMinutes(1), 8);
+
+        // WHEN - THEN
+        assertThat(detector.recordWrite("123")).isFalse();
+        assertThat(detector.recordWrite("123")).isFalse();
+        assertThat(detector.recordWrite("456")).isFalse();
+        assertThat(detector.recordWrite("123")).isTrue();
+        assertThat(detector.recordWrite("456")).isFalse();
+    }
+
+    @Test
+    void shouldKeepAnAccountHotDuringTheNextWindow() throws InterruptedException {
+        // GIVEN
+        HotAccountDetector detector = new HotAccountDetector(true, 2, Duration.ofMillis(100), 8);
+        detector.recordWrite("123");
+        detector.recordWrite("123");
+
+        // WHEN
+        Thread.sleep(120);
+
+        // THEN
+        assertThat(detector.recordWrite("123")).isTrue();
+    }
+
+    @Test
+    void shouldNeverDetectWhenDisabled() {
+        // GIVEN
+        HotAccountDetector detector = HotAccountDetector.disabled();
+
+        // WHEN - THEN
+        for (int i = 0; i < 10; i++) {
+            assertThat(detector.recordWrite("123")).isFalse();
+        }
+    }
+
+    @Test
+    void shouldPickASlotInRange() {
+        // GIVEN
+        HotAccountDetector detector = new HotAccountDetector(true, 1, Duration.ofSeconds(1), 4);
+
+        // WHEN - THEN
+        for (int i = 0; i < 100; i++) {
+            assertThat(detector.nextSlot()).isBetween(0, 3);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package sg.kata.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import sg.kata.model.LedgerEntry;
+import sg.kata.repository.LedgerProjection;
+import sg.kata.repository.OperationLog;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static sg.kata.model.OperationType.DEPOSIT;
+import static sg.kata.service.LedgerProjector.PROJECTION_BEHIND_MESSAGE;
+
+public class LedgerProjectorTest {
+
+    private final InMemoryOperationLog operationLog = new InMemoryOperationLog();
+    private final InMemoryProjection projection = new InMemoryProjection();
+
+    private LedgerProjector projector;
+
+    @AfterEach
+    void tearDown() {
+        if (projector != null) {
+            projector.close();
+        }
+    }
+
+    @Test
+    void shouldApplyEntriesFromTheProjectionPosition() {
+        // GIVEN
+        operationLog.append(List.of(deposit(1), deposit(2), deposit(3)));
+        projection.entries.add(deposit(1));
+        projector = new LedgerProjector(operationLog, projection, 1, Duration.ofSeconds(5));
+
+        // WHEN
+        operationLog.append(List.of(deposit(4)));
+        projector.awaitCaughtUp();
+
+        // THEN
+        assertThat(projection.entries).extracting(LedgerEntry::amount).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void shouldRetryAFailedBatch() {
+        // GIVEN
+        operationLog.append(List.of(deposit(1)));
+        projection.failures = 1;
+        projector = new LedgerProjector(operationLog, projection, 10, Duration.ofSeconds(5));
+
+        // WHEN
+        projector.awaitCaughtUp();
+
+        // THEN
+        assertThat(projection.entries).extracting(LedgerEntry::amount).containsExactly(1L);
+    }
+
+    @Test
+    void shouldFailWhenTheProjectionStaysBehind() {
+        // GIVEN
+        operationLog.append(List.of(deposit(1)));
+        projection.failures = Integer.MAX_VALUE;
+        projector = new LedgerProjector(operationLog, projection, 10, Duration.ofMillis(200));
+
+        // WHEN
+        IllegalStateException exception = assertThrows(IllegalStateException.class, projector::awaitCaughtUp);
+
+        // THEN
+        assertEquals(PROJECTION_BEHIND_MESSAGE, exception.getMessage());
+        assertThat(exception.getCause()).hasMessage("database down");
+        assertThat(projection.entries).isEmpty();
+    }
+
+    private static LedgerEntry deposit(long amount) {
+        return new LedgerEntry("123", DEPOSIT, LocalDateTime.of(2024, 1, 1, 9, 0), amount, amount);
+    }
+
+    private static final class InMemoryOperationLog implements OperationLog {
+
+        private final List<LedgerEntry> entries = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void append(List<LedgerEntry> batch) {
+            entries.addAll(batch);
+        }
+
+        @Override
+        public void replay(Consumer<LedgerEntry> consumer) {
+            entries.forEach(consumer);
+        }
+
+        @Override
+        public long size() {
+            return entries.size();
+        }
+
+        @Override
+        public void read(long from, long to, Consumer<LedgerEntry> consumer) {
+            entries.subList((int) from, (int) to).forEach(consumer);
+        }
+    }
+
+    private static final class InMemoryProjection implements LedgerProjection {
+
+        private final List<LedgerEntry> entries = new CopyOnWriteArrayList<>();
+        private volatile int failures;
+
+        @Override
+        public long position() {
+            return entries.size();
+        }
+
+        @Override
+        public void apply(List<LedgerEntry> batch) {
+            if (failures > 0) {
+                failures--;
+                throw new IllegalStateException("database down");
+            }
+            entries.addAll(batch);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package sg.kata.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import sg.kata.exception.AccountNotFoundException;
+import sg.kata.exception.InsufficientBalanceException;
+import sg.kata.exception.InvalidAmountException;
+import sg.kata.exception.InvalidTransferException;
+import sg.kata.model.AccountOperation;
+import sg.kata.model.LedgerEntry;
+import sg.kata.model.OperationResult;
+import sg.kata.repository.OperationLog;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static sg.kata.model.OperationType.DEPOSIT;
+import static sg.kata.model.OperationType.WITHDRAW;
+import static sg.kata.service.BankAccountService.INSUFFICIENT_BALANCE_MESSAGE;
+import static sg.kata.service.BankAccountService.INVALID_ACCOUNT_MESSAGE;
+import static sg.kata.service.BankAccountService.INVALID_OPERATION_MESSAGE;
+
+public class PartitionedAccountEngineTest {
+
+    private final InMemoryOperationLog operationLog = new InMemoryOperationLog();
+
+    private PartitionedAccountEngine engine;
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.close();
+        }
+    }
+
+    @Test
+    void shouldApplyDepositAndWithdrawAndLogThem() {
+        // GIVEN
+        engine = new PartitionedAccountEngine(operationLog, 2, 16, 8);
+        engine.open("123", BigDecimal.valueOf(100)).join();
+
+        // WHEN
+        engine.execute(new AccountOperation("123", DEPOSIT, new BigDecimal("50.25")));
+        engine.execute(new AccountOperation("123", WITHDRAW, BigDecimal.valueOf(30)));
+
+        // THEN
+        assertThat(engine.getBalance("123")).isEqualByComparingTo("120.25");
+        assertThat(operationLog.entries)
+            .extracting(LedgerEntry::operationType, LedgerEntry::amount, LedgerEntry::balance)
+            .containsExactly(
+                tuple(null, 0L, 10000L),
+                tuple(DEPOSIT, 5025L, 15025L),
+                tuple(WITHDRAW, 3000L, 12025L));
+    }
+
+    @Test
+    void shouldRebuildBalancesFromTheLog() {
+        // GIVEN
+        engine = new PartitionedAccountEngine(operationLog, 2, 16, 8);
+        engine.open("123", BigDecimal.TEN).join();
+        engine.open("456", BigDecimal.ZERO).join();
+        engine.execute(new AccountOperation("456", DEPOSIT, BigDecimal.valueOf(5)));
+        engine.close();
+
+        // WHEN
+        engine = new PartitionedAccountEngine(operationLog, 3, 16, 8);
+
+        // THEN
+        assertEquals(2, engine.replayedAccounts());
+        assertThat(engine.owns("123")).isTrue();
+        assertThat(engine.owns("789")).isFalse();
+        assertThat(engine.getBalance("123")).isEqualByComparingTo("10");
+        assertThat(engine.getBalance("456")).isEqualByComparingTo("5");
+    }
+
+    @Test
+    void shouldRejectOperationsLikeTheService() {
+        // GIVEN
+        engine = new PartitionedAccountEngine(operationLog, 1, 16, 8);
+        engine.open("123", BigDecimal.TEN).join();
+
+        // WHEN - THEN
+        InsufficientBalanceException exception = assertThrows(InsufficientBalanceException.class,
+            () -> engine.execute(new AccountOperation("123", WITHDRAW, BigDecimal.valueOf(11))));
+        assertEquals(INSUFFICIENT_BALANCE_MESSAGE, exception.getMessage());
+        assertThrows(InvalidAmountException.class,
+            () -> engine.execute(new AccountOperation("123", DEPOSIT, new BigDecimal("0.001"))));
+        AccountNotFoundException notFound = assertThrows(AccountNotFoundException.class,
+            () -> engine.getBalance("456"));
+        assertEquals(INVALID_ACCOUNT_MESSAGE, notFound.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> join(engine.open("123", BigDecimal.ONE)));
+        assertThat(engine.getBalance("123")).isEqualByComparingTo("10");
+        assertThat(operationLog.entries).hasSize(1);
+    }
+
+    @Test
+    void shouldTransferAcrossPartitions() {
+        // GIVEN
+        engine = new PartitionedAccountEngine(operationLog, 4, 16, 8);
+        engine.open("123", BigDecimal.valueOf(100)).join();
+        engine.open("456", BigDecimal.ZERO).join();
+
+        // WHEN
+        engine.transfer("123", "456", BigDecimal.valueOf(30));
+
+        // THEN
+        assertThat(engine.getBalance("123")).isEqualByComparingTo("70");
+        assertThat(engine.getBalance("456")).isEqualByComparingTo("30");
+        assertThrows(InvalidTransferException.class, () -> engine.transfer("123", "123", BigDecimal.ONE));
+        assertThrows(AccountNotFoundException.class, () -> engine.transfer("123", "789", BigDecimal.ONE));
+        assertThrows(InsufficientBalanceException.class, () -> engine.transfer("456", "123", BigDecimal.valueOf(31)));
+        assertThat(engine.getBalance("123")).isEqualByComparingTo("70");
+        assertThat(operationLog.entries).hasSize(4);
+    }
+
+    @Test
+    void shouldLogBothSidesOfATransferInOneAppend() {
+        // GIVEN
+        engine = new PartitionedAccountEngine(operationLog, 4, 64, 16);
+        for (int i = 0; i < 8; i++) {
+            engine.open("account-" + i, BigDecimal.valueOf(1000)).join();
+        }
+        operationLog.appends.clear();
+
+        // WHEN
+        List<CompletableFuture<Void>> writers = new ArrayList<>();
+        for (int writer = 0; writer < 8; writer++) {
+            int offset = writer;
+            writers.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 200; i++) {
+                    engine.transfer("account-" + (offset + i) % 8, "account-" + (offset + i + 1 + i % 3) % 8,
+                        BigDecimal.ONE);
+                }
+            }));
+        }
+        CompletableFuture.allOf(writers.toArray(CompletableFuture[]::new)).join();
+
+        // THEN
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < 8; i++) {
+            total = total.add(engine.getBalance("account-" + i));
+        }
+        assertThat(total).isEqualByComparingTo("8000");
+        assertThat(operationLog.entries).hasSize(8 + 2 * 1600);
+        assertThat(operationLog.appends).allSatisfy(append -> assertThat(append)
+            .filteredOn(entry -> entry.operationType() == WITHDRAW)
+            .hasSameSizeAs(append.stream().filter(entry -> entry.operationType() == DEPOSIT).toList()));
+    }
+
+    @Test
+    void shouldLeaveBothAccountsUnchangedWhenATransferCannotBeLogged() {
+        // GIVEN
+        engine = new PartitionedAccountEngine(operationLog, 4, 16, 8);
+        for (int i = 0; i < 8; i++) {
+            engine.open("account-" + i, BigDecimal.TEN).join();
+        }
+        operationLog.failure = new IllegalStateException("disk full");
+
+        // WHEN
+        for (int i = 1; i < 8; i++) {
+            int target = i;
+            assertThrows(IllegalStateException.class,
+                () -> engine.transfer("account-0", "account-" + target, BigDecimal.ONE));
+        }
+
+        // THEN
+        operationLog.failure = null;
+        for (int i = 0; i < 8; i++) {
+            assertThat(engine.getBalance("account-" + i)).isEqualByComparingTo("10");
+        }
+        assertThat(operationLog.entries).hasSize(8);
+    }
+
+    @Test
+    void shouldReportEachOperationOfABatch() {
+        // GIVEN
+        engine = new PartitionedAccountEngine(operationLog, 2, 16, 8);
+        engine.open("123", BigDecimal.TEN).join();
+
+        // WHEN
+        List<OperationResult> results = engine.applyBatch(List.of(
+            new AccountOperation("123", WITHDRAW, BigDecimal.valueOf(4)),
+            new AccountOperation("123", WITHDRAW, BigDecimal.valueOf(7)),
+            new AccountOperation("456", DEPOSIT, BigDecimal.ONE),
+            new AccountOperation("123", null, BigDecimal.ONE),
+            new AccountOperation("123", DEPOSIT, BigDecimal.ONE),
+            new AccountOperation(null, DEPOSIT, BigDecimal.ONE)));
+
+        // THEN
+        assertThat(results)
+            .extracting(OperationResult::index, OperationResult::success, OperationResult::message)
+            .containsExactly(
+                tuple(0, true, null),
+                tuple(1, false, INSUFFICIENT_BALANCE_MESSAGE),
+                tuple(2, false, INVALID_ACCOUNT_MESSAGE),
+                tuple(3, false, INVALID_OPERATION_MESSAGE),
+                tuple(4, true, null),
+                tuple(5, false, INVALID_OPERATION_MESSAGE));
+        assertThat(engine.getBalance("123")).isEqualByComparingTo("7");
+    }
+
+    @Test
+    void shouldUndoTheBatchWhenTheLogFails() {
+        // GIVEN
+        engine = new PartitionedAccountEngine(operationLog, 1, 16, 8);
+        engine.open("123", BigDecimal.TEN).join();
+        operationLog.failure = new IllegalStateException("disk full");
+
+        // WHEN
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+            () -> engine.execute(new AccountOperation("123", DEPOSIT, BigDecimal.valueOf(5))));
+
+        // THEN
+        assertEquals("disk full", exception.getMessage());
+        operationLog.failure = null;
+        assertThat(engine.getBalance("123")).isEqualByComparingTo("10");
+        assertThat(operationLog.entries).hasSize(1);
+    }
+
+    @Test
+    void shouldNotLoseConcurrentDeposits() {
+        // GIVEN
+        engine = new PartitionedAccountEngine(operationLog, 4, 64, 16);
+        for (int i = 0; i < 8; i++) {
+            engine.open("account-" + i, BigDecimal.ZERO).join();
+        }
+
+        // WHEN
+        List<CompletableFuture<Void>> writers = new ArrayList<>();
+        for (int writer = 0; writer < 8; writer++) {
+            writers.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    engine.execute(new AccountOperation("account-" + i % 8, DEPOSIT, BigDecimal.ONE));
+                }
+            }));
+        }
+        CompletableFuture.allOf(writers.toArray(CompletableFuture[]::new)).join();
+
+        // THEN
+        for (int i = 0; i < 8; i++) {
+            assertThat(engine.getBalance("account-" + i)).isEqualByComparingTo("1000");
+        }
+        assertThat(operationLog.entries).hasSize(8 + 8000);
+    }
+
+    @Test
+    void shouldFailSubmissionsOnceClosed() {
+        // GIVEN
+        engine = new PartitionedAccountEngine(operationLog, 1, 16, 8);
+        engine.close();
+
+        // WHEN - THEN
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+            () -> engine.execute(new AccountOperation("123", DEPOSIT, BigDecimal.ONE)));
+        assertEquals(PartitionedAccountEngine.ENGINE_CLOSED_MESSAGE, exception.getMessage());
+    }
+
+    @Test
+    void shouldCompleteEveryCommandSubmittedWhileClosing() throws Exception {
+        // GIVEN
+        engine = new PartitionedAccountEngine(operationLog, 2, 16, 8);
+        engine.open("123", BigDecimal.ZERO).join();
+        List<CompletableFuture<BigDecimal>> futures = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<Void>> writers = new ArrayList<>();
+        for (int writer = 0; writer < 4; writer++) {
+            writers.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    futures.add(engine.submit(new AccountOperation("123", DEPOSIT, BigDecimal.ONE)));
+                }
+            }));
+        }
+
+        // WHEN
+        engine.close();
+        CompletableFuture.allOf(writers.toArray(CompletableFuture[]::new)).join();
+
+        // THEN
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+            .handle((result, failure) -> null)
+            .get(5, TimeUnit.SECONDS);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    private static final class InMemoryOperationLog implements OperationLog {
+
+        private final List<LedgerEntry> entries = new CopyOnWriteArrayList<>();
+        private final List<List<LedgerEntry>> appends = new CopyOnWriteArrayList<>();
+        private volatile RuntimeException failure;
+
+        @Override
+        public synchronized void append(List<LedgerEntry> batch) {
+            if (failure != null) {
+                throw failure;
+            }
+            entries.addAll(batch);
+            appends.add(List.copyOf(batch));
+        }
+
+        @Override
+        public void replay(Consumer<LedgerEntry> consumer) {
+            entries.forEach(consumer);
+        }
+
+        @Override
+        public long size() {
+            return entries.size();
+        }
+
+        @Override
+        public void read(long from, long to, Consumer<LedgerEntry> consumer) {
+            entries.subList((int) from, (int) to).forEach(consumer);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package sg.kata.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import sg.kata.exception.AccountNotFoundException;
+import sg.kata.exception.ConcurrentUpdateException;
+import sg.kata.exception.InsufficientBalanceException;
+import sg.kata.model.BankAccount;
+import sg.kata.model.Statement;
+import sg.kata.repository.ReactiveBankAccountRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+
+import static java.math.BigDecimal.ZERO;
+import static java.time.LocalDateTime.now;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static sg.kata.model.OperationType.DEPOSIT;
+import static sg.kata.service.BankAccountService.CONCURRENT_UPDATE_MESSAGE;
+import static sg.kata.service.BankAccountService.INVALID_ACCOUNT_MESSAGE;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveBankAccountServiceTest {
+
+    @Mock
+    private ReactiveBankAccountRepository repository;
+
+    private ReactiveBankAccountService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ReactiveBankAccountService(repository, 3, Duration.ZERO, Duration.ZERO);
+    }
+
+    @Test
+    void shouldMakeADeposit() {
+        // GIVEN
+        when(repository.settleSlots("123")).thenReturn(Mono.empty());
+        when(repository.findForUpdate("123")).thenReturn(Mono.just(new BankAccount("123", ZERO, new ArrayList<>(), 0L)));
+        when(repository.update(any())).thenReturn(Mono.empty());
+
+        // WHEN
+        StepVerifier.create(service.deposit("123", BigDecimal.valueOf(50))).verifyComplete();
+
+        // THEN
+        ArgumentCaptor<BankAccount> captor = ArgumentCaptor.forClass(BankAccount.class);
+        verify(repository).update(captor.capture());
+        assertThat(captor.getValue().getBalance()).isEqualByComparingTo("50");
+        assertThat(captor.getValue().getStatements()).hasSize(1);
+    }
+
+    @Test
+    void shouldNotWithdrawMoreThanBalance() {
+        // GIVEN
+        when(repository.settleSlots("123")).thenReturn(Mono.empty());
+        when(repository.findForUpdate("123")).thenReturn(Mono.just(new BankAccount("123", ZERO, new ArrayList<>(), 0L)));
+
+        // WHEN - THEN
+        StepVerifier.create(service.withdraw("123", BigDecimal.TEN))
+            .verifyError(InsufficientBalanceException.class);
+        verify(repository, never()).update(any());
+    }
+
+    @Test
+    void shouldReloadAndRetryOnConflict() {
+        // GIVEN
+        when(repository.settleSlots("123")).thenReturn(Mono.empty());
+        when(repository.findForUpdate("123"))
+            .thenReturn(Mono.just(new BankAccount("123", ZERO, new ArrayList<>(), 0L)))
+            .thenReturn(Mono.just(new BankAccount("123", BigDecimal.TEN, new ArrayList<>(), 1L)));
+        when(repository.update(any()))
+            .thenReturn(Mono.error(new ConcurrentUpdateException(CONCURRENT_UPDATE_MESSAGE)))
+            .thenReturn(Mono.empty());
+
+        // WHEN
+        StepVerifier.create(service.deposit("123", BigDecimal.ONE)).verifyComplete();
+
+        // THEN
+        ArgumentCaptor<BankAccount> captor = ArgumentCaptor.forClass(BankAccount.class);
+        verify(repository, times(2)).update(captor.capture());
+        assertThat(captor.getValue().getBalance()).isEqualByComparingTo("11");
+    }
+
+    @Test
+    void shouldGiveUpAfterMaxAttempts() {
+        // GIVEN
+        when(repository.settleSlots("123")).thenReturn(Mono.empty());
+        when(repository.findForUpdate("123"))
+            .thenAnswer(invocation -> Mono.just(new BankAccount("123", ZERO, new ArrayList<>(), 0L)));
+        when(repository.update(any())).thenReturn(Mono.error(new ConcurrentUpdateException(CONCURRENT_UPDATE_MESSAGE)));
+
+        // WHEN - THEN
+        StepVerifier.create(service.deposit("123", BigDecimal.ONE))
+            .verifyError(ConcurrentUpdateException.class);
+        verify(repository, times(3)).update(any());
+    }
+
+    @Test
+    void shouldSettleSlotsBeforeReadingTheAccount() {
+        // GIVEN
+        when(repository.settleSlots("123")).thenReturn(Mono.empty());
+        when(repository.findForUpdate("123"))
+            .thenReturn(Mono.just(new BankAccount("123", BigDecimal.TEN, new ArrayList<>(), 1L)));
+        when(repository.update(any())).thenReturn(Mono.empty());
+
+        // WHEN
+        StepVerifier.create(service.withdraw("123", BigDecimal.ONE)).verifyComplete();
+
+        // THEN
+        InOrder inOrder = inOrder(repository);
+        inOrder.verify(repository).settleSlots("123");
+        inOrder.verify(repository).findForUpdate("123");
+        inOrder.verify(repository).update(any());
+    }
+
+    @Test
+    void shouldSettleSlotsBeforeStreamingStatements() {
+        // GIVEN
+        when(repository.findBalanceById("123")).thenReturn(Mono.just(BigDecimal.TEN));
+        when(repository.settleSlots("123")).thenReturn(Mono.empty());
+        when(repository.findStatements("123")).thenReturn(Flux.just(new Statement(now(), DEPOSIT, ZERO, ZERO)));
+
+        // WHEN - THEN
+        StepVerifier.create(service.streamStatements("123")).expectNextCount(1).verifyComplete();
+        verify(repository).settleSlots("123");
+    }
+
+    @Test
+    void shouldNotStreamStatementsOfInvalidAccount() {
+        // GIVEN
+        when(repository.findBalanceById("123")).thenReturn(Mono.error(new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE)));
+        when(repository.findStatements("123")).thenReturn(Flux.just(new Statement(now(), DEPOSIT, ZERO, ZERO)));
+
+        // WHEN - THEN
+        StepVerifier.create(service.streamStatements("123"))
+            .verifyError(AccountNotFoundException.class);
+    }
+}
@@ -0,0 +1,97 @@
+package sg.kata.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import sg.kata.model.Statement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sg.kata.model.OperationType.DEPOSIT;
+import static sg.kata.model.OperationType.WITHDRAW;
+import static sg.kata.service.BankAccountService.*;
+
+public class StatementRendererTest {
+
+    private static final Locale DEFAULT_FORMAT_LOCALE = Locale.getDefault(Locale.Category.FORMAT);
+
+    private final StatementRenderer renderer = new StatementRenderer();
+
+    @AfterEach
+    void tearDown() {
+        Locale.setDefault(Locale.Category.FORMAT, DEFAULT_FORMAT_LOCALE);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"en-US", "fr-FR", "de-CH", "ar-EG", "hi-IN-u-nu-deva"})
+    void shouldRenderLikeStringFormat(String languageTag) {
+        // GIVEN
+        Locale.setDefault(Locale.Category.FORMAT, Locale.forLanguageTag(languageTag));
+        LocalDateTime date = LocalDateTime.of(2025, 1, 15, 10, 30);
+        List<Statement> statements = List.of(
+            new Statement(date, DEPOSIT, new BigDecimal("100"), new BigDecimal("100.00")),
+            new Statement(date.withSecond(5), WITHDRAW, new BigDecimal("0.005"), new BigDecimal("99.995")),
+            new Statement(date.withNano(120_000_000), DEPOSIT, new BigDecimal("1234567.891"), new BigDecimal("-0.001")),
+            new Statement(date.withNano(120_500_000), WITHDRAW, new BigDecimal("1E+3"), new BigDecimal("-12.345")),
+            new Statement(date.withNano(7), DEPOSIT, new BigDecimal("0.01"), null),
+            new Statement(LocalDateTime.of(25, 3, 1, 0, 0), DEPOSIT, BigDecimal.ZERO, new BigDecimal("0.125")),
+            new Statement(LocalDateTime.of(12025, 3, 1, 0, 0, 1), null, BigDecimal.ONE, BigDecimal.TEN));
+
+        // WHEN
+        String rendered = renderer.render(statements);
+
+        // THEN
+        assertThat(rendered).isEqualTo(formatted(statements));
+    }
+
+    @Test
+    void shouldFollowTheDefaultLocale() {
+        // GIVEN
+        List<Statement> statements = List.of(
+            new Statement(LocalDateTime.of(2025, 1, 15, 10, 30), DEPOSIT, BigDecimal.ONE, BigDecimal.ONE));
+        Locale.setDefault(Locale.Category.FORMAT, Locale.US);
+        renderer.render(statements);
+
+        // WHEN
+        Locale.setDefault(Locale.Category.FORMAT, Locale.FRANCE);
+
+        // THEN
+        assertThat(renderer.render(statements)).contains("1,00").isEqualTo(formatted(statements));
+    }
+
+    @Test
+    void shouldAppendOneRowToABuffer() {
+        // GIVEN
+        Statement statement = new Statement(LocalDateTime.of(2025, 1, 15, 10, 30), DEPOSIT,
+            BigDecimal.ONE, BigDecimal.ONE);
+        StringBuilder sb = new StringBuilder("previous");
+
+        // WHEN
+        renderer.appendRow(sb, statement);
+
+        // THEN
+        assertThat(sb.toString()).isEqualTo("previous" + String.format(STATEMENT_FORMAT,
+            statement.getDate(), statement.getOperationType(), statement.getAmount(), statement.getBalance()));
+    }
+
+    @Test
+    void shouldRenderAnEmptyStatement() {
+        // WHEN - THEN
+        assertThat(renderer.render(new ArrayList<>())).isEqualTo(ACCOUNT_WITHOUT_STATEMENT);
+    }
+
+    private static String formatted(List<Statement> statements) {
+        StringBuilder sb = new StringBuilder(STATEMENT_TITLE).append(STATEMENT_DELIMITER);
+        for (Statement statement : statements) {
+            sb.append(String.format(STATEMENT_FORMAT,
+                statement.getDate(), statement.getOperationType(), statement.getAmount(), statement.getBalance()));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,4 @@
+package sg.kata.cache;
+
+public record CacheStats(long hits, long misses, long evictions, int size) {
+}
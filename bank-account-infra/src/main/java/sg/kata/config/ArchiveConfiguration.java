@@ -0,0 +1,31 @@
+package sg.kata.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import sg.kata.repository.StatementArchive;
+import sg.kata.repository.StatementArchiver;
+import sg.kata.repository.StatementEntityJpaRepository;
+
+import java.time.Duration;
+
+@Configuration
+@Profile("!event-sourced & !journal")
+@ConditionalOnProperty(name = "bank.archive.enabled", havingValue = "true")
+public class ArchiveConfiguration {
+
+    @Bean
+    public StatementArchiver statementArchiver(
+        StatementArchive statementArchive,
+        StatementEntityJpaRepository statementJpaRepository,
+        MeterRegistry meterRegistry,
+        @Value("${bank.archive.horizon:365d}") Duration horizon,
+        @Value("${bank.archive.segment-size:1000}") int segmentSize,
+        @Value("${bank.archive.interval:1h}") Duration interval) {
+        return new StatementArchiver(statementArchive, statementJpaRepository, meterRegistry,
+            horizon, segmentSize, interval);
+    }
+}
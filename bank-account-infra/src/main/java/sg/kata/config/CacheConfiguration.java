@@ -0,0 +1,26 @@
+package sg.kata.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import sg.kata.repository.BankAccountRepository;
+import sg.kata.repository.CachingBankAccountRepository;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "bank.cache.enabled", havingValue = "true")
+public class CacheConfiguration {
+
+    @Bean
+    @Primary
+    public CachingBankAccountRepository cachingBankAccountRepository(
+        @Qualifier("bankAccountStore") BankAccountRepository bankAccountStore,
+        @Value("${bank.cache.max-size:10000}") int maxSize,
+        @Value("${bank.cache.ttl:30s}") Duration ttl) {
+        return new CachingBankAccountRepository(bankAccountStore, maxSize, ttl);
+    }
+}
@@ -0,0 +1,83 @@
+package sg.kata.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import sg.kata.entity.BankAccountEntity;
+import sg.kata.journal.FsyncPolicy;
+import sg.kata.journal.JournalOperationLog;
+import sg.kata.journal.MappedJournal;
+import sg.kata.repository.BankAccountEntityJpaRepository;
+import sg.kata.repository.BankAccountLedgerProjection;
+import sg.kata.repository.BankAccountRepository;
+import sg.kata.repository.LedgerProjection;
+import sg.kata.repository.LedgerProjectionJpaRepository;
+import sg.kata.service.LedgerProjector;
+import sg.kata.service.PartitionedAccountEngine;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Configuration
+@ConditionalOnProperty(name = "bank.engine.enabled", havingValue = "true")
+public class EngineConfiguration {
+
+    @Bean
+    public JournalOperationLog engineOperationLog(
+        @Value("${bank.engine.directory:engine}") Path directory,
+        @Value("${bank.engine.segment-size:64MB}") DataSize segmentSize,
+        @Value("${bank.engine.fsync:ALWAYS}") FsyncPolicy fsyncPolicy,
+        @Value("${bank.engine.fsync-interval:10ms}") Duration fsyncInterval) {
+        return new JournalOperationLog(
+            new MappedJournal(directory, Math.toIntExact(segmentSize.toBytes()), fsyncPolicy, fsyncInterval));
+    }
+
+    /**
+     * On every start, the accounts of {@code BANK_ACCOUNT} the engine does not own yet are opened in it with their
+     * current balance.
+     */
+    @Bean
+    public PartitionedAccountEngine partitionedAccountEngine(
+        JournalOperationLog engineOperationLog,
+        ObjectProvider<BankAccountEntityJpaRepository> bankAccountEntityJpaRepository,
+        @Value("${bank.engine.partitions:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int partitions,
+        @Value("${bank.engine.ring-size:65536}") int ringSize,
+        @Value("${bank.engine.batch-size:256}") int batchSize) {
+        PartitionedAccountEngine engine = new PartitionedAccountEngine(engineOperationLog, partitions, ringSize,
+            batchSize);
+        BankAccountEntityJpaRepository jpaRepository = bankAccountEntityJpaRepository.getIfAvailable();
+        if (jpaRepository != null) {
+            List<BankAccountEntity> accounts = jpaRepository.findAll();
+            CompletableFuture.allOf(accounts.stream()
+                    .filter(account -> !engine.owns(account.getAccountId()))
+                    .map(account -> engine.open(account.getAccountId(), account.getBalance()))
+                    .toArray(CompletableFuture[]::new))
+                .join();
+        }
+        return engine;
+    }
+
+    @Bean
+    public BankAccountLedgerProjection bankAccountLedgerProjection(BankAccountRepository bankAccountRepository,
+                                                                   LedgerProjectionJpaRepository jpaRepository) {
+        return new BankAccountLedgerProjection(bankAccountRepository, jpaRepository);
+    }
+
+    /**
+     * Keeps the account store in step with the engine's log, so that statements, summaries and exports read from it see
+     * the engine's operations.
+     */
+    @Bean
+    public LedgerProjector ledgerProjector(
+        JournalOperationLog engineOperationLog,
+        LedgerProjection bankAccountLedgerProjection,
+        @Value("${bank.engine.projection-batch-size:1000}") int batchSize,
+        @Value("${bank.engine.projection-timeout:5s}") Duration timeout) {
+        return new LedgerProjector(engineOperationLog, bankAccountLedgerProjection, batchSize, timeout);
+    }
+}
@@ -0,0 +1,26 @@
+package sg.kata.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.unit.DataSize;
+import sg.kata.journal.FsyncPolicy;
+import sg.kata.journal.MappedJournal;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+@Profile("journal")
+public class JournalConfiguration {
+
+    @Bean
+    public MappedJournal mappedJournal(
+        @Value("${bank.journal.directory:journal}") Path directory,
+        @Value("${bank.journal.segment-size:64MB}") DataSize segmentSize,
+        @Value("${bank.journal.fsync:ALWAYS}") FsyncPolicy fsyncPolicy,
+        @Value("${bank.journal.fsync-interval:10ms}") Duration fsyncInterval) {
+        return new MappedJournal(directory, Math.toIntExact(segmentSize.toBytes()), fsyncPolicy, fsyncInterval);
+    }
+}
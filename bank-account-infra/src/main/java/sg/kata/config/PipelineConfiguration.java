@@ -0,0 +1,31 @@
+package sg.kata.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import sg.kata.repository.BankAccountRepository;
+import sg.kata.service.AccountLockManager;
+import sg.kata.service.ConflictRetryPolicy;
+import sg.kata.service.GroupCommitPipeline;
+import sg.kata.service.HotAccountDetector;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "bank.pipeline.enabled", havingValue = "true")
+public class PipelineConfiguration {
+
+    @Bean
+    public GroupCommitPipeline groupCommitPipeline(
+        BankAccountRepository bankAccountRepository,
+        AccountLockManager accountLockManager,
+        ConflictRetryPolicy conflictRetryPolicy,
+        HotAccountDetector hotAccountDetector,
+        @Value("${bank.pipeline.batch-size:100}") int batchSize,
+        @Value("${bank.pipeline.linger:2ms}") Duration linger,
+        @Value("${bank.pipeline.capacity:10000}") int capacity) {
+        return new GroupCommitPipeline(bankAccountRepository, accountLockManager, conflictRetryPolicy,
+            hotAccountDetector, batchSize, linger, capacity);
+    }
+}
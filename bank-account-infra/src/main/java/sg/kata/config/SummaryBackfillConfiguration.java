@@ -0,0 +1,43 @@
+package sg.kata.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import sg.kata.repository.BalanceSnapshotJpaRepository;
+import sg.kata.repository.BankAccountEntityJpaRepository;
+import sg.kata.repository.BankAccountEntityRepository;
+import sg.kata.repository.EventSourcedBankAccountRepository;
+import sg.kata.repository.MonthlySummaryBackfill;
+import sg.kata.service.ConflictRetryPolicy;
+
+/**
+ * The journal adapter folds its summaries while replaying the journal, so it needs no backfill.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bank.summary.backfill", havingValue = "true")
+public class SummaryBackfillConfiguration {
+
+    @Bean
+    @Profile("!event-sourced & !journal")
+    public MonthlySummaryBackfill statementSummaryBackfill(
+        BankAccountEntityJpaRepository jpaRepository,
+        BankAccountEntityRepository bankAccountEntityRepository,
+        ConflictRetryPolicy conflictRetryPolicy,
+        MeterRegistry meterRegistry) {
+        return new MonthlySummaryBackfill(jpaRepository::findAccountIds,
+            bankAccountEntityRepository::rebuildMonthlySummaries, conflictRetryPolicy, meterRegistry);
+    }
+
+    @Bean
+    @Profile("event-sourced")
+    public MonthlySummaryBackfill ledgerSummaryBackfill(
+        BalanceSnapshotJpaRepository snapshotJpaRepository,
+        EventSourcedBankAccountRepository eventSourcedBankAccountRepository,
+        ConflictRetryPolicy conflictRetryPolicy,
+        MeterRegistry meterRegistry) {
+        return new MonthlySummaryBackfill(snapshotJpaRepository::findAccountIds,
+            eventSourcedBankAccountRepository::rebuildMonthlySummaries, conflictRetryPolicy, meterRegistry);
+    }
+}
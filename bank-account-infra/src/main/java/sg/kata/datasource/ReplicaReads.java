@@ -0,0 +1,115 @@
+package sg.kata.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Decides which reads may go to the read replica. Only the reads an adapter wraps in {@link #onReplica} are
+ * candidates, and only inside a read-only transaction; an account written by this node less than
+ * {@code bank.datasource.replica.max-lag} ago is still read from the primary, so a client always sees its own
+ * writes while other reads are at most as stale as the replica lag. Writes are recorded when their transaction
+ * commits. Without {@code bank.datasource.replica.url}, every read stays on the primary and nothing is tracked.
+ */
+@Component
+public class ReplicaReads {
+
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final boolean enabled;
+    private final long maxLagNanos;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final ThreadLocal<String> replicaAccount = new ThreadLocal<>();
+
+    public ReplicaReads(@Value("${bank.datasource.replica.url:}") String replicaUrl,
+                        @Value("${bank.datasource.replica.max-lag:1s}") Duration maxLag) {
+        if (maxLag.isNegative()) {
+            throw new IllegalArgumentException("maxLag must not be negative");
+        }
+        this.enabled = !replicaUrl.isBlank();
+        this.maxLagNanos = maxLag.toNanos();
+    }
+
+    public static ReplicaReads disabled() {
+        return new ReplicaReads("", Duration.ZERO);
+    }
+
+    /**
+     * Runs a read of the account that may be served by the replica.
+     */
+    public <T> T onReplica(String accountId, Supplier<T> read) {
+        if (!enabled) {
+            return read.get();
+        }
+        String previous = replicaAccount.get();
+        replicaAccount.set(accountId);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                replicaAccount.remove();
+            } else {
+                replicaAccount.set(previous);
+            }
+        }
+    }
+
+    public void onReplica(String accountId, Runnable read) {
+        onReplica(accountId, () -> {
+            read.run();
+            return null;
+        });
+    }
+
+    /**
+     * Records a write of the account, once the current transaction commits if there is one.
+     */
+    public void recordWrite(String accountId) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markWritten(accountId);
+                }
+            });
+        } else {
+            markWritten(accountId);
+        }
+    }
+
+    /**
+     * Whether the connection being opened on this thread may come from the replica.
+     */
+    public boolean shouldUseReplica() {
+        String accountId = replicaAccount.get();
+        if (accountId == null || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        Long lastWrite = lastWrites.get(accountId);
+        if (lastWrite == null) {
+            return true;
+        }
+        if (System.nanoTime() - lastWrite < maxLagNanos) {
+            return false;
+        }
+        lastWrites.remove(accountId, lastWrite);
+        return true;
+    }
+
+    private void markWritten(String accountId) {
+        long now = System.nanoTime();
+        lastWrites.put(accountId, now);
+        if (lastWrites.size() > PURGE_THRESHOLD) {
+            lastWrites.values().removeIf(lastWrite -> now - lastWrite >= maxLagNanos);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package sg.kata.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+import static jakarta.persistence.GenerationType.UUID;
+import static lombok.AccessLevel.PROTECTED;
+
+@Entity
+@Table(name = "BALANCE_SNAPSHOT",
+    uniqueConstraints = @UniqueConstraint(name = "UK_BALANCE_SNAPSHOT_ACCOUNT_SEQUENCE", columnNames = {"ACCOUNT_ID", "SEQUENCE"}))
+@AllArgsConstructor
+@NoArgsConstructor(access = PROTECTED)
+@Getter
+@Builder
+public class BalanceSnapshotEntity implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = UUID)
+    @Column(name = "SNAPSHOT_ID")
+    private String id;
+
+    @Column(name = "ACCOUNT_ID")
+    private String accountId;
+
+    /**
+     * Sequence of the last event included in {@link #balance}.
+     */
+    @Column(name = "SEQUENCE")
+    private long sequence;
+
+    @Column(name = "BALANCE")
+    private BigDecimal balance;
+}
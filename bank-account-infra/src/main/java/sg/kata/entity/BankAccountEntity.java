@@ -3,6 +3,7 @@ package sg.kata.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.io.Serializable;
@@ -10,10 +11,12 @@ import java.math.BigDecimal;
 import java.util.List;
 
 import static jakarta.persistence.GenerationType.UUID;
+import static lombok.AccessLevel.PROTECTED;
 
 @Entity
 @Table(name = "BANK_ACCOUNT")
 @AllArgsConstructor
+@NoArgsConstructor(access = PROTECTED)
 @Getter
 public class BankAccountEntity implements Serializable {
 
@@ -27,6 +30,12 @@ public class BankAccountEntity implements Serializable {
     private BigDecimal balance;
 
     @OneToMany
+    @OrderBy("date ASC")
+    @JoinColumn(name = "ACCOUNT_ID", insertable = false, updatable = false)
     @Setter
     private List<StatementEntity> statements;
+
+    @Version
+    @Column(name = "VERSION")
+    private Long version;
 }
@@ -0,0 +1,46 @@
+package sg.kata.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import sg.kata.model.OperationType;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static jakarta.persistence.GenerationType.UUID;
+import static lombok.AccessLevel.PROTECTED;
+
+@Entity
+@Table(name = "LEDGER_EVENT",
+    uniqueConstraints = @UniqueConstraint(name = "UK_LEDGER_EVENT_ACCOUNT_SEQUENCE", columnNames = {"ACCOUNT_ID", "SEQUENCE"}),
+    indexes = @Index(name = "IDX_LEDGER_EVENT_ACCOUNT_DATE", columnList = "ACCOUNT_ID, DATE"))
+@AllArgsConstructor
+@NoArgsConstructor(access = PROTECTED)
+@Getter
+@Builder
+public class LedgerEventEntity implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = UUID)
+    @Column(name = "EVENT_ID")
+    private String id;
+
+    @Column(name = "ACCOUNT_ID")
+    private String accountId;
+
+    @Column(name = "SEQUENCE")
+    private long sequence;
+
+    @Column(name = "DATE")
+    private LocalDateTime date;
+
+    @Column(name = "OPERATION_TYPE")
+    private OperationType operationType;
+
+    @Column(name = "AMOUNT")
+    private BigDecimal amount;
+}
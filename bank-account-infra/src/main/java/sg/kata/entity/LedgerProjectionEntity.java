@@ -0,0 +1,30 @@
+package sg.kata.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+import static lombok.AccessLevel.PROTECTED;
+
+@Entity
+@Table(name = "LEDGER_PROJECTION")
+@AllArgsConstructor
+@NoArgsConstructor(access = PROTECTED)
+@Getter
+@Builder
+public class LedgerProjectionEntity implements Serializable {
+
+    @Id
+    @Column(name = "NAME")
+    private String name;
+
+    /**
+     * Number of the first operation log entry not projected yet.
+     */
+    @Column(name = "POSITION")
+    private long position;
+}
@@ -0,0 +1,54 @@
+package sg.kata.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static jakarta.persistence.GenerationType.UUID;
+import static lombok.AccessLevel.PROTECTED;
+
+@Entity
+@Table(name = "MONTHLY_SUMMARY",
+    uniqueConstraints = @UniqueConstraint(name = "UK_MONTHLY_SUMMARY_ACCOUNT_MONTH",
+        columnNames = {"ACCOUNT_ID", "MONTH_START"}))
+@AllArgsConstructor
+@NoArgsConstructor(access = PROTECTED)
+@Getter
+@Builder
+public class MonthlySummaryEntity implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = UUID)
+    @Column(name = "MONTHLY_SUMMARY_ID")
+    private String id;
+
+    @Column(name = "ACCOUNT_ID")
+    private String accountId;
+
+    /**
+     * First day of the summarized month.
+     */
+    @Column(name = "MONTH_START")
+    private LocalDate monthStart;
+
+    @Column(name = "OPENING_BALANCE")
+    private BigDecimal openingBalance;
+
+    @Column(name = "TOTAL_DEPOSITS")
+    private BigDecimal totalDeposits;
+
+    @Column(name = "TOTAL_WITHDRAWALS")
+    private BigDecimal totalWithdrawals;
+
+    @Column(name = "CLOSING_BALANCE")
+    private BigDecimal closingBalance;
+
+    @Column(name = "OPERATION_COUNT")
+    private long operationCount;
+}
@@ -0,0 +1,40 @@
+package sg.kata.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static jakarta.persistence.GenerationType.UUID;
+import static lombok.AccessLevel.PROTECTED;
+
+@Entity
+@Table(name = "PENDING_DEPOSIT", indexes = @Index(name = "IDX_PENDING_DEPOSIT_ACCOUNT_DATE", columnList = "ACCOUNT_ID, DATE"))
+@AllArgsConstructor
+@NoArgsConstructor(access = PROTECTED)
+@Getter
+@Builder
+public class PendingDepositEntity implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = UUID)
+    @Column(name = "DEPOSIT_ID")
+    private String id;
+
+    @Column(name = "ACCOUNT_ID")
+    private String accountId;
+
+    @Column(name = "SLOT")
+    private int slot;
+
+    @Column(name = "DATE")
+    private LocalDateTime date;
+
+    @Column(name = "AMOUNT")
+    private BigDecimal amount;
+}
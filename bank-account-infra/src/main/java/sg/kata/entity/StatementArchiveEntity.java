@@ -0,0 +1,57 @@
+package sg.kata.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static jakarta.persistence.GenerationType.UUID;
+import static lombok.AccessLevel.PROTECTED;
+
+/**
+ * Append-only segment of archived statements, never updated once written.
+ */
+@Entity
+@Table(name = "STATEMENT_ARCHIVE",
+    indexes = @Index(name = "IDX_STATEMENT_ARCHIVE_ACCOUNT_LAST_DATE", columnList = "ACCOUNT_ID, LAST_DATE"))
+@AllArgsConstructor
+@NoArgsConstructor(access = PROTECTED)
+@Getter
+@Builder
+public class StatementArchiveEntity implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = UUID)
+    @Column(name = "SEGMENT_ID")
+    private String id;
+
+    @Column(name = "ACCOUNT_ID")
+    private String accountId;
+
+    @Column(name = "FIRST_DATE")
+    private LocalDateTime firstDate;
+
+    @Column(name = "LAST_DATE")
+    private LocalDateTime lastDate;
+
+    @Column(name = "STATEMENT_COUNT")
+    private int statementCount;
+
+    /**
+     * Balance after the segment's last statement: the balance the account's remaining history starts from.
+     */
+    @Column(name = "CLOSING_BALANCE")
+    private BigDecimal closingBalance;
+
+    /**
+     * The segment's statements, oldest first, gzip-compressed.
+     */
+    @Lob
+    @Column(name = "PAYLOAD")
+    private byte[] payload;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import sg.kata.model.OperationType;
 
 import java.io.Serializable;
@@ -11,10 +12,12 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 import static jakarta.persistence.GenerationType.UUID;
+import static lombok.AccessLevel.PROTECTED;
 
 @Entity
-@Table(name = "STATEMENT")
+@Table(name = "STATEMENT", indexes = @Index(name = "IDX_STATEMENT_ACCOUNT_DATE", columnList = "ACCOUNT_ID, DATE"))
 @AllArgsConstructor
+@NoArgsConstructor(access = PROTECTED)
 @Getter
 @Builder
 public class StatementEntity implements Serializable {
@@ -24,6 +27,9 @@ public class StatementEntity implements Serializable {
     @Column(name = "STATEMENT_ID")
     private String id;
 
+    @Column(name = "ACCOUNT_ID")
+    private String accountId;
+
     @Column(name = "DATE")
     private LocalDateTime date;
 
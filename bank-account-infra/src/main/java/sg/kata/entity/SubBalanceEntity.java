@@ -0,0 +1,40 @@
+package sg.kata.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+import static jakarta.persistence.GenerationType.UUID;
+import static lombok.AccessLevel.PROTECTED;
+
+@Entity
+@Table(name = "SUB_BALANCE",
+    uniqueConstraints = @UniqueConstraint(name = "UK_SUB_BALANCE_ACCOUNT_SLOT", columnNames = {"ACCOUNT_ID", "SLOT"}))
+@AllArgsConstructor
+@NoArgsConstructor(access = PROTECTED)
+@Getter
+@Builder
+public class SubBalanceEntity implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = UUID)
+    @Column(name = "SUB_BALANCE_ID")
+    private String id;
+
+    @Column(name = "ACCOUNT_ID")
+    private String accountId;
+
+    @Column(name = "SLOT")
+    private int slot;
+
+    /**
+     * Sum of the slot's pending deposits.
+     */
+    @Column(name = "BALANCE")
+    private BigDecimal balance;
+}
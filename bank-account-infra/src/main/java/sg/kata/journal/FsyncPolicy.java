@@ -0,0 +1,12 @@
+package sg.kata.journal;
+
+/**
+ * When appended records are forced to disk. {@link #ALWAYS} forces once per append call before it returns,
+ * {@link #INTERVAL} forces from a background thread every configured interval, and {@link #NEVER} leaves
+ * write-back to the operating system.
+ */
+public enum FsyncPolicy {
+    ALWAYS,
+    INTERVAL,
+    NEVER
+}
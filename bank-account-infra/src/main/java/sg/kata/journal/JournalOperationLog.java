@@ -0,0 +1,68 @@
+package sg.kata.journal;
+
+import sg.kata.model.LedgerEntry;
+import sg.kata.repository.OperationLog;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static sg.kata.journal.JournalRecord.Type.OPEN;
+
+/**
+ * {@link OperationLog} over a {@link MappedJournal}: each ledger entry is one journal record, an opening entry
+ * being an {@code OPEN} record, and a batch is appended as one write so it is made durable by a single fsync.
+ */
+public class JournalOperationLog implements OperationLog, Closeable {
+
+    private final MappedJournal journal;
+
+    public JournalOperationLog(MappedJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void append(List<LedgerEntry> entries) {
+        List<JournalRecord> records = new ArrayList<>(entries.size());
+        for (LedgerEntry entry : entries) {
+            records.add(toRecord(entry));
+        }
+        journal.append(records);
+    }
+
+    @Override
+    public void replay(Consumer<LedgerEntry> consumer) {
+        journal.replay((record, position) -> consumer.accept(toEntry(record)));
+    }
+
+    @Override
+    public long size() {
+        return journal.size();
+    }
+
+    @Override
+    public void read(long from, long to, Consumer<LedgerEntry> consumer) {
+        for (long position = from; position < to; position++) {
+            consumer.accept(toEntry(journal.read(position)));
+        }
+    }
+
+    @Override
+    public void close() {
+        journal.close();
+    }
+
+    private static JournalRecord toRecord(LedgerEntry entry) {
+        JournalRecord.Type type = entry.isOpening() ? OPEN : JournalRecord.Type.of(entry.operationType());
+        return new JournalRecord(type, entry.accountId(), entry.date(), entry.amount(), entry.balance());
+    }
+
+    private static LedgerEntry toEntry(JournalRecord record) {
+        if (record.type() == OPEN) {
+            return LedgerEntry.opening(record.accountId(), record.date(), record.balance());
+        }
+        return new LedgerEntry(record.accountId(), record.type().toOperationType(), record.date(), record.amount(),
+            record.balance());
+    }
+}
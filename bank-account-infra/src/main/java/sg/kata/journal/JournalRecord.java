@@ -0,0 +1,110 @@
+package sg.kata.journal;
+
+import sg.kata.model.OperationType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.CRC32C;
+
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Fixed-width journal record. An {@code OPEN} record carries the initial balance of an account, the other
+ * types mirror a {@link sg.kata.model.Statement} with amounts in minor units. Layout, {@value #SIZE} bytes:
+ * <pre>
+ *  0  type          byte   (0 marks the end of the written part of a segment)
+ *  1  id length     byte
+ *  2  account id    40 bytes, UTF-8, zero padded
+ * 48  epoch second  long   (date at UTC)
+ * 56  nano          int
+ * 60  checksum      int    (CRC32C of the record with this field zeroed)
+ * 64  amount        long
+ * 72  balance       long
+ * </pre>
+ */
+public record JournalRecord(Type type, String accountId, LocalDateTime date, long amount, long balance) {
+
+    public static final int SIZE = 80;
+    public static final int MAX_ACCOUNT_ID_LENGTH = 40;
+
+    private static final int ID_LENGTH_OFFSET = 1;
+    private static final int ID_OFFSET = 2;
+    private static final int SECOND_OFFSET = 48;
+    private static final int NANO_OFFSET = 56;
+    private static final int CHECKSUM_OFFSET = 60;
+    private static final int AMOUNT_OFFSET = 64;
+    private static final int BALANCE_OFFSET = 72;
+
+    public enum Type {
+        OPEN,
+        DEPOSIT,
+        WITHDRAW;
+
+        public static Type of(OperationType operationType) {
+            return operationType == OperationType.DEPOSIT ? DEPOSIT : WITHDRAW;
+        }
+
+        public OperationType toOperationType() {
+            return this == DEPOSIT ? OperationType.DEPOSIT : OperationType.WITHDRAW;
+        }
+    }
+
+    public JournalRecord {
+        if (accountId.getBytes(StandardCharsets.UTF_8).length > MAX_ACCOUNT_ID_LENGTH) {
+            throw new IllegalArgumentException("accountId longer than " + MAX_ACCOUNT_ID_LENGTH + " bytes");
+        }
+    }
+
+    /**
+     * Writes the record at {@code offset}. The type byte goes last so a reader never sees a record whose
+     * body is still being written.
+     */
+    void writeTo(ByteBuffer buffer, int offset) {
+        byte[] record = new byte[SIZE];
+        ByteBuffer slice = ByteBuffer.wrap(record);
+        byte[] id = accountId.getBytes(StandardCharsets.UTF_8);
+        slice.put(0, (byte) (type.ordinal() + 1));
+        slice.put(ID_LENGTH_OFFSET, (byte) id.length);
+        slice.put(ID_OFFSET, id);
+        slice.putLong(SECOND_OFFSET, date.toEpochSecond(UTC));
+        slice.putInt(NANO_OFFSET, date.getNano());
+        slice.putLong(AMOUNT_OFFSET, amount);
+        slice.putLong(BALANCE_OFFSET, balance);
+        slice.putInt(CHECKSUM_OFFSET, checksum(record));
+
+        buffer.put(offset + 1, record, 1, SIZE - 1);
+        buffer.put(offset, record[0]);
+    }
+
+    /**
+     * Reads the record at {@code offset}, or returns {@code null} when the slot is empty or torn.
+     */
+    static JournalRecord readFrom(ByteBuffer buffer, int offset) {
+        byte[] record = new byte[SIZE];
+        buffer.get(offset, record);
+        int type = record[0];
+        if (type <= 0 || type > Type.values().length) {
+            return null;
+        }
+        ByteBuffer slice = ByteBuffer.wrap(record);
+        int storedChecksum = slice.getInt(CHECKSUM_OFFSET);
+        slice.putInt(CHECKSUM_OFFSET, 0);
+        if (storedChecksum != checksum(record)) {
+            return null;
+        }
+        int idLength = record[ID_LENGTH_OFFSET];
+        return new JournalRecord(
+            Type.values()[type - 1],
+            new String(record, ID_OFFSET, idLength, StandardCharsets.UTF_8),
+            LocalDateTime.ofEpochSecond(slice.getLong(SECOND_OFFSET), slice.getInt(NANO_OFFSET), UTC),
+            slice.getLong(AMOUNT_OFFSET),
+            slice.getLong(BALANCE_OFFSET));
+    }
+
+    private static int checksum(byte[] record) {
+        CRC32C crc = new CRC32C();
+        crc.update(record, 0, SIZE);
+        return (int) crc.getValue();
+    }
+}
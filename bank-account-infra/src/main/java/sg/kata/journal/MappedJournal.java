@@ -0,0 +1,281 @@
+package sg.kata.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only journal of {@link JournalRecord}s spread over memory-mapped segment files of a fixed size.
+ * A record is addressed by its position, the index of its slot across all segments. Appends are serialized by
+ * a single lock; reads use absolute accessors on the mapped buffers and do not take it. On open, every segment
+ * is scanned and writing resumes after the last valid record, dropping a torn tail left by a crash.
+ * <p>
+ * Forcing never holds the append lock: an append writes its records and notes how far the journal is written
+ * under the lock, then forces only the range written since the last force, holding a separate sync lock. Appends
+ * that arrive while a force is running wait for it and return at once if it covered their records, so concurrent
+ * appenders share one fsync instead of queueing one each.
+ */
+public class MappedJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final FsyncPolicy fsyncPolicy;
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final ScheduledExecutorService flusher;
+    private volatile long writtenPosition;
+    private volatile long forcedPosition;
+    private volatile long nextPosition;
+
+    public MappedJournal(Path directory, int segmentSize, FsyncPolicy fsyncPolicy, Duration fsyncInterval) {
+        if (segmentSize < JournalRecord.SIZE) {
+            throw new IllegalArgumentException("segmentSize must hold at least one record");
+        }
+        this.directory = directory;
+        this.recordsPerSegment = segmentSize / JournalRecord.SIZE;
+        this.fsyncPolicy = fsyncPolicy;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                List<Path> segmentFiles = files
+                    .filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .toList();
+                for (int segment = 0; segment < segmentFiles.size(); segment++) {
+                    if (!segmentFiles.get(segment).equals(segmentFile(segment))) {
+                        throw new IllegalStateException("Missing journal segment " + segmentFile(segment));
+                    }
+                    segments.add(map(segmentFiles.get(segment)));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.writtenPosition = scanEnd();
+        this.forcedPosition = writtenPosition;
+        this.nextPosition = writtenPosition;
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "journal-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalNanos = fsyncInterval.toNanos();
+            flusher.scheduleWithFixedDelay(this::force, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Replays every record in position order.
+     */
+    public void replay(ObjLongConsumer<JournalRecord> consumer) {
+        long end = nextPosition;
+        for (long position = 0; position < end; position++) {
+            consumer.accept(read(position), position);
+        }
+    }
+
+    /**
+     * Appends the records contiguously and returns the position of the first one. With {@link FsyncPolicy#ALWAYS}
+     * the records are forced before returning, once the append lock is released; from
+     * {@link #withAppendLock(Supplier)}, when the action returns.
+     */
+    public long append(List<JournalRecord> records) {
+        long first;
+        long end;
+        appendLock.lock();
+        try {
+            first = writtenPosition;
+            end = first;
+            for (JournalRecord record : records) {
+                record.writeTo(segmentFor(end), slotOffset(end));
+                end++;
+            }
+            writtenPosition = end;
+            if (fsyncPolicy != FsyncPolicy.ALWAYS) {
+                nextPosition = end;
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        if (fsyncPolicy == FsyncPolicy.ALWAYS && !appendLock.isHeldByCurrentThread()) {
+            sync(end);
+        }
+        return first;
+    }
+
+    /**
+     * Runs the action holding the append lock, which is reentrant: appends made from the action are never
+     * interleaved with appends from other threads, so a caller can check its own state, append and publish the
+     * result as one step. With {@link FsyncPolicy#ALWAYS}, what the action appended is forced after the lock is
+     * released and before this method returns.
+     */
+    public <T> T withAppendLock(Supplier<T> action) {
+        T result;
+        long end;
+        appendLock.lock();
+        try {
+            long start = writtenPosition;
+            result = action.get();
+            end = writtenPosition > start ? writtenPosition : -1;
+        } finally {
+            appendLock.unlock();
+        }
+        if (fsyncPolicy == FsyncPolicy.ALWAYS && end >= 0 && !appendLock.isHeldByCurrentThread()) {
+            sync(end);
+        }
+        return result;
+    }
+
+    /**
+     * Reads a written record, including one whose append is still being forced.
+     */
+    public JournalRecord read(long position) {
+        if (position < 0 || position >= writtenPosition) {
+            throw new IndexOutOfBoundsException("No journal record at " + position);
+        }
+        return JournalRecord.readFrom(segments.get((int) segmentOf(position)), slotOffset(position));
+    }
+
+    /**
+     * Number of records whose append has returned; with {@link FsyncPolicy#ALWAYS}, records still being forced are
+     * not counted.
+     */
+    public long size() {
+        return nextPosition;
+    }
+
+    /**
+     * Forces every record written so far.
+     */
+    public void force() {
+        sync(writtenPosition);
+    }
+
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            force();
+        }
+    }
+
+    /**
+     * Forces the records below {@code end} unless a force already covered them, along with every record written
+     * meanwhile, and only in the segments written since the last force. Callers waiting on the sync lock during a
+     * force find their records covered by it when they get the lock.
+     */
+    private void sync(long end) {
+        if (forcedPosition >= end) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (forcedPosition >= end) {
+                return;
+            }
+            long from = forcedPosition;
+            long to = writtenPosition;
+            for (long segment = segmentOf(from); segment <= segmentOf(to - 1); segment++) {
+                long segmentStart = segment * recordsPerSegment;
+                int offset = slotOffset(Math.max(from, segmentStart));
+                int length = (int) (Math.min(to, segmentStart + recordsPerSegment) - segmentStart)
+                    * JournalRecord.SIZE - offset;
+                segments.get((int) segment).force(offset, length);
+            }
+            forcedPosition = to;
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                nextPosition = to;
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private long scanEnd() {
+        for (int segment = 0; segment < segments.size(); segment++) {
+            MappedByteBuffer buffer = segments.get(segment);
+            for (int slot = 0; slot < recordsPerSegment; slot++) {
+                if (JournalRecord.readFrom(buffer, slot * JournalRecord.SIZE) == null) {
+                    clearFrom(segment, slot);
+                    return (long) segment * recordsPerSegment + slot;
+                }
+            }
+        }
+        return (long) segments.size() * recordsPerSegment;
+    }
+
+    private void clearFrom(int segment, int slot) {
+        MappedByteBuffer buffer = segments.get(segment);
+        for (int offset = slot * JournalRecord.SIZE; offset < recordsPerSegment * JournalRecord.SIZE; offset++) {
+            buffer.put(offset, (byte) 0);
+        }
+        buffer.force();
+        while (segments.size() > segment + 1) {
+            int last = segments.size() - 1;
+            segments.remove(last);
+            try {
+                Files.delete(segmentFile(last));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private MappedByteBuffer segmentFor(long position) {
+        long segment = segmentOf(position);
+        while (segments.size() <= segment) {
+            try {
+                segments.add(map(segmentFile(segments.size())));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return segments.get((int) segment);
+    }
+
+    private Path segmentFile(int segment) {
+        return directory.resolve(SEGMENT_PREFIX + "%020d".formatted(segment) + SEGMENT_SUFFIX);
+    }
+
+    private MappedByteBuffer map(Path segmentFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentFile, CREATE, READ, WRITE)) {
+            return channel.map(READ_WRITE, 0, (long) recordsPerSegment * JournalRecord.SIZE);
+        }
+    }
+
+    private long segmentOf(long position) {
+        return position / recordsPerSegment;
+    }
+
+    private int slotOffset(long position) {
+        return (int) (position % recordsPerSegment) * JournalRecord.SIZE;
+    }
+}
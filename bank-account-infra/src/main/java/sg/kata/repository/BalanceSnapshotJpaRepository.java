@@ -0,0 +1,20 @@
+package sg.kata.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import sg.kata.entity.BalanceSnapshotEntity;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface BalanceSnapshotJpaRepository extends JpaRepository<BalanceSnapshotEntity, String> {
+
+    Optional<BalanceSnapshotEntity> findFirstByAccountIdOrderBySequenceDesc(String accountId);
+
+    Optional<BalanceSnapshotEntity> findFirstByAccountIdAndSequenceLessThanEqualOrderBySequenceDesc(
+        String accountId, long sequence);
+
+    @Query("select s.accountId from BalanceSnapshotEntity s where s.sequence = 0 order by s.accountId")
+    List<String> findAccountIds(Pageable pageable);
+}
@@ -1,7 +1,39 @@
 package sg.kata.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import sg.kata.entity.BankAccountEntity;
 
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
 public interface BankAccountEntityJpaRepository extends JpaRepository<BankAccountEntity, String> {
+
+    /**
+     * Balance of the account plus its sub-balance slots, read in one statement so a concurrent settlement
+     * is seen either entirely or not at all.
+     */
+    @Query("select a.balance + coalesce((select sum(s.balance) from SubBalanceEntity s"
+        + " where s.accountId = a.accountId), 0) from BankAccountEntity a where a.accountId = :accountId")
+    Optional<BigDecimal> findBalanceByAccountId(@Param("accountId") String accountId);
+
+    @Query("select a.accountId from BankAccountEntity a order by a.accountId")
+    List<String> findAccountIds(Pageable pageable);
+
+    /**
+     * Balance and version of the account, a row written before versions existed having version 0.
+     */
+    @Query("select a.balance as balance, coalesce(a.version, 0L) as version from BankAccountEntity a"
+        + " where a.accountId = :accountId")
+    Optional<BankAccountStateView> findStateByAccountId(@Param("accountId") String accountId);
+
+    @Modifying
+    @Query("update BankAccountEntity a set a.balance = a.balance + :delta, a.version = coalesce(a.version, 0L) + 1"
+        + " where a.accountId = :accountId and coalesce(a.version, 0L) = :version")
+    int addToBalance(@Param("accountId") String accountId, @Param("delta") BigDecimal delta,
+                     @Param("version") Long version);
 }
@@ -1,76 +1,339 @@
 package sg.kata.repository;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import sg.kata.datasource.ReplicaReads;
 import sg.kata.entity.BankAccountEntity;
+import sg.kata.entity.PendingDepositEntity;
 import sg.kata.entity.StatementEntity;
+import sg.kata.entity.SubBalanceEntity;
 import sg.kata.exception.AccountNotFoundException;
+import sg.kata.exception.ConcurrentUpdateException;
+import sg.kata.model.AccountUpdate;
 import sg.kata.model.BankAccount;
+import sg.kata.model.MonthlySummary;
 import sg.kata.model.Statement;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static java.math.BigDecimal.ZERO;
+import static org.springframework.data.domain.Sort.Direction.DESC;
+import static sg.kata.model.OperationType.DEPOSIT;
 import static sg.kata.service.BankAccountService.*;
 
 @Repository
+@Profile("!event-sourced & !journal")
+@Qualifier("bankAccountStore")
 @RequiredArgsConstructor
 public class BankAccountEntityRepository implements BankAccountRepository {
 
+    public static final String REPOSITORY_TIMER = "bank.repository";
+    public static final String STATEMENTS_LOADED_SUMMARY = "bank.repository.statements";
+
+    private static final LocalDateTime OLDEST_STATEMENT_DATE = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime NEWEST_STATEMENT_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     private final BankAccountEntityJpaRepository jpaRepository;
+    private final StatementEntityJpaRepository statementJpaRepository;
+    private final SubBalanceJpaRepository subBalanceJpaRepository;
+    private final PendingDepositJpaRepository pendingDepositJpaRepository;
+    private final MonthlySummaryRollup monthlySummaryRollup;
+    private final StatementArchive statementArchive;
+    private final MeterRegistry meterRegistry;
+    private final ReplicaReads replicaReads;
 
+    /**
+     * Loads the whole history: the archived segments, oldest first, followed by the statements left in
+     * {@code STATEMENT}.
+     */
     @Override
+    @Transactional(readOnly = true)
     public BankAccount findById(String accountId) {
-        Optional<BankAccountEntity> entity = jpaRepository.findById(accountId);
-        if (entity.isPresent()) {
-            return entity.map(bankAccountEntity -> BankAccount.builder()
+        return timed("findById", () -> replicaReads.onReplica(accountId, () -> {
+            BankAccountEntity bankAccountEntity = jpaRepository.findById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE));
+            List<Statement> statements = history(bankAccountEntity);
+            BankAccount bankAccount = BankAccount.builder()
                 .accountId(bankAccountEntity.getAccountId())
                 .balance(bankAccountEntity.getBalance())
-                .statements(bankAccountEntity.getStatements()
-                    .stream()
-                    .map(statementEntity -> Statement.builder()
-                        .date(statementEntity.getDate())
-                        .operationType(statementEntity.getOperationType())
-                        .amount(statementEntity.getAmount())
-                        .balance(statementEntity.getBalance())
-                        .build()
-                    )
-                    .collect(Collectors.toList())
-                )
-                .build()
-            ).get();
-        } else {
-            throw new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE);
-        }
+                .statements(statements)
+                .version(bankAccountEntity.getVersion() == null ? 0L : bankAccountEntity.getVersion())
+                .build();
+            recordStatementsLoaded("findById", statements.size());
+            return bankAccount;
+        }));
+    }
+
+    /**
+     * Rebuilds the account's {@code MONTHLY_SUMMARY} rows from its whole history. The account's version is bumped
+     * first, which takes its row lock until commit, so no write can add statements behind the rebuild; a write that
+     * got in first makes it fail with a {@link ConcurrentUpdateException}.
+     */
+    @Transactional
+    public void rebuildMonthlySummaries(String accountId) {
+        timed("rebuildMonthlySummaries", () -> {
+            applyBalanceDelta(findForUpdate(accountId), ZERO);
+            BankAccountEntity bankAccountEntity = jpaRepository.findById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE));
+            monthlySummaryRollup.rebuild(accountId, history(bankAccountEntity));
+        });
+    }
+
+    @Override
+    public BankAccount findForUpdate(String accountId) {
+        return timed("findForUpdate", () -> jpaRepository.findStateByAccountId(accountId)
+            .map(state -> new BankAccount(accountId, state.getBalance(), new ArrayList<>(), state.getVersion()))
+            .orElseThrow(() -> new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE)));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public BigDecimal findBalanceById(String accountId) {
+        return timed("findBalanceById", () -> replicaReads.onReplica(accountId,
+            () -> jpaRepository.findBalanceByAccountId(accountId)
+                .orElseThrow(() -> new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE))));
+    }
+
+    @Override
+    @Transactional
     public void update(BankAccount bankAccount) {
-        Optional<BankAccountEntity> bankAccountEntity = jpaRepository.findById(bankAccount.getAccountId());
-        if (bankAccountEntity.isPresent()) {
-            BankAccountEntity entity = bankAccountEntity.get();
-            List<StatementEntity> statementEntities = entity.getStatements();
-            List<Statement> statements = bankAccount.getStatements();
-
-            if (statements.isEmpty() || statements.size() - statementEntities.size() != 1) {
-                throw new IllegalArgumentException(UPDATE_WITHOUT_STATEMENT);
-            } else {
-                Statement newStatement = statements.get(statements.size() - 1);
-                StatementEntity newStatementEntity = StatementEntity.builder()
-                    .date(newStatement.getDate())
-                    .operationType(newStatement.getOperationType())
-                    .amount(newStatement.getAmount())
-                    .balance(newStatement.getBalance())
-                    .build();
-                statementEntities.add(newStatementEntity);
-
-                entity.setStatements(statementEntities);
-                entity.setBalance(bankAccount.getBalance());
-                jpaRepository.save(entity);
+        update(bankAccount, 1);
+    }
+
+    @Override
+    @Transactional
+    public void update(BankAccount bankAccount, int newStatementCount) {
+        timed("update", () -> save(bankAccount, newStatementCount));
+    }
+
+    /**
+     * Adds the amount to the slot's {@code SUB_BALANCE} row, created on the first deposit, and keeps the deposit
+     * in {@code PENDING_DEPOSIT}. Two first deposits racing to create the same slot hit its unique constraint and
+     * the loser gets a {@link ConcurrentUpdateException}.
+     */
+    @Override
+    @Transactional
+    public void depositToSlot(String accountId, int slot, LocalDateTime date, BigDecimal amount) {
+        timed("depositToSlot", () -> {
+            if (!jpaRepository.existsById(accountId)) {
+                throw new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE);
+            }
+            if (subBalanceJpaRepository.addToBalance(accountId, slot, amount) == 0) {
+                try {
+                    subBalanceJpaRepository.saveAndFlush(SubBalanceEntity.builder()
+                        .accountId(accountId)
+                        .slot(slot)
+                        .balance(amount)
+                        .build());
+                } catch (DataIntegrityViolationException e) {
+                    throw new ConcurrentUpdateException(CONCURRENT_UPDATE_MESSAGE);
+                }
+            }
+            pendingDepositJpaRepository.save(PendingDepositEntity.builder()
+                .accountId(accountId)
+                .slot(slot)
+                .date(date)
+                .amount(amount)
+                .build());
+            replicaReads.recordWrite(accountId);
+        });
+    }
+
+    /**
+     * Writes the pending deposits as statements with the account's version check, then takes exactly the settled
+     * amounts off their slots, so deposits committed meanwhile stay pending.
+     */
+    @Override
+    @Transactional
+    public void settleSlots(String accountId) {
+        timed("settleSlots", () -> {
+            List<PendingDepositEntity> pendingDeposits =
+                pendingDepositJpaRepository.findByAccountIdOrderByDateAsc(accountId);
+            if (pendingDeposits.isEmpty()) {
+                return;
+            }
+            BankAccount bankAccount = findForUpdate(accountId);
+            BigDecimal balance = bankAccount.getBalance();
+            Map<Integer, BigDecimal> settledBySlot = new HashMap<>();
+            for (PendingDepositEntity pendingDeposit : pendingDeposits) {
+                balance = balance.add(pendingDeposit.getAmount());
+                bankAccount.getStatements().add(
+                    new Statement(pendingDeposit.getDate(), DEPOSIT, pendingDeposit.getAmount(), balance));
+                settledBySlot.merge(pendingDeposit.getSlot(), pendingDeposit.getAmount(), BigDecimal::add);
+            }
+            bankAccount.setBalance(balance);
+            save(bankAccount, pendingDeposits.size());
+            settledBySlot.forEach((slot, amount) ->
+                subBalanceJpaRepository.addToBalance(accountId, slot, amount.negate()));
+            pendingDepositJpaRepository.deleteAllInBatch(pendingDeposits);
+        });
+    }
+
+    /**
+     * Reads the page from {@code STATEMENT} and, when it runs short, completes it from the archived segments,
+     * which only hold statements older than the ones left in the table.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Statement> findStatements(String accountId, LocalDateTime from, LocalDateTime to, int page, int size) {
+        return timed("findStatements", () -> replicaReads.onReplica(accountId, () -> {
+            if (!jpaRepository.existsById(accountId)) {
+                throw new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE);
+            }
+            LocalDateTime start = from == null ? OLDEST_STATEMENT_DATE : from;
+            LocalDateTime end = to == null ? NEWEST_STATEMENT_DATE : to;
+            List<Statement> statements = statementJpaRepository.findByAccountIdAndDateGreaterThanEqualAndDateLessThan(
+                    accountId, start, end, PageRequest.of(page, size, Sort.by(DESC, "date")))
+                .stream()
+                .map(this::toStatement)
+                .collect(Collectors.toCollection(ArrayList::new));
+            if (statements.size() < size) {
+                long hotStatements = statements.isEmpty()
+                    ? statementJpaRepository.countByAccountIdAndDateGreaterThanEqualAndDateLessThan(accountId, start, end)
+                    : (long) page * size + statements.size();
+                statements.addAll(statementArchive.find(accountId, start, end,
+                    Math.max(0, (long) page * size - hotStatements), size - statements.size()));
+            }
+            recordStatementsLoaded("findStatements", statements.size());
+            return statements;
+        }));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachStatement(String accountId, Consumer<Statement> consumer) {
+        timed("forEachStatement", () -> replicaReads.onReplica(accountId, () -> {
+            long count = 0;
+            try (Stream<Statement> statements = statementJpaRepository.streamByAccountId(accountId)) {
+                Iterator<Statement> iterator = statements.iterator();
+                while (iterator.hasNext()) {
+                    consumer.accept(iterator.next());
+                    count++;
+                }
+            }
+            count += statementArchive.forEach(accountId, OLDEST_STATEMENT_DATE, NEWEST_STATEMENT_DATE, consumer);
+            recordStatementsLoaded("forEachStatement", count);
+        }));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MonthlySummary> findMonthlySummaries(String accountId, YearMonth from, YearMonth to) {
+        return timed("findMonthlySummaries", () -> replicaReads.onReplica(accountId, () -> {
+            if (!jpaRepository.existsById(accountId)) {
+                throw new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE);
             }
-        } else {
-            throw new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE);
+            return monthlySummaryRollup.find(accountId, from, to);
+        }));
+    }
+
+    @Override
+    @Transactional
+    public void updateAll(List<BankAccount> bankAccounts) {
+        updateBatch(bankAccounts.stream().map(bankAccount -> new AccountUpdate(bankAccount, 1)).toList());
+    }
+
+    @Override
+    @Transactional
+    public void updateBatch(List<AccountUpdate> updates) {
+        timed("updateBatch", () -> updates.stream()
+            .sorted(Comparator.comparing((AccountUpdate update) -> update.bankAccount().getAccountId()))
+            .forEach(update -> save(update.bankAccount(), update.newStatementCount())));
+    }
+
+    private void save(BankAccount bankAccount, int newStatementCount) {
+        List<Statement> statements = bankAccount.getStatements();
+        if (newStatementCount <= 0 || statements.size() < newStatementCount) {
+            throw new IllegalArgumentException(UPDATE_WITHOUT_STATEMENT);
+        }
+        List<Statement> newStatements = statements.subList(statements.size() - newStatementCount, statements.size());
+        if (newStatements.get(newStatementCount - 1).getBalance().compareTo(bankAccount.getBalance()) != 0) {
+            throw new IllegalArgumentException(UPDATE_WITHOUT_STATEMENT);
+        }
+
+        BigDecimal delta = ZERO;
+        for (Statement newStatement : newStatements) {
+            delta = newStatement.getOperationType() == DEPOSIT
+                ? delta.add(newStatement.getAmount())
+                : delta.subtract(newStatement.getAmount());
         }
+        applyBalanceDelta(bankAccount, delta);
+        replicaReads.recordWrite(bankAccount.getAccountId());
+        statementJpaRepository.saveAll(newStatements.stream()
+            .map(newStatement -> StatementEntity.builder()
+                .accountId(bankAccount.getAccountId())
+                .date(newStatement.getDate())
+                .operationType(newStatement.getOperationType())
+                .amount(newStatement.getAmount())
+                .balance(newStatement.getBalance())
+                .build())
+            .toList());
+        monthlySummaryRollup.record(bankAccount.getAccountId(), newStatements);
+    }
+
+    private void applyBalanceDelta(BankAccount bankAccount, BigDecimal delta) {
+        String accountId = bankAccount.getAccountId();
+        Long version = bankAccount.getVersion();
+        if (version == null) {
+            throw new IllegalArgumentException(UPDATE_WITHOUT_VERSION);
+        }
+        if (jpaRepository.addToBalance(accountId, delta, version) == 0) {
+            if (!jpaRepository.existsById(accountId)) {
+                throw new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE);
+            }
+            throw new ConcurrentUpdateException(CONCURRENT_UPDATE_MESSAGE);
+        }
+        bankAccount.setVersion(version + 1);
+    }
+
+    private List<Statement> history(BankAccountEntity bankAccountEntity) {
+        List<Statement> statements = new ArrayList<>();
+        statementArchive.forEach(bankAccountEntity.getAccountId(), OLDEST_STATEMENT_DATE, NEWEST_STATEMENT_DATE,
+            statements::add);
+        Collections.reverse(statements);
+        bankAccountEntity.getStatements().forEach(statementEntity -> statements.add(toStatement(statementEntity)));
+        return statements;
+    }
+
+    private <T> T timed(String operation, Supplier<T> action) {
+        return meterRegistry.timer(REPOSITORY_TIMER, "operation", operation).record(action);
+    }
+
+    private void timed(String operation, Runnable action) {
+        meterRegistry.timer(REPOSITORY_TIMER, "operation", operation).record(action);
+    }
+
+    private void recordStatementsLoaded(String operation, long count) {
+        meterRegistry.summary(STATEMENTS_LOADED_SUMMARY, "operation", operation).record(count);
+    }
+
+    private Statement toStatement(StatementEntity statementEntity) {
+        return Statement.builder()
+            .date(statementEntity.getDate())
+            .operationType(statementEntity.getOperationType())
+            .amount(statementEntity.getAmount())
+            .balance(statementEntity.getBalance())
+            .build();
     }
 }
@@ -0,0 +1,61 @@
+package sg.kata.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.annotation.Transactional;
+import sg.kata.entity.LedgerProjectionEntity;
+import sg.kata.model.AccountUpdate;
+import sg.kata.model.BankAccount;
+import sg.kata.model.LedgerEntry;
+import sg.kata.model.Money;
+import sg.kata.model.Statement;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link LedgerProjection} onto the account store: the entries of each account become statements written by one
+ * {@link BankAccountRepository#updateBatch(List)}, which also rolls them into the monthly summaries, and the
+ * position is saved in {@code LEDGER_PROJECTION} in the same transaction. Opening entries are skipped, since the
+ * engine only opens accounts of {@code BANK_ACCOUNT}, with the balance stored there.
+ */
+@RequiredArgsConstructor
+public class BankAccountLedgerProjection implements LedgerProjection {
+
+    static final String ENGINE_PROJECTION = "engine";
+
+    private final BankAccountRepository bankAccountRepository;
+    private final LedgerProjectionJpaRepository jpaRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long position() {
+        return jpaRepository.findById(ENGINE_PROJECTION).map(LedgerProjectionEntity::getPosition).orElse(0L);
+    }
+
+    @Override
+    @Transactional
+    public void apply(List<LedgerEntry> entries) {
+        Map<String, List<LedgerEntry>> byAccount = new LinkedHashMap<>();
+        for (LedgerEntry entry : entries) {
+            if (!entry.isOpening()) {
+                byAccount.computeIfAbsent(entry.accountId(), accountId -> new ArrayList<>()).add(entry);
+            }
+        }
+        List<AccountUpdate> updates = new ArrayList<>(byAccount.size());
+        byAccount.forEach((accountId, accountEntries) -> {
+            BankAccount bankAccount = bankAccountRepository.findForUpdate(accountId);
+            for (LedgerEntry entry : accountEntries) {
+                bankAccount.getStatements().add(new Statement(entry.date(), entry.operationType(),
+                    Money.toBigDecimal(entry.amount()), Money.toBigDecimal(entry.balance())));
+            }
+            bankAccount.setBalance(Money.toBigDecimal(accountEntries.get(accountEntries.size() - 1).balance()));
+            updates.add(new AccountUpdate(bankAccount, accountEntries.size()));
+        });
+        if (!updates.isEmpty()) {
+            bankAccountRepository.updateBatch(updates);
+        }
+        jpaRepository.save(new LedgerProjectionEntity(ENGINE_PROJECTION, position() + entries.size()));
+    }
+}
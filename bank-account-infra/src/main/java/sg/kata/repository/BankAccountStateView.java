@@ -0,0 +1,8 @@
+package sg.kata.repository;
+
+import java.math.BigDecimal;
+
+public interface BankAccountStateView {
+    BigDecimal getBalance();
+    Long getVersion();
+}
@@ -0,0 +1,167 @@
+package sg.kata.repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sg.kata.cache.BoundedCache;
+import sg.kata.cache.CacheStats;
+import sg.kata.model.AccountUpdate;
+import sg.kata.model.BankAccount;
+import sg.kata.model.MonthlySummary;
+import sg.kata.model.Statement;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Read-through cache in front of another {@link BankAccountRepository} for balances and the first page
+ * of recent statements. Writes invalidate the account before and after they are committed.
+ */
+public class CachingBankAccountRepository implements BankAccountRepository, MeterBinder {
+
+    private final BankAccountRepository delegate;
+    private final BoundedCache<String, BigDecimal> balances;
+    private final BoundedCache<String, RecentStatements> recentStatements;
+
+    public CachingBankAccountRepository(BankAccountRepository delegate, int maxSize, Duration ttl) {
+        this.delegate = delegate;
+        this.balances = new BoundedCache<>(maxSize, ttl);
+        this.recentStatements = new BoundedCache<>(maxSize, ttl);
+    }
+
+    @Override
+    public BankAccount findById(String accountId) {
+        return delegate.findById(accountId);
+    }
+
+    @Override
+    public BankAccount findForUpdate(String accountId) {
+        return delegate.findForUpdate(accountId);
+    }
+
+    @Override
+    public BigDecimal findBalanceById(String accountId) {
+        return balances.get(accountId, delegate::findBalanceById);
+    }
+
+    @Override
+    public List<Statement> findStatements(String accountId, LocalDateTime from, LocalDateTime to, int page, int size) {
+        if (page != 0 || from != null || to != null) {
+            return delegate.findStatements(accountId, from, to, page, size);
+        }
+        RecentStatements recent = recentStatements.get(accountId,
+            id -> new RecentStatements(size, delegate.findStatements(id, null, null, 0, size)));
+        if (recent.size() != size) {
+            recentStatements.invalidate(accountId);
+            return delegate.findStatements(accountId, null, null, 0, size);
+        }
+        return recent.statements();
+    }
+
+    @Override
+    public void forEachStatement(String accountId, Consumer<Statement> consumer) {
+        delegate.forEachStatement(accountId, consumer);
+    }
+
+    @Override
+    public List<MonthlySummary> findMonthlySummaries(String accountId, YearMonth from, YearMonth to) {
+        return delegate.findMonthlySummaries(accountId, from, to);
+    }
+
+    @Override
+    public void update(BankAccount bankAccount) {
+        update(bankAccount, 1);
+    }
+
+    @Override
+    public void update(BankAccount bankAccount, int newStatementCount) {
+        String accountId = bankAccount.getAccountId();
+        invalidate(accountId);
+        delegate.update(bankAccount, newStatementCount);
+        invalidateAfterCommit(List.of(accountId));
+    }
+
+    @Override
+    public void updateAll(List<BankAccount> bankAccounts) {
+        List<String> accountIds = bankAccounts.stream().map(BankAccount::getAccountId).toList();
+        accountIds.forEach(this::invalidate);
+        delegate.updateAll(bankAccounts);
+        invalidateAfterCommit(accountIds);
+    }
+
+    @Override
+    public void updateBatch(List<AccountUpdate> updates) {
+        List<String> accountIds = updates.stream().map(update -> update.bankAccount().getAccountId()).toList();
+        accountIds.forEach(this::invalidate);
+        delegate.updateBatch(updates);
+        invalidateAfterCommit(accountIds);
+    }
+
+    @Override
+    public void depositToSlot(String accountId, int slot, LocalDateTime date, BigDecimal amount) {
+        invalidate(accountId);
+        delegate.depositToSlot(accountId, slot, date, amount);
+        invalidateAfterCommit(List.of(accountId));
+    }
+
+    @Override
+    public void settleSlots(String accountId) {
+        invalidate(accountId);
+        delegate.settleSlots(accountId);
+        invalidateAfterCommit(List.of(accountId));
+    }
+
+    public CacheStats balanceStats() {
+        return balances.stats();
+    }
+
+    public CacheStats statementStats() {
+        return recentStatements.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindStats(registry, "balances", CachingBankAccountRepository::balanceStats);
+        bindStats(registry, "statements", CachingBankAccountRepository::statementStats);
+    }
+
+    private void bindStats(MeterRegistry registry, String cache, Function<CachingBankAccountRepository, CacheStats> stats) {
+        FunctionCounter.builder("bank.cache.hits", this, repository -> stats.apply(repository).hits())
+            .tag("cache", cache).register(registry);
+        FunctionCounter.builder("bank.cache.misses", this, repository -> stats.apply(repository).misses())
+            .tag("cache", cache).register(registry);
+        FunctionCounter.builder("bank.cache.evictions", this, repository -> stats.apply(repository).evictions())
+            .tag("cache", cache).register(registry);
+        Gauge.builder("bank.cache.size", this, repository -> stats.apply(repository).size())
+            .tag("cache", cache).register(registry);
+    }
+
+    private void invalidateAfterCommit(List<String> accountIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    accountIds.forEach(CachingBankAccountRepository.this::invalidate);
+                }
+            });
+        } else {
+            accountIds.forEach(this::invalidate);
+        }
+    }
+
+    private void invalidate(String accountId) {
+        balances.invalidate(accountId);
+        recentStatements.invalidate(accountId);
+    }
+
+    private record RecentStatements(int size, List<Statement> statements) {
+    }
+}
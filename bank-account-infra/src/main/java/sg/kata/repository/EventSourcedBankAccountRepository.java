@@ -0,0 +1,332 @@
+package sg.kata.repository;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import sg.kata.datasource.ReplicaReads;
+import sg.kata.entity.BalanceSnapshotEntity;
+import sg.kata.entity.LedgerEventEntity;
+import sg.kata.exception.AccountNotFoundException;
+import sg.kata.exception.ConcurrentUpdateException;
+import sg.kata.model.AccountUpdate;
+import sg.kata.model.BankAccount;
+import sg.kata.model.MonthlySummary;
+import sg.kata.model.ReversedList;
+import sg.kata.model.Statement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.springframework.data.domain.Sort.Direction.DESC;
+import static sg.kata.model.OperationType.DEPOSIT;
+import static sg.kata.service.BankAccountService.*;
+
+/**
+ * Event-sourced adapter: every operation is appended to {@code LEDGER_EVENT} with a per-account sequence,
+ * and a {@code BALANCE_SNAPSHOT} is written each time the sequence crosses a multiple of the snapshot interval.
+ * The balance is rebuilt from the latest snapshot plus the events after it, so a load reads at most
+ * {@code snapshotInterval} events whatever the size of the history. The version of an account is the sequence
+ * of its last event; two writers appending the same sequence hit the unique constraint and the loser gets a
+ * {@link ConcurrentUpdateException}.
+ */
+@Repository
+@Profile("event-sourced")
+@Qualifier("bankAccountStore")
+public class EventSourcedBankAccountRepository implements BankAccountRepository {
+
+    private static final LocalDateTime OLDEST_STATEMENT_DATE = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime NEWEST_STATEMENT_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final LedgerEventJpaRepository eventJpaRepository;
+    private final BalanceSnapshotJpaRepository snapshotJpaRepository;
+    private final long snapshotInterval;
+    private final ReplicaReads replicaReads;
+    private final MonthlySummaryRollup monthlySummaryRollup;
+
+    public EventSourcedBankAccountRepository(LedgerEventJpaRepository eventJpaRepository,
+                                             BalanceSnapshotJpaRepository snapshotJpaRepository,
+                                             @Value("${bank.ledger.snapshot-interval:100}") long snapshotInterval,
+                                             ReplicaReads replicaReads,
+                                             MonthlySummaryRollup monthlySummaryRollup) {
+        if (snapshotInterval <= 0) {
+            throw new IllegalArgumentException("snapshotInterval must be positive");
+        }
+        this.eventJpaRepository = eventJpaRepository;
+        this.snapshotJpaRepository = snapshotJpaRepository;
+        this.snapshotInterval = snapshotInterval;
+        this.replicaReads = replicaReads;
+        this.monthlySummaryRollup = monthlySummaryRollup;
+    }
+
+    /**
+     * Opens an account by writing its initial snapshot at sequence 0; an account exists as soon as it has one.
+     */
+    @Transactional
+    public void open(String accountId, BigDecimal initialBalance) {
+        snapshotJpaRepository.save(BalanceSnapshotEntity.builder()
+            .accountId(accountId)
+            .sequence(0)
+            .balance(initialBalance)
+            .build());
+        replicaReads.recordWrite(accountId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BankAccount findById(String accountId) {
+        return replicaReads.onReplica(accountId, () -> loadAccount(accountId));
+    }
+
+    private BankAccount loadAccount(String accountId) {
+        BalanceSnapshotEntity opening = snapshotJpaRepository
+            .findFirstByAccountIdAndSequenceLessThanEqualOrderBySequenceDesc(accountId, 0)
+            .orElseThrow(() -> new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE));
+        List<Statement> statements = new ArrayList<>();
+        BigDecimal balance = opening.getBalance();
+        long sequence = 0;
+        for (LedgerEventEntity event : eventJpaRepository.findByAccountIdOrderBySequenceAsc(accountId)) {
+            balance = apply(balance, event);
+            sequence = event.getSequence();
+            statements.add(toStatement(event, balance));
+        }
+        return new BankAccount(accountId, balance, statements, sequence);
+    }
+
+    /**
+     * Rebuilds the account's {@code MONTHLY_SUMMARY} rows from all its events. Appends do not lock anything the
+     * rebuild could hold, so it fails with a {@link ConcurrentUpdateException} if one was made meanwhile.
+     */
+    @Transactional
+    public void rebuildMonthlySummaries(String accountId) {
+        BankAccount bankAccount = loadAccount(accountId);
+        monthlySummaryRollup.rebuild(accountId, bankAccount.getStatements());
+        if (currentState(accountId).sequence() != bankAccount.getVersion()) {
+            throw new ConcurrentUpdateException(CONCURRENT_UPDATE_MESSAGE);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BankAccount findForUpdate(String accountId) {
+        LedgerState state = currentState(accountId);
+        return new BankAccount(accountId, state.balance(), new ArrayList<>(), state.sequence());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal findBalanceById(String accountId) {
+        return replicaReads.onReplica(accountId, () -> currentState(accountId).balance());
+    }
+
+    @Override
+    @Transactional
+    public void update(BankAccount bankAccount) {
+        update(bankAccount, 1);
+    }
+
+    @Override
+    @Transactional
+    public void update(BankAccount bankAccount, int newStatementCount) {
+        List<Statement> statements = bankAccount.getStatements();
+        if (newStatementCount <= 0 || statements.size() < newStatementCount) {
+            throw new IllegalArgumentException(UPDATE_WITHOUT_STATEMENT);
+        }
+        List<Statement> newStatements = statements.subList(statements.size() - newStatementCount, statements.size());
+        if (newStatements.get(newStatementCount - 1).getBalance().compareTo(bankAccount.getBalance()) != 0) {
+            throw new IllegalArgumentException(UPDATE_WITHOUT_STATEMENT);
+        }
+
+        String accountId = bankAccount.getAccountId();
+        long base = bankAccount.getVersion() != null
+            ? bankAccount.getVersion()
+            : currentState(accountId).sequence();
+        List<LedgerEventEntity> events = new ArrayList<>(newStatementCount);
+        for (int i = 0; i < newStatementCount; i++) {
+            Statement newStatement = newStatements.get(i);
+            events.add(LedgerEventEntity.builder()
+                .accountId(accountId)
+                .sequence(base + i + 1)
+                .date(newStatement.getDate())
+                .operationType(newStatement.getOperationType())
+                .amount(newStatement.getAmount())
+                .build());
+        }
+        long last = base + newStatementCount;
+        try {
+            eventJpaRepository.saveAllAndFlush(events);
+        } catch (DataIntegrityViolationException e) {
+            throw new ConcurrentUpdateException(CONCURRENT_UPDATE_MESSAGE);
+        }
+        if (last / snapshotInterval != base / snapshotInterval) {
+            snapshotJpaRepository.save(BalanceSnapshotEntity.builder()
+                .accountId(accountId)
+                .sequence(last)
+                .balance(bankAccount.getBalance())
+                .build());
+        }
+        monthlySummaryRollup.record(accountId, newStatements);
+        bankAccount.setVersion(last);
+        replicaReads.recordWrite(accountId);
+    }
+
+    @Override
+    @Transactional
+    public void updateAll(List<BankAccount> bankAccounts) {
+        updateBatch(bankAccounts.stream().map(bankAccount -> new AccountUpdate(bankAccount, 1)).toList());
+    }
+
+    @Override
+    @Transactional
+    public void updateBatch(List<AccountUpdate> updates) {
+        updates.stream()
+            .sorted(Comparator.comparing((AccountUpdate update) -> update.bankAccount().getAccountId()))
+            .forEach(update -> update(update.bankAccount(), update.newStatementCount()));
+    }
+
+    /**
+     * The ledger has a single sequence per account, so there is nothing to spread: the deposit is appended as
+     * the next event at once, and racing slot deposits fall back on the sequence's unique constraint.
+     */
+    @Override
+    @Transactional
+    public void depositToSlot(String accountId, int slot, LocalDateTime date, BigDecimal amount) {
+        LedgerState state = currentState(accountId);
+        BigDecimal balance = state.balance().add(amount);
+        List<Statement> statements = new ArrayList<>(List.of(new Statement(date, DEPOSIT, amount, balance)));
+        update(new BankAccount(accountId, balance, statements, state.sequence()));
+    }
+
+    @Override
+    public void settleSlots(String accountId) {
+        // slot deposits are appended as regular events, nothing is ever pending
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Statement> findStatements(String accountId, LocalDateTime from, LocalDateTime to, int page, int size) {
+        return replicaReads.onReplica(accountId, () -> loadStatements(accountId, from, to, page, size));
+    }
+
+    private List<Statement> loadStatements(String accountId, LocalDateTime from, LocalDateTime to, int page,
+                                           int size) {
+        List<LedgerEventEntity> events = eventJpaRepository.findByAccountIdAndDateGreaterThanEqualAndDateLessThan(
+            accountId,
+            from == null ? OLDEST_STATEMENT_DATE : from,
+            to == null ? NEWEST_STATEMENT_DATE : to,
+            PageRequest.of(page, size, Sort.by(DESC, "sequence")));
+        if (events.isEmpty()) {
+            currentState(accountId);
+            return List.of();
+        }
+
+        long first = events.get(events.size() - 1).getSequence();
+        BigDecimal balance = balanceAt(accountId, first - 1);
+        List<Statement> statements = new ArrayList<>(events.size());
+        for (LedgerEventEntity event : ReversedList.of(events)) {
+            balance = apply(balance, event);
+            statements.add(toStatement(event, balance));
+        }
+        return ReversedList.of(statements);
+    }
+
+    /**
+     * Streams detached rows, newest first. The running balance starts from the balance at the newest streamed
+     * event, which never changes once written, so events appended while the export runs cannot offset it.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachStatement(String accountId, Consumer<Statement> consumer) {
+        replicaReads.onReplica(accountId, () -> {
+            try (Stream<LedgerEventView> events = eventJpaRepository.streamByAccountId(accountId)) {
+                Iterator<LedgerEventView> iterator = events.iterator();
+                if (!iterator.hasNext()) {
+                    currentState(accountId);
+                    return;
+                }
+                LedgerEventView event = iterator.next();
+                BigDecimal balance = balanceAt(accountId, event.sequence());
+                while (true) {
+                    consumer.accept(new Statement(event.date(), event.operationType(), event.amount(), balance));
+                    if (!iterator.hasNext()) {
+                        break;
+                    }
+                    balance = revert(balance, event);
+                    event = iterator.next();
+                }
+            }
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MonthlySummary> findMonthlySummaries(String accountId, YearMonth from, YearMonth to) {
+        return replicaReads.onReplica(accountId, () -> {
+            snapshotJpaRepository.findFirstByAccountIdAndSequenceLessThanEqualOrderBySequenceDesc(accountId, 0)
+                .orElseThrow(() -> new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE));
+            return monthlySummaryRollup.find(accountId, from, to);
+        });
+    }
+
+    private LedgerState currentState(String accountId) {
+        BalanceSnapshotEntity snapshot = snapshotJpaRepository.findFirstByAccountIdOrderBySequenceDesc(accountId)
+            .orElseThrow(() -> new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE));
+        BigDecimal balance = snapshot.getBalance();
+        long sequence = snapshot.getSequence();
+        for (LedgerEventEntity event : eventJpaRepository
+            .findByAccountIdAndSequenceGreaterThanOrderBySequenceAsc(accountId, snapshot.getSequence())) {
+            balance = apply(balance, event);
+            sequence = event.getSequence();
+        }
+        return new LedgerState(balance, sequence);
+    }
+
+    private BigDecimal balanceAt(String accountId, long sequence) {
+        BalanceSnapshotEntity snapshot = snapshotJpaRepository
+            .findFirstByAccountIdAndSequenceLessThanEqualOrderBySequenceDesc(accountId, sequence)
+            .orElseThrow(() -> new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE));
+        BigDecimal balance = snapshot.getBalance();
+        if (snapshot.getSequence() < sequence) {
+            for (LedgerEventEntity event : eventJpaRepository
+                .findByAccountIdAndSequenceBetweenOrderBySequenceAsc(accountId, snapshot.getSequence() + 1, sequence)) {
+                balance = apply(balance, event);
+            }
+        }
+        return balance;
+    }
+
+    private static BigDecimal apply(BigDecimal balance, LedgerEventEntity event) {
+        return event.getOperationType() == DEPOSIT
+            ? balance.add(event.getAmount())
+            : balance.subtract(event.getAmount());
+    }
+
+    private static BigDecimal revert(BigDecimal balance, LedgerEventView event) {
+        return event.operationType() == DEPOSIT
+            ? balance.subtract(event.amount())
+            : balance.add(event.amount());
+    }
+
+    private Statement toStatement(LedgerEventEntity event, BigDecimal balance) {
+        return Statement.builder()
+            .date(event.getDate())
+            .operationType(event.getOperationType())
+            .amount(event.getAmount())
+            .balance(balance)
+            .build();
+    }
+
+    private record LedgerState(BigDecimal balance, long sequence) {
+    }
+}
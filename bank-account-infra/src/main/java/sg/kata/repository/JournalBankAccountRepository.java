@@ -0,0 +1,302 @@
+package sg.kata.repository;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import sg.kata.exception.AccountNotFoundException;
+import sg.kata.exception.ConcurrentUpdateException;
+import sg.kata.journal.JournalRecord;
+import sg.kata.journal.MappedJournal;
+import sg.kata.model.AccountUpdate;
+import sg.kata.model.BankAccount;
+import sg.kata.model.Money;
+import sg.kata.model.MonthlySummary;
+import sg.kata.model.Statement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static sg.kata.journal.JournalRecord.Type.OPEN;
+import static sg.kata.service.BankAccountService.*;
+
+/**
+ * Non-JPA adapter over a {@link MappedJournal}: every statement is one fixed-width record and nothing else is
+ * persisted. The account-to-balance index lives in memory and is rebuilt on startup by replaying the journal;
+ * each account also keeps the positions of its records so statements are read back without scanning, and its
+ * monthly summaries, folded from the records as they are indexed.
+ * The version of an account is the number of records it has in the journal.
+ * <p>
+ * Writes check the index, append and publish the new positions under the journal's append lock, taking the index
+ * write lock only to publish; the fsync runs after the append lock is released, shared with the writes that arrived
+ * meanwhile, and a write returns once it is done. Neither reads nor other writes wait behind an fsync, and a record
+ * is visible to them as soon as it is written. The index is only ever changed by the holder of the append lock,
+ * which may therefore read it without the index lock.
+ */
+@Repository
+@Profile("journal")
+@Qualifier("bankAccountStore")
+public class JournalBankAccountRepository implements BankAccountRepository {
+
+    private final MappedJournal journal;
+    private final Map<String, AccountIndex> accounts = new HashMap<>();
+    private final ReentrantReadWriteLock indexLock = new ReentrantReadWriteLock();
+
+    public JournalBankAccountRepository(MappedJournal journal) {
+        this.journal = journal;
+        journal.replay((record, position) -> index(record, position));
+    }
+
+    /**
+     * Opens an account with its initial balance; an account exists as soon as its {@code OPEN} record is written.
+     */
+    public void open(String accountId, BigDecimal initialBalance) {
+        JournalRecord record = new JournalRecord(OPEN, accountId, LocalDateTime.now(), 0,
+            Money.toMinorUnits(initialBalance));
+        journal.withAppendLock(() -> {
+            if (accounts.containsKey(accountId)) {
+                throw new IllegalArgumentException("Account " + accountId + " already exists");
+            }
+            publish(List.of(record), journal.append(List.of(record)));
+            return null;
+        });
+    }
+
+    @Override
+    public BankAccount findById(String accountId) {
+        indexLock.readLock().lock();
+        try {
+            AccountIndex account = account(accountId);
+            List<Statement> statements = new ArrayList<>(account.count - 1);
+            for (int i = 1; i < account.count; i++) {
+                statements.add(toStatement(journal.read(account.positions[i])));
+            }
+            return new BankAccount(accountId, Money.toBigDecimal(account.balance), statements, (long) account.count);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public BankAccount findForUpdate(String accountId) {
+        indexLock.readLock().lock();
+        try {
+            AccountIndex account = account(accountId);
+            return new BankAccount(accountId, Money.toBigDecimal(account.balance), new ArrayList<>(),
+                (long) account.count);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public BigDecimal findBalanceById(String accountId) {
+        indexLock.readLock().lock();
+        try {
+            return Money.toBigDecimal(account(accountId).balance);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void update(BankAccount bankAccount) {
+        update(bankAccount, 1);
+    }
+
+    @Override
+    public void update(BankAccount bankAccount, int newStatementCount) {
+        updateBatch(List.of(new AccountUpdate(bankAccount, newStatementCount)));
+    }
+
+    @Override
+    public void updateAll(List<BankAccount> bankAccounts) {
+        updateBatch(bankAccounts.stream().map(bankAccount -> new AccountUpdate(bankAccount, 1)).toList());
+    }
+
+    /**
+     * All records are checked before any is written, then appended in one call so they share a single fsync.
+     */
+    @Override
+    public void updateBatch(List<AccountUpdate> updates) {
+        List<JournalRecord> records = new ArrayList<>();
+        for (AccountUpdate update : updates) {
+            BankAccount bankAccount = update.bankAccount();
+            int newStatementCount = update.newStatementCount();
+            List<Statement> statements = bankAccount.getStatements();
+            if (newStatementCount <= 0 || statements.size() < newStatementCount
+                || statements.get(statements.size() - 1).getBalance().compareTo(bankAccount.getBalance()) != 0) {
+                throw new IllegalArgumentException(UPDATE_WITHOUT_STATEMENT);
+            }
+            for (Statement statement : statements.subList(statements.size() - newStatementCount, statements.size())) {
+                records.add(new JournalRecord(
+                    JournalRecord.Type.of(statement.getOperationType()),
+                    bankAccount.getAccountId(),
+                    statement.getDate(),
+                    Money.toMinorUnits(statement.getAmount()),
+                    Money.toMinorUnits(statement.getBalance())));
+            }
+        }
+
+        journal.withAppendLock(() -> {
+            for (AccountUpdate update : updates) {
+                BankAccount bankAccount = update.bankAccount();
+                AccountIndex account = account(bankAccount.getAccountId());
+                if (bankAccount.getVersion() != null && bankAccount.getVersion() != account.count) {
+                    throw new ConcurrentUpdateException(CONCURRENT_UPDATE_MESSAGE);
+                }
+            }
+            publish(records, journal.append(records));
+            for (AccountUpdate update : updates) {
+                BankAccount bankAccount = update.bankAccount();
+                bankAccount.setVersion((long) accounts.get(bankAccount.getAccountId()).count);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Appends are already serialized by the append lock, so the deposit is written as a regular record at once.
+     */
+    @Override
+    public void depositToSlot(String accountId, int slot, LocalDateTime date, BigDecimal amount) {
+        journal.withAppendLock(() -> {
+            AccountIndex account = account(accountId);
+            long minorUnits = Money.toMinorUnits(amount);
+            JournalRecord record = new JournalRecord(JournalRecord.Type.DEPOSIT, accountId, date, minorUnits,
+                BankAccount.depositMinorUnits(account.balance, minorUnits));
+            publish(List.of(record), journal.append(List.of(record)));
+            return null;
+        });
+    }
+
+    @Override
+    public void settleSlots(String accountId) {
+        // slot deposits are appended as regular records, nothing is ever pending
+    }
+
+    @Override
+    public List<Statement> findStatements(String accountId, LocalDateTime from, LocalDateTime to, int page, int size) {
+        indexLock.readLock().lock();
+        try {
+            AccountIndex account = account(accountId);
+            List<Statement> statements = new ArrayList<>(size);
+            long skip = (long) page * size;
+            for (int i = account.count - 1; i > 0 && statements.size() < size; i--) {
+                JournalRecord record = journal.read(account.positions[i]);
+                if ((from == null || !record.date().isBefore(from)) && (to == null || record.date().isBefore(to))) {
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        statements.add(toStatement(record));
+                    }
+                }
+            }
+            return statements;
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEachStatement(String accountId, Consumer<Statement> consumer) {
+        long[] positions;
+        indexLock.readLock().lock();
+        try {
+            AccountIndex account = account(accountId);
+            positions = Arrays.copyOf(account.positions, account.count);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+        for (int i = positions.length - 1; i > 0; i--) {
+            consumer.accept(toStatement(journal.read(positions[i])));
+        }
+    }
+
+    @Override
+    public List<MonthlySummary> findMonthlySummaries(String accountId, YearMonth from, YearMonth to) {
+        indexLock.readLock().lock();
+        try {
+            NavigableMap<YearMonth, MonthlySummary> summaries = account(accountId).summaries;
+            if (from != null && to != null && from.isAfter(to)) {
+                return List.of();
+            }
+            if (from != null) {
+                summaries = summaries.tailMap(from, true);
+            }
+            if (to != null) {
+                summaries = summaries.headMap(to, true);
+            }
+            return List.copyOf(summaries.values());
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    private void publish(List<JournalRecord> records, long firstPosition) {
+        indexLock.writeLock().lock();
+        try {
+            long position = firstPosition;
+            for (JournalRecord record : records) {
+                index(record, position++);
+            }
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+    }
+
+    private void index(JournalRecord record, long position) {
+        AccountIndex account = record.type() == OPEN
+            ? accounts.computeIfAbsent(record.accountId(), accountId -> new AccountIndex())
+            : accounts.get(record.accountId());
+        if (account == null) {
+            throw new IllegalStateException("Journal record at " + position + " for unopened account");
+        }
+        account.balance = record.balance();
+        if (record.type() != OPEN) {
+            Statement statement = toStatement(record);
+            account.summaries.compute(YearMonth.from(record.date()),
+                (month, summary) -> summary == null ? MonthlySummary.of(statement) : summary.add(statement));
+        }
+        if (account.count == account.positions.length) {
+            account.positions = Arrays.copyOf(account.positions, account.count * 2);
+        }
+        account.positions[account.count++] = position;
+    }
+
+    private AccountIndex account(String accountId) {
+        AccountIndex account = accounts.get(accountId);
+        if (account == null) {
+            throw new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE);
+        }
+        return account;
+    }
+
+    private Statement toStatement(JournalRecord record) {
+        return Statement.builder()
+            .date(record.date())
+            .operationType(record.type().toOperationType())
+            .amount(Money.toBigDecimal(record.amount()))
+            .balance(Money.toBigDecimal(record.balance()))
+            .build();
+    }
+
+    /**
+     * In-memory state of one account. The first position is always its {@code OPEN} record.
+     */
+    private static final class AccountIndex {
+        private long balance;
+        private long[] positions = new long[8];
+        private int count;
+        private final TreeMap<YearMonth, MonthlySummary> summaries = new TreeMap<>();
+    }
+}
@@ -0,0 +1,32 @@
+package sg.kata.repository;
+
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import sg.kata.entity.LedgerEventEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface LedgerEventJpaRepository extends JpaRepository<LedgerEventEntity, String> {
+
+    List<LedgerEventEntity> findByAccountIdOrderBySequenceAsc(String accountId);
+
+    List<LedgerEventEntity> findByAccountIdAndSequenceGreaterThanOrderBySequenceAsc(String accountId, long sequence);
+
+    List<LedgerEventEntity> findByAccountIdAndSequenceBetweenOrderBySequenceAsc(String accountId, long first, long last);
+
+    List<LedgerEventEntity> findByAccountIdAndDateGreaterThanEqualAndDateLessThan(
+        String accountId, LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new sg.kata.repository.LedgerEventView(e.sequence, e.date, e.operationType, e.amount)"
+        + " from LedgerEventEntity e where e.accountId = :accountId order by e.sequence desc")
+    Stream<LedgerEventView> streamByAccountId(@Param("accountId") String accountId);
+}
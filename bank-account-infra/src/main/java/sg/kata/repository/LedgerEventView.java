@@ -0,0 +1,12 @@
+package sg.kata.repository;
+
+import sg.kata.model.OperationType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Detached columns of one {@code LEDGER_EVENT} row, for reads that stream the whole history.
+ */
+public record LedgerEventView(long sequence, LocalDateTime date, OperationType operationType, BigDecimal amount) {
+}
@@ -0,0 +1,7 @@
+package sg.kata.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import sg.kata.entity.LedgerProjectionEntity;
+
+public interface LedgerProjectionJpaRepository extends JpaRepository<LedgerProjectionEntity, String> {
+}
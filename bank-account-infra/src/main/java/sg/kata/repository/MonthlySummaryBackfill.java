@@ -0,0 +1,60 @@
+package sg.kata.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import sg.kata.service.ConflictRetryPolicy;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * One-off rebuild of {@code MONTHLY_SUMMARY} for accounts whose history predates the rollup. Runs once all
+ * singletons are created, before the web server takes requests, and rebuilds every account in pages of account
+ * ids; an account that loses a version check to a concurrent write is retried by the {@link ConflictRetryPolicy}.
+ */
+public class MonthlySummaryBackfill implements SmartInitializingSingleton {
+
+    public static final String BACKFILLED_ACCOUNTS_COUNTER = "bank.summary.backfill.accounts";
+
+    private static final int ACCOUNTS_PER_QUERY = 500;
+
+    private final Function<Pageable, List<String>> accountIds;
+    private final Consumer<String> rebuild;
+    private final ConflictRetryPolicy conflictRetryPolicy;
+    private final MeterRegistry meterRegistry;
+
+    public MonthlySummaryBackfill(Function<Pageable, List<String>> accountIds, Consumer<String> rebuild,
+                                  ConflictRetryPolicy conflictRetryPolicy, MeterRegistry meterRegistry) {
+        this.accountIds = accountIds;
+        this.rebuild = rebuild;
+        this.conflictRetryPolicy = conflictRetryPolicy;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        run();
+    }
+
+    /**
+     * Rebuilds the summaries of every account and returns how many accounts there were.
+     */
+    public long run() {
+        long rebuilt = 0;
+        Pageable page = PageRequest.of(0, ACCOUNTS_PER_QUERY);
+        List<String> ids = accountIds.apply(page);
+        while (!ids.isEmpty()) {
+            for (String accountId : ids) {
+                conflictRetryPolicy.execute(() -> rebuild.accept(accountId));
+                meterRegistry.counter(BACKFILLED_ACCOUNTS_COUNTER).increment();
+                rebuilt++;
+            }
+            page = page.next();
+            ids = accountIds.apply(page);
+        }
+        return rebuilt;
+    }
+}
@@ -0,0 +1,31 @@
+package sg.kata.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import sg.kata.entity.MonthlySummaryEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface MonthlySummaryJpaRepository extends JpaRepository<MonthlySummaryEntity, String> {
+
+    List<MonthlySummaryEntity> findByAccountIdAndMonthStartBetweenOrderByMonthStartAsc(
+        String accountId, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("update MonthlySummaryEntity m set m.totalDeposits = m.totalDeposits + :deposits,"
+        + " m.totalWithdrawals = m.totalWithdrawals + :withdrawals, m.closingBalance = :closingBalance,"
+        + " m.operationCount = m.operationCount + :operationCount"
+        + " where m.accountId = :accountId and m.monthStart = :monthStart")
+    int addOperations(@Param("accountId") String accountId, @Param("monthStart") LocalDate monthStart,
+                      @Param("deposits") BigDecimal deposits, @Param("withdrawals") BigDecimal withdrawals,
+                      @Param("closingBalance") BigDecimal closingBalance,
+                      @Param("operationCount") long operationCount);
+
+    @Modifying
+    @Query("delete from MonthlySummaryEntity m where m.accountId = :accountId")
+    int deleteByAccountId(@Param("accountId") String accountId);
+}
@@ -0,0 +1,88 @@
+package sg.kata.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import sg.kata.entity.MonthlySummaryEntity;
+import sg.kata.model.MonthlySummary;
+import sg.kata.model.Statement;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps {@code MONTHLY_SUMMARY} up to date for the JPA adapters. New statements are folded per month and added
+ * to the month's row in the transaction that inserts them; the row is created by the month's first statement.
+ * Callers hold the account's row lock or version check, so two writers never race on the same row.
+ */
+@Component
+@RequiredArgsConstructor
+public class MonthlySummaryRollup {
+
+    private static final LocalDate OLDEST_MONTH = LocalDate.of(1, 1, 1);
+    private static final LocalDate NEWEST_MONTH = LocalDate.of(9999, 12, 1);
+
+    private final MonthlySummaryJpaRepository monthlySummaryJpaRepository;
+
+    public void record(String accountId, List<Statement> newStatements) {
+        fold(newStatements).values().forEach(addition -> {
+            LocalDate monthStart = addition.month().atDay(1);
+            int updated = monthlySummaryJpaRepository.addOperations(accountId, monthStart,
+                addition.totalDeposits(), addition.totalWithdrawals(), addition.closingBalance(),
+                addition.operationCount());
+            if (updated == 0) {
+                monthlySummaryJpaRepository.save(toEntity(accountId, addition));
+            }
+        });
+    }
+
+    /**
+     * Replaces every row of the account with the months folded from its whole history, oldest statement first.
+     * Callers hold the same lock or version check as for {@link #record}.
+     */
+    public void rebuild(String accountId, List<Statement> history) {
+        monthlySummaryJpaRepository.deleteByAccountId(accountId);
+        monthlySummaryJpaRepository.saveAll(fold(history).values().stream()
+            .map(summary -> toEntity(accountId, summary))
+            .toList());
+    }
+
+    public List<MonthlySummary> find(String accountId, YearMonth from, YearMonth to) {
+        return monthlySummaryJpaRepository.findByAccountIdAndMonthStartBetweenOrderByMonthStartAsc(
+                accountId,
+                from == null ? OLDEST_MONTH : from.atDay(1),
+                to == null ? NEWEST_MONTH : to.atDay(1))
+            .stream()
+            .map(entity -> new MonthlySummary(
+                YearMonth.from(entity.getMonthStart()),
+                entity.getOpeningBalance(),
+                entity.getTotalDeposits(),
+                entity.getTotalWithdrawals(),
+                entity.getClosingBalance(),
+                entity.getOperationCount()))
+            .toList();
+    }
+
+    private static Map<YearMonth, MonthlySummary> fold(List<Statement> statements) {
+        Map<YearMonth, MonthlySummary> summaries = new LinkedHashMap<>();
+        for (Statement statement : statements) {
+            summaries.compute(YearMonth.from(statement.getDate()),
+                (month, summary) -> summary == null ? MonthlySummary.of(statement) : summary.add(statement));
+        }
+        return summaries;
+    }
+
+    private static MonthlySummaryEntity toEntity(String accountId, MonthlySummary summary) {
+        return MonthlySummaryEntity.builder()
+            .accountId(accountId)
+            .monthStart(summary.month().atDay(1))
+            .openingBalance(summary.openingBalance())
+            .totalDeposits(summary.totalDeposits())
+            .totalWithdrawals(summary.totalWithdrawals())
+            .closingBalance(summary.closingBalance())
+            .operationCount(summary.operationCount())
+            .build();
+    }
+}
@@ -0,0 +1,11 @@
+package sg.kata.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import sg.kata.entity.PendingDepositEntity;
+
+import java.util.List;
+
+public interface PendingDepositJpaRepository extends JpaRepository<PendingDepositEntity, String> {
+
+    List<PendingDepositEntity> findByAccountIdOrderByDateAsc(String accountId);
+}
@@ -0,0 +1,112 @@
+package sg.kata.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import sg.kata.entity.StatementArchiveEntity;
+import sg.kata.entity.StatementEntity;
+import sg.kata.model.ArchivedStatements;
+import sg.kata.model.Statement;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Cold storage for old statements. {@link #archive} moves an account's oldest statements out of {@code STATEMENT}
+ * into one compressed {@code STATEMENT_ARCHIVE} segment, whose closing balance is the checkpoint the remaining
+ * history starts from; the reads decode the segments overlapping the requested range, most recent first.
+ * The monthly summaries are left untouched.
+ */
+@Component
+@RequiredArgsConstructor
+public class StatementArchive {
+
+    private final StatementEntityJpaRepository statementJpaRepository;
+    private final StatementArchiveJpaRepository statementArchiveJpaRepository;
+
+    /**
+     * Moves up to {@code segmentSize} of the account's statements dated before {@code before}, oldest first, into a
+     * new segment, and returns how many were moved.
+     */
+    @Transactional
+    public int archive(String accountId, LocalDateTime before, int segmentSize) {
+        List<StatementEntity> statements = statementJpaRepository.findByAccountIdAndDateLessThanOrderByDateAsc(
+            accountId, before, PageRequest.of(0, segmentSize));
+        if (statements.isEmpty()) {
+            return 0;
+        }
+        StatementEntity last = statements.get(statements.size() - 1);
+        statementArchiveJpaRepository.save(StatementArchiveEntity.builder()
+            .accountId(accountId)
+            .firstDate(statements.get(0).getDate())
+            .lastDate(last.getDate())
+            .statementCount(statements.size())
+            .closingBalance(last.getBalance())
+            .payload(encode(statements))
+            .build());
+        statementJpaRepository.deleteAllInBatch(statements);
+        return statements.size();
+    }
+
+    /**
+     * Returns the archived statements dated in {@code [from, to)}, most recent first, after skipping the
+     * {@code skip} most recent ones and up to {@code limit} of them.
+     */
+    public List<Statement> find(String accountId, LocalDateTime from, LocalDateTime to, long skip, int limit) {
+        List<Statement> statements = new ArrayList<>(limit);
+        long skipped = 0;
+        for (StatementArchiveEntity segment : segments(accountId, from, to)) {
+            List<Statement> decoded = decode(segment.getPayload());
+            for (int i = decoded.size() - 1; i >= 0 && statements.size() < limit; i--) {
+                Statement statement = decoded.get(i);
+                if (statement.getDate().isBefore(from) || !statement.getDate().isBefore(to)) {
+                    continue;
+                }
+                if (skipped < skip) {
+                    skipped++;
+                } else {
+                    statements.add(statement);
+                }
+            }
+            if (statements.size() == limit) {
+                break;
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * Passes every archived statement of the account to the consumer, most recent first, decoding one segment
+     * at a time, and returns how many there were.
+     */
+    public long forEach(String accountId, LocalDateTime from, LocalDateTime to, Consumer<Statement> consumer) {
+        long count = 0;
+        for (StatementArchiveEntity segment : segments(accountId, from, to)) {
+            List<Statement> decoded = decode(segment.getPayload());
+            for (int i = decoded.size() - 1; i >= 0; i--) {
+                consumer.accept(decoded.get(i));
+            }
+            count += decoded.size();
+        }
+        return count;
+    }
+
+    private List<StatementArchiveEntity> segments(String accountId, LocalDateTime from, LocalDateTime to) {
+        return statementArchiveJpaRepository
+            .findByAccountIdAndLastDateGreaterThanEqualAndFirstDateLessThanOrderByLastDateDesc(accountId, from, to);
+    }
+
+    static byte[] encode(List<StatementEntity> statements) {
+        return ArchivedStatements.encode(statements.stream()
+            .map(statement -> new Statement(statement.getDate(), statement.getOperationType(), statement.getAmount(),
+                statement.getBalance()))
+            .toList());
+    }
+
+    static List<Statement> decode(byte[] payload) {
+        return ArchivedStatements.decode(payload);
+    }
+}
@@ -0,0 +1,16 @@
+package sg.kata.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import sg.kata.entity.StatementArchiveEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StatementArchiveJpaRepository extends JpaRepository<StatementArchiveEntity, String> {
+
+    /**
+     * Segments holding statements dated in {@code [from, to)}, most recent first.
+     */
+    List<StatementArchiveEntity> findByAccountIdAndLastDateGreaterThanEqualAndFirstDateLessThanOrderByLastDateDesc(
+        String accountId, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,86 @@
+package sg.kata.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job that, every {@code interval}, archives the statements older than {@code horizon} through
+ * {@link StatementArchive}, one segment of at most {@code segmentSize} statements per transaction, so that
+ * {@code STATEMENT} and the loaded {@link sg.kata.model.BankAccount} only hold recent history. A failed pass is
+ * counted and retried on the next one.
+ */
+public class StatementArchiver implements AutoCloseable {
+
+    public static final String ARCHIVED_STATEMENTS_COUNTER = "bank.archive.statements";
+    public static final String ARCHIVE_FAILURES_COUNTER = "bank.archive.failures";
+
+    private static final int ACCOUNTS_PER_QUERY = 100;
+
+    private final StatementArchive statementArchive;
+    private final StatementEntityJpaRepository statementJpaRepository;
+    private final MeterRegistry meterRegistry;
+    private final Duration horizon;
+    private final int segmentSize;
+    private final ScheduledExecutorService scheduler;
+
+    public StatementArchiver(StatementArchive statementArchive, StatementEntityJpaRepository statementJpaRepository,
+                             MeterRegistry meterRegistry, Duration horizon, int segmentSize, Duration interval) {
+        if (horizon.isNegative() || segmentSize <= 0 || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("horizon must not be negative, segmentSize and interval must be positive");
+        }
+        this.statementArchive = statementArchive;
+        this.statementJpaRepository = statementJpaRepository;
+        this.meterRegistry = meterRegistry;
+        this.horizon = horizon;
+        this.segmentSize = segmentSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "statement-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = interval.toNanos();
+        scheduler.scheduleWithFixedDelay(this::archiveOldStatements, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Archives every statement dated before {@code before} and returns how many were moved.
+     */
+    public long archiveBefore(LocalDateTime before) {
+        long archived = 0;
+        List<String> accountIds = statementJpaRepository.findAccountIdsWithStatementsBefore(
+            before, PageRequest.of(0, ACCOUNTS_PER_QUERY));
+        while (!accountIds.isEmpty()) {
+            for (String accountId : accountIds) {
+                int moved;
+                do {
+                    moved = statementArchive.archive(accountId, before, segmentSize);
+                    archived += moved;
+                    meterRegistry.counter(ARCHIVED_STATEMENTS_COUNTER).increment(moved);
+                } while (moved == segmentSize);
+            }
+            accountIds = statementJpaRepository.findAccountIdsWithStatementsBefore(
+                before, PageRequest.of(0, ACCOUNTS_PER_QUERY));
+        }
+        return archived;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void archiveOldStatements() {
+        try {
+            archiveBefore(LocalDateTime.now().minus(horizon));
+        } catch (RuntimeException e) {
+            meterRegistry.counter(ARCHIVE_FAILURES_COUNTER, "exception", e.getClass().getSimpleName()).increment();
+        }
+    }
+}
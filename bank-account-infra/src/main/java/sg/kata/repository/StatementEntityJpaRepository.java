@@ -0,0 +1,35 @@
+package sg.kata.repository;
+
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import sg.kata.entity.StatementEntity;
+import sg.kata.model.Statement;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface StatementEntityJpaRepository extends JpaRepository<StatementEntity, String> {
+
+    List<StatementEntity> findByAccountIdAndDateGreaterThanEqualAndDateLessThan(
+        String accountId, LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    long countByAccountIdAndDateGreaterThanEqualAndDateLessThan(String accountId, LocalDateTime from, LocalDateTime to);
+
+    List<StatementEntity> findByAccountIdAndDateLessThanOrderByDateAsc(
+        String accountId, LocalDateTime before, Pageable pageable);
+
+    @Query("select distinct s.accountId from StatementEntity s where s.date < :before")
+    List<String> findAccountIdsWithStatementsBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new sg.kata.model.Statement(s.date, s.operationType, s.amount, s.balance)"
+        + " from StatementEntity s where s.accountId = :accountId order by s.date desc")
+    Stream<Statement> streamByAccountId(@Param("accountId") String accountId);
+}
@@ -0,0 +1,17 @@
+package sg.kata.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import sg.kata.entity.SubBalanceEntity;
+
+import java.math.BigDecimal;
+
+public interface SubBalanceJpaRepository extends JpaRepository<SubBalanceEntity, String> {
+
+    @Modifying
+    @Query("update SubBalanceEntity s set s.balance = s.balance + :delta"
+        + " where s.accountId = :accountId and s.slot = :slot")
+    int addToBalance(@Param("accountId") String accountId, @Param("slot") int slot, @Param("delta") BigDecimal delta);
+}
@@ -0,0 +1,82 @@
+package sg.kata.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BoundedCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void shouldLoadOnceAndThenHit() {
+        // GIVEN
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofSeconds(30), clock::get);
+
+        // WHEN
+        cache.get("123", this::load);
+        String value = cache.get("123", this::load);
+
+        // THEN
+        assertThat(value).isEqualTo("123-1");
+        assertThat(cache.stats()).isEqualTo(new CacheStats(1, 1, 0, 1));
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntryWhenFull() {
+        // GIVEN
+        BoundedCache<String, String> cache = new BoundedCache<>(2, Duration.ofSeconds(30), clock::get);
+        cache.get("1", this::load);
+        cache.get("2", this::load);
+        cache.get("1", this::load);
+
+        // WHEN
+        cache.get("3", this::load);
+        cache.get("2", this::load);
+
+        // THEN
+        assertThat(loads.get()).isEqualTo(4);
+        assertThat(cache.stats().evictions()).isEqualTo(2);
+        assertThat(cache.stats().size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldExpireEntriesAfterTtl() {
+        // GIVEN
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofSeconds(30), clock::get);
+        cache.get("123", this::load);
+
+        // WHEN
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        String value = cache.get("123", this::load);
+
+        // THEN
+        assertThat(value).isEqualTo("123-2");
+        assertThat(cache.stats()).isEqualTo(new CacheStats(0, 2, 1, 1));
+    }
+
+    @Test
+    void shouldNotStoreValueLoadedDuringInvalidation() {
+        // GIVEN
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofSeconds(30), clock::get);
+
+        // WHEN
+        cache.get("123", key -> {
+            cache.invalidate(key);
+            return "stale";
+        });
+        String value = cache.get("123", this::load);
+
+        // THEN
+        assertThat(value).isEqualTo("123-1");
+    }
+
+    private String load(String key) {
+        return key + "-" + loads.incrementAndGet();
+    }
+}
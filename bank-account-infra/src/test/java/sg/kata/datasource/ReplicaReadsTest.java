@@ -0,0 +1,74 @@
+package sg.kata.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReplicaReadsTest {
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica";
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldOnlyUseTheReplicaForMarkedReadOnlyReads() {
+        // GIVEN
+        ReplicaReads replicaReads = new ReplicaReads(REPLICA_URL, Duration.ofSeconds(1));
+
+        // WHEN - THEN
+        assertFalse(replicaReads.onReplica("123", replicaReads::shouldUseReplica));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertTrue(replicaReads.onReplica("123", replicaReads::shouldUseReplica));
+        assertFalse(replicaReads.shouldUseReplica());
+    }
+
+    @Test
+    void shouldReadOwnWritesFromThePrimaryUntilTheLagHasPassed() throws InterruptedException {
+        // GIVEN
+        ReplicaReads replicaReads = new ReplicaReads(REPLICA_URL, Duration.ofMillis(100));
+        replicaReads.recordWrite("123");
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // WHEN - THEN
+        assertFalse(replicaReads.onReplica("123", replicaReads::shouldUseReplica));
+        assertTrue(replicaReads.onReplica("456", replicaReads::shouldUseReplica));
+        Thread.sleep(120);
+        assertTrue(replicaReads.onReplica("123", replicaReads::shouldUseReplica));
+    }
+
+    @Test
+    void shouldRecordAWriteOnceItsTransactionCommits() {
+        // GIVEN
+        ReplicaReads replicaReads = new ReplicaReads(REPLICA_URL, Duration.ofMinutes(1));
+        TransactionSynchronizationManager.initSynchronization();
+        replicaReads.recordWrite("123");
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // WHEN - THEN
+        assertTrue(replicaReads.onReplica("123", replicaReads::shouldUseReplica));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertFalse(replicaReads.onReplica("123", replicaReads::shouldUseReplica));
+    }
+
+    @Test
+    void shouldNeverUseTheReplicaWhenDisabled() {
+        // GIVEN
+        ReplicaReads replicaReads = ReplicaReads.disabled();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // WHEN - THEN
+        assertFalse(replicaReads.onReplica("123", replicaReads::shouldUseReplica));
+    }
+}
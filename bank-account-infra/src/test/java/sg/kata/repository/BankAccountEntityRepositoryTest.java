@@ -1,24 +1,36 @@
 package sg.kata.repository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import sg.kata.datasource.ReplicaReads;
 import sg.kata.entity.BankAccountEntity;
+import sg.kata.entity.PendingDepositEntity;
 import sg.kata.entity.StatementEntity;
+import sg.kata.entity.SubBalanceEntity;
 import sg.kata.exception.AccountNotFoundException;
+import sg.kata.exception.ConcurrentUpdateException;
 import sg.kata.model.BankAccount;
+import sg.kata.model.MonthlySummary;
 import sg.kata.model.Statement;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
-import static java.math.BigDecimal.ZERO;
 import static java.time.LocalDateTime.now;
 import static java.util.Collections.emptyList;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -27,8 +39,10 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static sg.kata.model.OperationType.DEPOSIT;
 import static sg.kata.model.OperationType.WITHDRAW;
+import static sg.kata.service.BankAccountService.CONCURRENT_UPDATE_MESSAGE;
 import static sg.kata.service.BankAccountService.INVALID_ACCOUNT_MESSAGE;
 import static sg.kata.service.BankAccountService.UPDATE_WITHOUT_STATEMENT;
+import static sg.kata.service.BankAccountService.UPDATE_WITHOUT_VERSION;
 
 @ExtendWith(MockitoExtension.class)
 public class BankAccountEntityRepositoryTest {
@@ -39,14 +53,38 @@ public class BankAccountEntityRepositoryTest {
     @Mock
     private BankAccountEntityJpaRepository jpaRepository;
 
+    @Mock
+    private StatementEntityJpaRepository statementJpaRepository;
+
+    @Mock
+    private SubBalanceJpaRepository subBalanceJpaRepository;
+
+    @Mock
+    private PendingDepositJpaRepository pendingDepositJpaRepository;
+
+    @Mock
+    private MonthlySummaryRollup monthlySummaryRollup;
+
+    @Mock
+    private StatementArchive statementArchive;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ReplicaReads replicaReads = ReplicaReads.disabled();
+
+    @Captor
+    private ArgumentCaptor<List<StatementEntity>> statementsCaptor;
+
     @Test
     void shouldFindExistingAccount() {
         // GIVEN
         LocalDateTime now = now();
-        StatementEntity statementEntity = new StatementEntity("123-1", now, DEPOSIT,
+        StatementEntity statementEntity = new StatementEntity("123-1", "123", now, DEPOSIT,
             BigDecimal.valueOf(1000), BigDecimal.valueOf(1000));
         BankAccountEntity bankAccountEntity = new BankAccountEntity("123",
-            BigDecimal.valueOf(1000), List.of(statementEntity));
+            BigDecimal.valueOf(1000), List.of(statementEntity), 3L);
 
         when(jpaRepository.findById("123")).thenReturn(Optional.of(bankAccountEntity));
 
@@ -57,6 +95,7 @@ public class BankAccountEntityRepositoryTest {
         assertThat(bankAccount).isNotNull();
         assertThat(bankAccount.getAccountId()).isEqualTo("123");
         assertThat(bankAccount.getBalance()).isEqualTo(BigDecimal.valueOf(1000));
+        assertThat(bankAccount.getVersion()).isEqualTo(3L);
         assertThat(bankAccount.getStatements()).hasSize(1)
             .extracting(
                 Statement::getDate,
@@ -68,6 +107,36 @@ public class BankAccountEntityRepositoryTest {
             );
     }
 
+    @Test
+    void shouldFindArchivedStatementsBeforeRecentOnes() {
+        // GIVEN
+        Statement oldest = new Statement(LocalDateTime.of(2020, 1, 5, 10, 0), DEPOSIT,
+            BigDecimal.valueOf(100), BigDecimal.valueOf(100));
+        Statement older = new Statement(LocalDateTime.of(2020, 2, 5, 10, 0), WITHDRAW,
+            BigDecimal.valueOf(40), BigDecimal.valueOf(60));
+        StatementEntity recent = new StatementEntity("123-3", "123", now(), DEPOSIT,
+            BigDecimal.valueOf(10), BigDecimal.valueOf(70));
+        when(jpaRepository.findById("123"))
+            .thenReturn(Optional.of(new BankAccountEntity("123", BigDecimal.valueOf(70), List.of(recent), 3L)));
+        doAnswer(invocation -> {
+            Consumer<Statement> consumer = invocation.getArgument(3);
+            consumer.accept(older);
+            consumer.accept(oldest);
+            return 2L;
+        }).when(statementArchive).forEach(eq("123"), any(), any(), any());
+
+        // WHEN
+        BankAccount bankAccount = repository.findById("123");
+
+        // THEN
+        assertThat(bankAccount.getStatements())
+            .extracting(Statement::getOperationType, Statement::getBalance)
+            .containsExactly(
+                tuple(DEPOSIT, BigDecimal.valueOf(100)),
+                tuple(WITHDRAW, BigDecimal.valueOf(60)),
+                tuple(DEPOSIT, BigDecimal.valueOf(70)));
+    }
+
     @Test
     void shouldNotFindInvalidAccount() {
         // GIVEN
@@ -78,6 +147,26 @@ public class BankAccountEntityRepositoryTest {
         assertThat(exception.getMessage()).isEqualTo(INVALID_ACCOUNT_MESSAGE);
     }
 
+    @Test
+    void shouldFindBalanceWithoutLoadingStatements() {
+        // GIVEN
+        when(jpaRepository.findBalanceByAccountId("123")).thenReturn(Optional.of(BigDecimal.valueOf(1000)));
+
+        // WHEN
+        BigDecimal balance = repository.findBalanceById("123");
+
+        // THEN
+        assertThat(balance).isEqualTo(BigDecimal.valueOf(1000));
+        verify(jpaRepository, never()).findById(any());
+    }
+
+    @Test
+    void shouldNotFindBalanceOfInvalidAccount() {
+        // WHEN - THEN
+        Exception exception = assertThrows(AccountNotFoundException.class, () -> repository.findBalanceById("fake-id"));
+        assertThat(exception.getMessage()).isEqualTo(INVALID_ACCOUNT_MESSAGE);
+    }
+
     @Test
     void shouldUpdateAccountWithADeposit() {
         // GIVEN
@@ -89,28 +178,21 @@ public class BankAccountEntityRepositoryTest {
         List<Statement> statements = new ArrayList<>();
         statements.add(new Statement(now, DEPOSIT, initialBalance, initialBalance));
         statements.add(new Statement(now.plusMinutes(1), DEPOSIT, depositAmount, newBalance));
-        BankAccount bankAccount = new BankAccount("123", newBalance, statements);
+        BankAccount bankAccount = new BankAccount("123", newBalance, statements, 1L);
 
-        List<StatementEntity> statementEntities = new ArrayList<>();
-        statementEntities.add(new StatementEntity("123-1", now, DEPOSIT,
-            initialBalance, initialBalance));
-        BankAccountEntity bankAccountEntity = new BankAccountEntity("123",
-            initialBalance, statementEntities);
-
-        when(jpaRepository.findById("123")).thenReturn(Optional.of(bankAccountEntity));
+        when(jpaRepository.addToBalance("123", depositAmount, 1L)).thenReturn(1);
 
         // WHEN
         repository.update(bankAccount);
 
         // THEN
-        ArgumentCaptor<BankAccountEntity> captor = ArgumentCaptor.forClass(BankAccountEntity.class);
-        verify(jpaRepository).save(captor.capture());
-        BankAccountEntity entity = captor.getValue();
-        assertThat(entity.getAccountId()).isEqualTo("123");
-        assertThat(entity.getBalance()).isEqualTo(newBalance);
-        assertThat(entity.getStatements()).hasSize(2)
-            .extracting(StatementEntity::getOperationType, StatementEntity::getAmount, StatementEntity::getBalance)
-            .containsExactly(tuple(DEPOSIT, initialBalance, initialBalance), tuple(DEPOSIT, depositAmount, newBalance));
+        verify(statementJpaRepository).saveAll(statementsCaptor.capture());
+        verify(jpaRepository, never()).findById(any());
+        assertThat(statementsCaptor.getValue()).singleElement()
+            .extracting(StatementEntity::getAccountId, StatementEntity::getDate, StatementEntity::getOperationType,
+                StatementEntity::getAmount, StatementEntity::getBalance)
+            .containsExactly("123", now.plusMinutes(1), DEPOSIT, depositAmount, newBalance);
+        verify(monthlySummaryRollup).record("123", List.of(statements.get(1)));
     }
 
     @Test
@@ -124,38 +206,122 @@ public class BankAccountEntityRepositoryTest {
         List<Statement> statements = new ArrayList<>();
         statements.add(new Statement(now, DEPOSIT, initialBalance, initialBalance));
         statements.add(new Statement(now.plusMinutes(1), WITHDRAW, withdrawAmount, newBalance));
-        BankAccount bankAccount = new BankAccount("123", newBalance, statements);
+        BankAccount bankAccount = new BankAccount("123", newBalance, statements, 1L);
 
-        List<StatementEntity> statementEntities = new ArrayList<>();
-        statementEntities.add(new StatementEntity("123-1", now, DEPOSIT,
-            initialBalance, initialBalance));
-        BankAccountEntity bankAccountEntity = new BankAccountEntity("123",
-            initialBalance, statementEntities);
+        when(jpaRepository.addToBalance("123", withdrawAmount.negate(), 1L)).thenReturn(1);
 
-        when(jpaRepository.findById("123")).thenReturn(Optional.of(bankAccountEntity));
+        // WHEN
+        repository.update(bankAccount);
+
+        // THEN
+        verify(statementJpaRepository).saveAll(statementsCaptor.capture());
+        verify(jpaRepository, never()).findById(any());
+        assertThat(statementsCaptor.getValue()).singleElement()
+            .extracting(StatementEntity::getAccountId, StatementEntity::getOperationType,
+                StatementEntity::getAmount, StatementEntity::getBalance)
+            .containsExactly("123", WITHDRAW, withdrawAmount, newBalance);
+    }
+
+    @Test
+    void shouldUpdateAccountWithSeveralStatementsInOneWrite() {
+        // GIVEN
+        LocalDateTime now = now();
+        List<Statement> statements = new ArrayList<>();
+        statements.add(new Statement(now, DEPOSIT, BigDecimal.valueOf(100), BigDecimal.valueOf(200)));
+        statements.add(new Statement(now, WITHDRAW, BigDecimal.valueOf(30), BigDecimal.valueOf(170)));
+        statements.add(new Statement(now, DEPOSIT, BigDecimal.valueOf(5), BigDecimal.valueOf(175)));
+        BankAccount bankAccount = new BankAccount("123", BigDecimal.valueOf(175), statements, 1L);
+
+        when(jpaRepository.addToBalance("123", BigDecimal.valueOf(75), 1L)).thenReturn(1);
+
+        // WHEN
+        repository.update(bankAccount, 3);
+
+        // THEN
+        verify(jpaRepository).addToBalance("123", BigDecimal.valueOf(75), 1L);
+        verify(statementJpaRepository).saveAll(statementsCaptor.capture());
+        assertThat(statementsCaptor.getValue())
+            .extracting(StatementEntity::getOperationType, StatementEntity::getBalance)
+            .containsExactly(
+                tuple(DEPOSIT, BigDecimal.valueOf(200)),
+                tuple(WITHDRAW, BigDecimal.valueOf(170)),
+                tuple(DEPOSIT, BigDecimal.valueOf(175)));
+    }
+
+    @Test
+    void shouldNotUpdateAccountWithoutVersion() {
+        // GIVEN
+        List<Statement> statements = new ArrayList<>();
+        statements.add(new Statement(now(), DEPOSIT, BigDecimal.valueOf(50), BigDecimal.valueOf(150)));
+        BankAccount bankAccount = new BankAccount("123", BigDecimal.valueOf(150), statements);
+
+        // WHEN
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> repository.update(bankAccount));
+
+        // THEN
+        assertThat(exception.getMessage()).isEqualTo(UPDATE_WITHOUT_VERSION);
+        verify(statementJpaRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void shouldUpdateAccountWithMatchingVersion() {
+        // GIVEN
+        List<Statement> statements = new ArrayList<>();
+        statements.add(new Statement(now(), DEPOSIT, BigDecimal.valueOf(50), BigDecimal.valueOf(150)));
+        BankAccount bankAccount = new BankAccount("123", BigDecimal.valueOf(150), statements, 7L);
+
+        when(jpaRepository.addToBalance("123", BigDecimal.valueOf(50), 7L)).thenReturn(1);
 
         // WHEN
         repository.update(bankAccount);
 
         // THEN
-        ArgumentCaptor<BankAccountEntity> captor = ArgumentCaptor.forClass(BankAccountEntity.class);
-        verify(jpaRepository).save(captor.capture());
-        BankAccountEntity entity = captor.getValue();
-        assertThat(entity.getAccountId()).isEqualTo("123");
-        assertThat(entity.getBalance()).isEqualTo(newBalance);
-        assertThat(entity.getStatements()).hasSize(2)
-            .extracting(StatementEntity::getOperationType, StatementEntity::getAmount, StatementEntity::getBalance)
-            .containsExactly(tuple(DEPOSIT, initialBalance, initialBalance), tuple(WITHDRAW, withdrawAmount, newBalance));
+        assertThat(bankAccount.getVersion()).isEqualTo(8L);
+        verify(statementJpaRepository).saveAll(any());
+    }
+
+    @Test
+    void shouldNotUpdateAccountWithStaleVersion() {
+        // GIVEN
+        List<Statement> statements = new ArrayList<>();
+        statements.add(new Statement(now(), DEPOSIT, BigDecimal.valueOf(50), BigDecimal.valueOf(150)));
+        BankAccount bankAccount = new BankAccount("123", BigDecimal.valueOf(150), statements, 7L);
+
+        when(jpaRepository.existsById("123")).thenReturn(true);
+
+        // WHEN - THEN
+        Exception exception = assertThrows(ConcurrentUpdateException.class, () -> repository.update(bankAccount));
+        assertThat(exception.getMessage()).isEqualTo(CONCURRENT_UPDATE_MESSAGE);
+        verify(statementJpaRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void shouldFindAccountForUpdateWithoutStatements() {
+        // GIVEN
+        BankAccountStateView state = mock(BankAccountStateView.class);
+        when(state.getBalance()).thenReturn(BigDecimal.valueOf(1000));
+        when(state.getVersion()).thenReturn(4L);
+        when(jpaRepository.findStateByAccountId("123")).thenReturn(Optional.of(state));
+
+        // WHEN
+        BankAccount bankAccount = repository.findForUpdate("123");
+
+        // THEN
+        assertThat(bankAccount).isEqualTo(new BankAccount("123", BigDecimal.valueOf(1000), List.of(), 4L));
+        verify(jpaRepository, never()).findById(any());
     }
 
     @Test
     void shouldNotUpdateInvalidAccount() {
         // GIVEN
-        BankAccount bankAccount = new BankAccount("fake-id", ZERO, emptyList());
+        List<Statement> statements = new ArrayList<>();
+        statements.add(new Statement(now(), DEPOSIT, BigDecimal.valueOf(50), BigDecimal.valueOf(50)));
+        BankAccount bankAccount = new BankAccount("fake-id", BigDecimal.valueOf(50), statements, 0L);
 
         // WHEN - THEN
         Exception exception = assertThrows(AccountNotFoundException.class, () -> repository.update(bankAccount));
         assertThat(exception.getMessage()).isEqualTo(INVALID_ACCOUNT_MESSAGE);
+        verify(statementJpaRepository, never()).saveAll(any());
     }
 
     @Test
@@ -163,23 +329,15 @@ public class BankAccountEntityRepositoryTest {
         // GIVEN
         BigDecimal initialBalance = BigDecimal.valueOf(100);
         BigDecimal newBalance = BigDecimal.valueOf(150);
-        LocalDateTime now = now();
 
         List<Statement> statements = new ArrayList<>();
-        statements.add(new Statement(now, DEPOSIT, initialBalance, initialBalance));
+        statements.add(new Statement(now(), DEPOSIT, initialBalance, initialBalance));
         BankAccount bankAccount = new BankAccount("123", newBalance, statements);
 
-        List<StatementEntity> statementEntities = new ArrayList<>();
-        statementEntities.add(new StatementEntity("123-1", now, DEPOSIT,
-            initialBalance, initialBalance));
-        BankAccountEntity bankAccountEntity = new BankAccountEntity("123",
-            initialBalance, statementEntities);
-
-        when(jpaRepository.findById("123")).thenReturn(Optional.of(bankAccountEntity));
-
         // WHEN - THEN
         Exception exception = assertThrows(IllegalArgumentException.class, () -> repository.update(bankAccount));
         assertThat(exception.getMessage()).isEqualTo(UPDATE_WITHOUT_STATEMENT);
+        verifyNoInteractions(jpaRepository, statementJpaRepository);
     }
 
     @Test
@@ -187,16 +345,242 @@ public class BankAccountEntityRepositoryTest {
         // GIVEN
         BankAccount bankAccount = new BankAccount("123", BigDecimal.valueOf(100), emptyList());
 
-        List<StatementEntity> statementEntities = new ArrayList<>();
-        statementEntities.add(new StatementEntity("123-1", now(), DEPOSIT,
-            BigDecimal.valueOf(50), BigDecimal.valueOf(50)));
-        BankAccountEntity bankAccountEntity = new BankAccountEntity("123",
-            BigDecimal.valueOf(50), statementEntities);
-
-        when(jpaRepository.findById("123")).thenReturn(Optional.of(bankAccountEntity));
-
         // WHEN - THEN
         Exception exception = assertThrows(IllegalArgumentException.class, () -> repository.update(bankAccount));
         assertThat(exception.getMessage()).isEqualTo(UPDATE_WITHOUT_STATEMENT);
+        verifyNoInteractions(jpaRepository, statementJpaRepository);
+    }
+
+    @Test
+    void shouldFindAPageOfStatements() {
+        // GIVEN
+        LocalDateTime from = now().minusDays(1);
+        StatementEntity statementEntity = new StatementEntity("123-1", "123", from.plusHours(1), DEPOSIT,
+            BigDecimal.valueOf(1000), BigDecimal.valueOf(1000));
+
+        when(jpaRepository.existsById("123")).thenReturn(true);
+        when(statementJpaRepository.findByAccountIdAndDateGreaterThanEqualAndDateLessThan(
+            eq("123"), eq(from), any(), any())).thenReturn(List.of(statementEntity));
+
+        // WHEN
+        List<Statement> statements = repository.findStatements("123", from, null, 2, 20);
+
+        // THEN
+        ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+        verify(statementJpaRepository).findByAccountIdAndDateGreaterThanEqualAndDateLessThan(
+            eq("123"), eq(from), any(), captor.capture());
+        assertThat(captor.getValue().getPageNumber()).isEqualTo(2);
+        assertThat(captor.getValue().getPageSize()).isEqualTo(20);
+        assertThat(captor.getValue().getSort().getOrderFor("date").isDescending()).isTrue();
+        assertThat(statements).hasSize(1)
+            .extracting(Statement::getOperationType, Statement::getAmount)
+            .containsExactly(tuple(DEPOSIT, BigDecimal.valueOf(1000)));
+    }
+
+    @Test
+    void shouldCompleteAShortPageFromTheArchive() {
+        // GIVEN
+        Statement archived = new Statement(LocalDateTime.of(2020, 1, 5, 10, 0), DEPOSIT,
+            BigDecimal.valueOf(100), BigDecimal.valueOf(100));
+        when(jpaRepository.existsById("123")).thenReturn(true);
+        when(statementJpaRepository.findByAccountIdAndDateGreaterThanEqualAndDateLessThan(
+            eq("123"), any(), any(), any())).thenReturn(emptyList());
+        when(statementJpaRepository.countByAccountIdAndDateGreaterThanEqualAndDateLessThan(eq("123"), any(), any()))
+            .thenReturn(4L);
+        when(statementArchive.find(eq("123"), any(), any(), eq(6L), eq(10))).thenReturn(List.of(archived));
+
+        // WHEN
+        List<Statement> statements = repository.findStatements("123", null, null, 1, 10);
+
+        // THEN
+        assertThat(statements).containsExactly(archived);
+    }
+
+    @Test
+    void shouldNotReadTheArchiveForAFullPage() {
+        // GIVEN
+        StatementEntity statementEntity = new StatementEntity("123-1", "123", now(), DEPOSIT,
+            BigDecimal.valueOf(1000), BigDecimal.valueOf(1000));
+        when(jpaRepository.existsById("123")).thenReturn(true);
+        when(statementJpaRepository.findByAccountIdAndDateGreaterThanEqualAndDateLessThan(
+            eq("123"), any(), any(), any())).thenReturn(List.of(statementEntity));
+
+        // WHEN
+        List<Statement> statements = repository.findStatements("123", null, null, 0, 1);
+
+        // THEN
+        assertThat(statements).hasSize(1);
+        verifyNoInteractions(statementArchive);
+    }
+
+    @Test
+    void shouldRecordTimingAndSizeOfLoadedStatements() {
+        // GIVEN
+        StatementEntity statementEntity = new StatementEntity("123-1", "123", now(), DEPOSIT,
+            BigDecimal.valueOf(1000), BigDecimal.valueOf(1000));
+        when(jpaRepository.existsById("123")).thenReturn(true);
+        when(statementJpaRepository.findByAccountIdAndDateGreaterThanEqualAndDateLessThan(
+            eq("123"), any(), any(), any())).thenReturn(List.of(statementEntity, statementEntity));
+
+        // WHEN
+        repository.findStatements("123", null, null, 0, 20);
+
+        // THEN
+        assertThat(meterRegistry.get(BankAccountEntityRepository.REPOSITORY_TIMER)
+            .tag("operation", "findStatements").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(BankAccountEntityRepository.STATEMENTS_LOADED_SUMMARY)
+            .tag("operation", "findStatements").summary().totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotFindStatementsOfInvalidAccount() {
+        // WHEN - THEN
+        Exception exception = assertThrows(AccountNotFoundException.class,
+            () -> repository.findStatements("fake-id", null, null, 0, 10));
+        assertThat(exception.getMessage()).isEqualTo(INVALID_ACCOUNT_MESSAGE);
+        verifyNoInteractions(statementJpaRepository);
+    }
+
+    @Test
+    void shouldFindMonthlySummariesFromTheRollup() {
+        // GIVEN
+        MonthlySummary summary = new MonthlySummary(YearMonth.of(2024, 3), BigDecimal.ZERO, BigDecimal.TEN,
+            BigDecimal.ONE, BigDecimal.valueOf(9), 2);
+        when(jpaRepository.existsById("123")).thenReturn(true);
+        when(monthlySummaryRollup.find("123", YearMonth.of(2024, 1), null)).thenReturn(List.of(summary));
+
+        // WHEN
+        List<MonthlySummary> summaries = repository.findMonthlySummaries("123", YearMonth.of(2024, 1), null);
+
+        // THEN
+        assertThat(summaries).containsExactly(summary);
+        verifyNoInteractions(statementJpaRepository);
+    }
+
+    @Test
+    void shouldRebuildMonthlySummariesAfterTakingTheAccountVersion() {
+        // GIVEN
+        StatementEntity statementEntity = new StatementEntity("123-1", "123", now(), DEPOSIT,
+            BigDecimal.valueOf(1000), BigDecimal.valueOf(1000));
+        BankAccountStateView state = state(BigDecimal.valueOf(1000), 3L);
+        when(jpaRepository.findStateByAccountId("123")).thenReturn(Optional.of(state));
+        when(jpaRepository.addToBalance("123", BigDecimal.ZERO, 3L)).thenReturn(1);
+        when(jpaRepository.findById("123")).thenReturn(Optional.of(
+            new BankAccountEntity("123", BigDecimal.valueOf(1000), List.of(statementEntity), 4L)));
+
+        // WHEN
+        repository.rebuildMonthlySummaries("123");
+
+        // THEN
+        InOrder inOrder = inOrder(jpaRepository, monthlySummaryRollup);
+        inOrder.verify(jpaRepository).addToBalance("123", BigDecimal.ZERO, 3L);
+        inOrder.verify(monthlySummaryRollup).rebuild(eq("123"), argThat(history -> history.size() == 1));
+    }
+
+    @Test
+    void shouldNotRebuildMonthlySummariesBehindAConcurrentWrite() {
+        // GIVEN
+        BankAccountStateView state = state(BigDecimal.valueOf(1000), 3L);
+        when(jpaRepository.findStateByAccountId("123")).thenReturn(Optional.of(state));
+        when(jpaRepository.addToBalance("123", BigDecimal.ZERO, 3L)).thenReturn(0);
+        when(jpaRepository.existsById("123")).thenReturn(true);
+
+        // WHEN - THEN
+        assertThrows(ConcurrentUpdateException.class, () -> repository.rebuildMonthlySummaries("123"));
+        verifyNoInteractions(monthlySummaryRollup);
+    }
+
+    @Test
+    void shouldNotFindMonthlySummariesOfInvalidAccount() {
+        // WHEN - THEN
+        Exception exception = assertThrows(AccountNotFoundException.class,
+            () -> repository.findMonthlySummaries("fake-id", null, null));
+        assertThat(exception.getMessage()).isEqualTo(INVALID_ACCOUNT_MESSAGE);
+        verifyNoInteractions(monthlySummaryRollup);
+    }
+
+    @Test
+    void shouldDepositToAnExistingSlotWithoutWritingTheAccount() {
+        // GIVEN
+        LocalDateTime date = now();
+        when(jpaRepository.existsById("123")).thenReturn(true);
+        when(subBalanceJpaRepository.addToBalance("123", 2, BigDecimal.TEN)).thenReturn(1);
+
+        // WHEN
+        repository.depositToSlot("123", 2, date, BigDecimal.TEN);
+
+        // THEN
+        verify(subBalanceJpaRepository, never()).saveAndFlush(any());
+        verify(pendingDepositJpaRepository).save(argThat((PendingDepositEntity deposit) -> deposit.getSlot() == 2
+            && deposit.getDate().equals(date) && deposit.getAmount().equals(BigDecimal.TEN)));
+        verify(jpaRepository, never()).addToBalance(any(), any(), any());
+    }
+
+    @Test
+    void shouldCreateTheSlotOnItsFirstDeposit() {
+        // GIVEN
+        when(jpaRepository.existsById("123")).thenReturn(true);
+
+        // WHEN
+        repository.depositToSlot("123", 2, now(), BigDecimal.TEN);
+
+        // THEN
+        verify(subBalanceJpaRepository).saveAndFlush(argThat((SubBalanceEntity subBalance) ->
+            subBalance.getSlot() == 2 && subBalance.getBalance().equals(BigDecimal.TEN)));
+    }
+
+    @Test
+    void shouldNotDepositToASlotOfInvalidAccount() {
+        // WHEN - THEN
+        Exception exception = assertThrows(AccountNotFoundException.class,
+            () -> repository.depositToSlot("fake-id", 0, now(), BigDecimal.TEN));
+        assertThat(exception.getMessage()).isEqualTo(INVALID_ACCOUNT_MESSAGE);
+        verifyNoInteractions(subBalanceJpaRepository, pendingDepositJpaRepository);
+    }
+
+    @Test
+    void shouldSettlePendingDepositsAsStatementsInDateOrder() {
+        // GIVEN
+        LocalDateTime date = now();
+        PendingDepositEntity first = new PendingDepositEntity("p-1", "123", 0, date, BigDecimal.TEN);
+        PendingDepositEntity second = new PendingDepositEntity("p-2", "123", 1, date.plusSeconds(1), BigDecimal.ONE);
+        PendingDepositEntity third = new PendingDepositEntity("p-3", "123", 0, date.plusSeconds(2), BigDecimal.ONE);
+        BankAccountStateView state = mock(BankAccountStateView.class);
+        when(state.getBalance()).thenReturn(BigDecimal.valueOf(100));
+        when(state.getVersion()).thenReturn(4L);
+        when(jpaRepository.findStateByAccountId("123")).thenReturn(Optional.of(state));
+        when(pendingDepositJpaRepository.findByAccountIdOrderByDateAsc("123")).thenReturn(List.of(first, second, third));
+        when(jpaRepository.addToBalance("123", BigDecimal.valueOf(12), 4L)).thenReturn(1);
+
+        // WHEN
+        repository.settleSlots("123");
+
+        // THEN
+        verify(statementJpaRepository).saveAll(statementsCaptor.capture());
+        assertThat(statementsCaptor.getValue())
+            .extracting(StatementEntity::getDate, StatementEntity::getAmount, StatementEntity::getBalance)
+            .containsExactly(
+                tuple(date, BigDecimal.TEN, BigDecimal.valueOf(110)),
+                tuple(date.plusSeconds(1), BigDecimal.ONE, BigDecimal.valueOf(111)),
+                tuple(date.plusSeconds(2), BigDecimal.ONE, BigDecimal.valueOf(112)));
+        verify(subBalanceJpaRepository).addToBalance("123", 0, BigDecimal.valueOf(-11));
+        verify(subBalanceJpaRepository).addToBalance("123", 1, BigDecimal.valueOf(-1));
+        verify(pendingDepositJpaRepository).deleteAllInBatch(List.of(first, second, third));
+    }
+
+    @Test
+    void shouldNotWriteTheAccountWithoutPendingDeposits() {
+        // WHEN
+        repository.settleSlots("123");
+
+        // THEN
+        verifyNoInteractions(jpaRepository, statementJpaRepository, subBalanceJpaRepository);
+    }
+
+    private static BankAccountStateView state(BigDecimal balance, long version) {
+        BankAccountStateView state = mock(BankAccountStateView.class);
+        when(state.getBalance()).thenReturn(balance);
+        when(state.getVersion()).thenReturn(version);
+        return state;
     }
 }
@@ -0,0 +1,88 @@
+package sg.kata.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import sg.kata.entity.LedgerProjectionEntity;
+import sg.kata.model.AccountUpdate;
+import sg.kata.model.BankAccount;
+import sg.kata.model.LedgerEntry;
+import sg.kata.model.Statement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static sg.kata.model.OperationType.DEPOSIT;
+import static sg.kata.model.OperationType.WITHDRAW;
+import static sg.kata.repository.BankAccountLedgerProjection.ENGINE_PROJECTION;
+
+@ExtendWith(MockitoExtension.class)
+public class BankAccountLedgerProjectionTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 1, 10, 9, 0);
+
+    @InjectMocks
+    private BankAccountLedgerProjection projection;
+
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+
+    @Mock
+    private LedgerProjectionJpaRepository jpaRepository;
+
+    @Captor
+    private ArgumentCaptor<List<AccountUpdate>> updatesCaptor;
+
+    @Captor
+    private ArgumentCaptor<LedgerProjectionEntity> positionCaptor;
+
+    @Test
+    void shouldWriteEntriesAsStatementsAndMoveThePosition() {
+        // GIVEN
+        when(jpaRepository.findById(ENGINE_PROJECTION))
+            .thenReturn(Optional.of(new LedgerProjectionEntity(ENGINE_PROJECTION, 7)));
+        when(bankAccountRepository.findForUpdate("123"))
+            .thenReturn(new BankAccount("123", BigDecimal.valueOf(100), new ArrayList<>(), 4L));
+
+        // WHEN
+        projection.apply(List.of(
+            LedgerEntry.opening("456", DATE, 500),
+            new LedgerEntry("123", DEPOSIT, DATE, 5025, 15025),
+            new LedgerEntry("123", WITHDRAW, DATE.plusMinutes(1), 3000, 12025)));
+
+        // THEN
+        verify(bankAccountRepository).updateBatch(updatesCaptor.capture());
+        AccountUpdate update = updatesCaptor.getValue().get(0);
+        assertThat(updatesCaptor.getValue()).hasSize(1);
+        assertThat(update.newStatementCount()).isEqualTo(2);
+        assertThat(update.bankAccount().getVersion()).isEqualTo(4L);
+        assertThat(update.bankAccount().getBalance()).isEqualByComparingTo("120.25");
+        assertThat(update.bankAccount().getStatements())
+            .extracting(Statement::getOperationType, Statement::getAmount, Statement::getBalance)
+            .containsExactly(
+                tuple(DEPOSIT, new BigDecimal("50.25"), new BigDecimal("150.25")),
+                tuple(WITHDRAW, new BigDecimal("30.00"), new BigDecimal("120.25")));
+        verify(jpaRepository).save(positionCaptor.capture());
+        assertThat(positionCaptor.getValue().getPosition()).isEqualTo(10L);
+    }
+
+    @Test
+    void shouldStartFromTheFirstEntry() {
+        // GIVEN
+        when(jpaRepository.findById(ENGINE_PROJECTION)).thenReturn(Optional.empty());
+
+        // WHEN - THEN
+        assertThat(projection.position()).isZero();
+    }
+}
@@ -0,0 +1,95 @@
+package sg.kata.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import sg.kata.model.BankAccount;
+import sg.kata.model.Statement;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.time.LocalDateTime.now;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+import static sg.kata.model.OperationType.DEPOSIT;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingBankAccountRepositoryTest {
+
+    @Mock
+    private BankAccountRepository delegate;
+
+    private CachingBankAccountRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new CachingBankAccountRepository(delegate, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void shouldServeBalanceFromCache() {
+        // GIVEN
+        when(delegate.findBalanceById("123")).thenReturn(BigDecimal.valueOf(100));
+
+        // WHEN
+        repository.findBalanceById("123");
+        BigDecimal balance = repository.findBalanceById("123");
+
+        // THEN
+        assertThat(balance).isEqualTo(BigDecimal.valueOf(100));
+        verify(delegate, times(1)).findBalanceById("123");
+        assertThat(repository.balanceStats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldInvalidateBalanceAndStatementsOnUpdate() {
+        // GIVEN
+        Statement statement = new Statement(now(), DEPOSIT, BigDecimal.valueOf(50), BigDecimal.valueOf(150));
+        BankAccount bankAccount = new BankAccount("123", BigDecimal.valueOf(150), new ArrayList<>(List.of(statement)));
+
+        when(delegate.findBalanceById("123")).thenReturn(BigDecimal.valueOf(100), BigDecimal.valueOf(150));
+        when(delegate.findStatements("123", null, null, 0, 10)).thenReturn(List.of(), List.of(statement));
+        repository.findBalanceById("123");
+        repository.findStatements("123", null, null, 0, 10);
+
+        // WHEN
+        repository.update(bankAccount);
+
+        // THEN
+        verify(delegate).update(bankAccount, 1);
+        assertThat(repository.findBalanceById("123")).isEqualTo(BigDecimal.valueOf(150));
+        assertThat(repository.findStatements("123", null, null, 0, 10)).containsExactly(statement);
+    }
+
+    @Test
+    void shouldInvalidateBalanceOnSlotDeposit() {
+        // GIVEN
+        when(delegate.findBalanceById("123")).thenReturn(BigDecimal.valueOf(100), BigDecimal.valueOf(110));
+        repository.findBalanceById("123");
+
+        // WHEN
+        repository.depositToSlot("123", 3, now(), BigDecimal.TEN);
+
+        // THEN
+        verify(delegate).depositToSlot(eq("123"), eq(3), any(), eq(BigDecimal.TEN));
+        assertThat(repository.findBalanceById("123")).isEqualTo(BigDecimal.valueOf(110));
+    }
+
+    @Test
+    void shouldNotCacheOlderStatementPages() {
+        // GIVEN
+        when(delegate.findStatements("123", null, null, 1, 10)).thenReturn(List.of());
+
+        // WHEN
+        repository.findStatements("123", null, null, 1, 10);
+        repository.findStatements("123", null, null, 1, 10);
+
+        // THEN
+        verify(delegate, times(2)).findStatements("123", null, null, 1, 10);
+    }
+}
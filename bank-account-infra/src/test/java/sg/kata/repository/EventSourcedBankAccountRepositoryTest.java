@@ -0,0 +1,221 @@
+package sg.kata.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import sg.kata.datasource.ReplicaReads;
+import sg.kata.entity.BalanceSnapshotEntity;
+import sg.kata.entity.LedgerEventEntity;
+import sg.kata.exception.AccountNotFoundException;
+import sg.kata.exception.ConcurrentUpdateException;
+import sg.kata.model.BankAccount;
+import sg.kata.model.OperationType;
+import sg.kata.model.Statement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static java.time.LocalDateTime.now;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static sg.kata.model.OperationType.DEPOSIT;
+import static sg.kata.model.OperationType.WITHDRAW;
+import static sg.kata.service.BankAccountService.CONCURRENT_UPDATE_MESSAGE;
+import static sg.kata.service.BankAccountService.INVALID_ACCOUNT_MESSAGE;
+
+@ExtendWith(MockitoExtension.class)
+public class EventSourcedBankAccountRepositoryTest {
+
+    private EventSourcedBankAccountRepository repository;
+
+    @Mock
+    private LedgerEventJpaRepository eventJpaRepository;
+
+    @Mock
+    private BalanceSnapshotJpaRepository snapshotJpaRepository;
+
+    @Mock
+    private MonthlySummaryRollup monthlySummaryRollup;
+
+    @Captor
+    private ArgumentCaptor<List<LedgerEventEntity>> eventsCaptor;
+
+    @Captor
+    private ArgumentCaptor<BalanceSnapshotEntity> snapshotCaptor;
+
+    @BeforeEach
+    void setUp() {
+        repository = new EventSourcedBankAccountRepository(eventJpaRepository, snapshotJpaRepository, 10,
+            ReplicaReads.disabled(), monthlySummaryRollup);
+    }
+
+    @Test
+    void shouldRebuildBalanceFromLatestSnapshotAndTail() {
+        // GIVEN
+        when(snapshotJpaRepository.findFirstByAccountIdOrderBySequenceDesc("123"))
+            .thenReturn(Optional.of(snapshot(20, 500)));
+        when(eventJpaRepository.findByAccountIdAndSequenceGreaterThanOrderBySequenceAsc("123", 20))
+            .thenReturn(List.of(event(21, DEPOSIT, 100), event(22, WITHDRAW, 30)));
+
+        // WHEN
+        BankAccount bankAccount = repository.findForUpdate("123");
+
+        // THEN
+        assertThat(bankAccount.getBalance()).isEqualByComparingTo("570");
+        assertThat(bankAccount.getVersion()).isEqualTo(22L);
+        assertThat(bankAccount.getStatements()).isEmpty();
+        verify(eventJpaRepository, never()).findByAccountIdOrderBySequenceAsc(any());
+    }
+
+    @Test
+    void shouldNotFindAccountWithoutSnapshot() {
+        // GIVEN
+        when(snapshotJpaRepository.findFirstByAccountIdOrderBySequenceDesc("123")).thenReturn(Optional.empty());
+
+        // WHEN
+        AccountNotFoundException exception = assertThrows(AccountNotFoundException.class,
+            () -> repository.findBalanceById("123"));
+
+        // THEN
+        assertEquals(INVALID_ACCOUNT_MESSAGE, exception.getMessage());
+    }
+
+    @Test
+    void shouldReplayWholeHistory() {
+        // GIVEN
+        when(snapshotJpaRepository.findFirstByAccountIdAndSequenceLessThanEqualOrderBySequenceDesc("123", 0))
+            .thenReturn(Optional.of(snapshot(0, 0)));
+        when(eventJpaRepository.findByAccountIdOrderBySequenceAsc("123"))
+            .thenReturn(List.of(event(1, DEPOSIT, 100), event(2, WITHDRAW, 40)));
+
+        // WHEN
+        BankAccount bankAccount = repository.findById("123");
+
+        // THEN
+        assertThat(bankAccount.getBalance()).isEqualByComparingTo("60");
+        assertThat(bankAccount.getVersion()).isEqualTo(2L);
+        assertThat(bankAccount.getStatements())
+            .extracting(Statement::getOperationType, statement -> statement.getBalance().intValue())
+            .containsExactly(tuple(DEPOSIT, 100), tuple(WITHDRAW, 60));
+    }
+
+    @Test
+    void shouldAppendEventsAfterVersion() {
+        // GIVEN
+        BankAccount bankAccount = new BankAccount("123", BigDecimal.valueOf(500), new ArrayList<>(), 3L);
+        bankAccount.deposit(BigDecimal.valueOf(100));
+        bankAccount.withdraw(BigDecimal.valueOf(50));
+
+        // WHEN
+        repository.update(bankAccount, 2);
+
+        // THEN
+        verify(eventJpaRepository).saveAllAndFlush(eventsCaptor.capture());
+        assertThat(eventsCaptor.getValue())
+            .extracting(LedgerEventEntity::getSequence, LedgerEventEntity::getOperationType)
+            .containsExactly(tuple(4L, DEPOSIT), tuple(5L, WITHDRAW));
+        verify(snapshotJpaRepository, never()).save(any());
+        assertThat(bankAccount.getVersion()).isEqualTo(5L);
+    }
+
+    @Test
+    void shouldWriteSnapshotWhenCrossingInterval() {
+        // GIVEN
+        BankAccount bankAccount = new BankAccount("123", BigDecimal.valueOf(500), new ArrayList<>(), 9L);
+        bankAccount.deposit(BigDecimal.valueOf(100));
+
+        // WHEN
+        repository.update(bankAccount);
+
+        // THEN
+        verify(snapshotJpaRepository).save(snapshotCaptor.capture());
+        assertThat(snapshotCaptor.getValue().getSequence()).isEqualTo(10L);
+        assertThat(snapshotCaptor.getValue().getBalance()).isEqualByComparingTo("600");
+    }
+
+    @Test
+    void shouldNotAppendOverAConcurrentWriter() {
+        // GIVEN
+        BankAccount bankAccount = new BankAccount("123", BigDecimal.valueOf(500), new ArrayList<>(), 3L);
+        bankAccount.deposit(BigDecimal.valueOf(100));
+        when(eventJpaRepository.saveAllAndFlush(anyList()))
+            .thenThrow(new DataIntegrityViolationException("UK_LEDGER_EVENT_ACCOUNT_SEQUENCE"));
+
+        // WHEN
+        ConcurrentUpdateException exception = assertThrows(ConcurrentUpdateException.class,
+            () -> repository.update(bankAccount));
+
+        // THEN
+        assertEquals(CONCURRENT_UPDATE_MESSAGE, exception.getMessage());
+        assertThat(bankAccount.getVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    void shouldComputeRunningBalancesOfAPage() {
+        // GIVEN
+        when(eventJpaRepository.findByAccountIdAndDateGreaterThanEqualAndDateLessThan(
+            eq("123"), any(), any(), any(Pageable.class)))
+            .thenReturn(List.of(event(13, WITHDRAW, 20), event(12, DEPOSIT, 50)));
+        when(snapshotJpaRepository.findFirstByAccountIdAndSequenceLessThanEqualOrderBySequenceDesc("123", 11))
+            .thenReturn(Optional.of(snapshot(10, 300)));
+        when(eventJpaRepository.findByAccountIdAndSequenceBetweenOrderBySequenceAsc("123", 11, 11))
+            .thenReturn(List.of(event(11, DEPOSIT, 10)));
+
+        // WHEN
+        List<Statement> statements = repository.findStatements("123", null, null, 0, 2);
+
+        // THEN
+        assertThat(statements)
+            .extracting(Statement::getOperationType, statement -> statement.getBalance().intValue())
+            .containsExactly(tuple(WITHDRAW, 340), tuple(DEPOSIT, 360));
+    }
+
+    @Test
+    void shouldWalkHistoryBackwardsFromBalanceAtNewestStreamedEvent() {
+        // GIVEN
+        when(snapshotJpaRepository.findFirstByAccountIdAndSequenceLessThanEqualOrderBySequenceDesc("123", 2))
+            .thenReturn(Optional.of(snapshot(0, 0)));
+        when(eventJpaRepository.findByAccountIdAndSequenceBetweenOrderBySequenceAsc("123", 1, 2))
+            .thenReturn(List.of(event(1, DEPOSIT, 100), event(2, WITHDRAW, 40)));
+        when(eventJpaRepository.streamByAccountId("123"))
+            .thenReturn(Stream.of(view(event(2, WITHDRAW, 40)), view(event(1, DEPOSIT, 100))));
+        List<Statement> statements = new ArrayList<>();
+
+        // WHEN
+        repository.forEachStatement("123", statements::add);
+
+        // THEN
+        assertThat(statements)
+            .extracting(Statement::getOperationType, statement -> statement.getBalance().intValue())
+            .containsExactly(tuple(WITHDRAW, 60), tuple(DEPOSIT, 100));
+    }
+
+    private static BalanceSnapshotEntity snapshot(long sequence, long balance) {
+        return new BalanceSnapshotEntity("s-" + sequence, "123", sequence, BigDecimal.valueOf(balance));
+    }
+
+    private static LedgerEventView view(LedgerEventEntity event) {
+        return new LedgerEventView(event.getSequence(), event.getDate(), event.getOperationType(), event.getAmount());
+    }
+
+    private static LedgerEventEntity event(long sequence, OperationType operationType, long amount) {
+        LocalDateTime date = now();
+        return new LedgerEventEntity("e-" + sequence, "123", sequence, date, operationType, BigDecimal.valueOf(amount));
+    }
+}
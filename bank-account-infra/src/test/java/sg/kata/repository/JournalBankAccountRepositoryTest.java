@@ -0,0 +1,258 @@
+package sg.kata.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sg.kata.exception.AccountNotFoundException;
+import sg.kata.exception.ConcurrentUpdateException;
+import sg.kata.journal.FsyncPolicy;
+import sg.kata.journal.JournalRecord;
+import sg.kata.journal.MappedJournal;
+import sg.kata.model.BankAccount;
+import sg.kata.model.MonthlySummary;
+import sg.kata.model.Statement;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static sg.kata.model.OperationType.DEPOSIT;
+import static sg.kata.model.OperationType.WITHDRAW;
+import static sg.kata.service.BankAccountService.CONCURRENT_UPDATE_MESSAGE;
+import static sg.kata.service.BankAccountService.INVALID_ACCOUNT_MESSAGE;
+
+public class JournalBankAccountRepositoryTest {
+
+    private static final int SEGMENT_SIZE = 4 * JournalRecord.SIZE;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldApplyDepositAndWithdraw() {
+        // GIVEN
+        JournalBankAccountRepository repository = open();
+        repository.open("123", BigDecimal.valueOf(100));
+
+        // WHEN
+        deposit(repository, "123", "50.25");
+        withdraw(repository, "123", "30");
+
+        // THEN
+        assertThat(repository.findBalanceById("123")).isEqualByComparingTo("120.25");
+        assertThat(repository.findStatements("123", null, null, 0, 10))
+            .extracting(Statement::getOperationType, Statement::getBalance)
+            .containsExactly(
+                tuple(WITHDRAW, new BigDecimal("120.25")),
+                tuple(DEPOSIT, new BigDecimal("150.25")));
+    }
+
+    @Test
+    void shouldRebuildIndexAcrossSegmentsOnStartup() {
+        // GIVEN
+        JournalBankAccountRepository repository = open();
+        repository.open("123", BigDecimal.ZERO);
+        repository.open("456", BigDecimal.TEN);
+        for (int i = 0; i < 5; i++) {
+            deposit(repository, "123", "1");
+            deposit(repository, "456", "2");
+        }
+
+        // WHEN
+        JournalBankAccountRepository reopened = open();
+
+        // THEN
+        assertThat(segmentCount()).isEqualTo(3);
+        assertThat(reopened.findBalanceById("123")).isEqualByComparingTo("5");
+        assertThat(reopened.findBalanceById("456")).isEqualByComparingTo("20");
+        assertThat(reopened.findById("456").getStatements()).hasSize(5);
+        assertThat(reopened.findForUpdate("456").getVersion()).isEqualTo(6L);
+    }
+
+    @Test
+    void shouldDropTornTailOnStartup() throws IOException {
+        // GIVEN
+        JournalBankAccountRepository repository = open();
+        repository.open("123", BigDecimal.ZERO);
+        deposit(repository, "123", "10");
+        deposit(repository, "123", "20");
+        try (FileChannel channel = FileChannel.open(segments().get(0), WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), 2L * JournalRecord.SIZE + 70);
+        }
+
+        // WHEN
+        JournalBankAccountRepository reopened = open();
+        deposit(reopened, "123", "5");
+
+        // THEN
+        assertThat(reopened.findBalanceById("123")).isEqualByComparingTo("15");
+        assertThat(open().findById("123").getStatements()).hasSize(2);
+    }
+
+    @Test
+    void shouldNotUpdateAccountWithStaleVersion() {
+        // GIVEN
+        JournalBankAccountRepository repository = open();
+        repository.open("123", BigDecimal.ZERO);
+        BankAccount stale = repository.findForUpdate("123");
+        deposit(repository, "123", "10");
+        stale.deposit(BigDecimal.ONE);
+
+        // WHEN
+        ConcurrentUpdateException exception = assertThrows(ConcurrentUpdateException.class,
+            () -> repository.update(stale));
+
+        // THEN
+        assertEquals(CONCURRENT_UPDATE_MESSAGE, exception.getMessage());
+        assertThat(repository.findBalanceById("123")).isEqualByComparingTo("10");
+    }
+
+    @Test
+    void shouldRebuildMonthlySummariesOnStartup() {
+        // GIVEN
+        JournalBankAccountRepository repository = open();
+        repository.open("123", BigDecimal.valueOf(100));
+        BankAccount bankAccount = repository.findForUpdate("123");
+        bankAccount.getStatements().add(new Statement(LocalDateTime.of(2024, 1, 10, 9, 0), DEPOSIT,
+            new BigDecimal("50.00"), new BigDecimal("150.00")));
+        bankAccount.getStatements().add(new Statement(LocalDateTime.of(2024, 1, 20, 9, 0), WITHDRAW,
+            new BigDecimal("20.00"), new BigDecimal("130.00")));
+        bankAccount.getStatements().add(new Statement(LocalDateTime.of(2024, 2, 2, 9, 0), WITHDRAW,
+            new BigDecimal("30.00"), new BigDecimal("100.00")));
+        bankAccount.setBalance(new BigDecimal("100.00"));
+        repository.update(bankAccount, 3);
+
+        // WHEN
+        JournalBankAccountRepository reopened = open();
+
+        // THEN
+        assertThat(reopened.findMonthlySummaries("123", null, null)).containsExactly(
+            new MonthlySummary(YearMonth.of(2024, 1), new BigDecimal("100.00"), new BigDecimal("50.00"),
+                new BigDecimal("20.00"), new BigDecimal("130.00"), 2),
+            new MonthlySummary(YearMonth.of(2024, 2), new BigDecimal("130.00"), BigDecimal.ZERO,
+                new BigDecimal("30.00"), new BigDecimal("100.00"), 1));
+        assertThat(reopened.findMonthlySummaries("123", YearMonth.of(2024, 2), YearMonth.of(2024, 12)))
+            .extracting(MonthlySummary::month)
+            .containsExactly(YearMonth.of(2024, 2));
+    }
+
+    @Test
+    void shouldNotFindInvalidAccount() {
+        // GIVEN
+        JournalBankAccountRepository repository = open();
+
+        // WHEN
+        AccountNotFoundException exception = assertThrows(AccountNotFoundException.class,
+            () -> repository.findBalanceById("123"));
+
+        // THEN
+        assertEquals(INVALID_ACCOUNT_MESSAGE, exception.getMessage());
+        assertThrows(AccountNotFoundException.class, () -> repository.forEachStatement("123", statement -> {
+        }));
+    }
+
+    @Test
+    void shouldReadBalanceWhileAnAppendIsInProgress() throws Exception {
+        // GIVEN
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE, FsyncPolicy.NEVER, Duration.ZERO);
+        JournalBankAccountRepository repository = new JournalBankAccountRepository(journal);
+        repository.open("123", BigDecimal.TEN);
+        CountDownLatch appending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread writer = new Thread(() -> journal.withAppendLock(() -> {
+            appending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        writer.start();
+        appending.await();
+
+        // WHEN - THEN
+        try {
+            assertThat(repository.findBalanceById("123")).isEqualByComparingTo("10");
+        } finally {
+            release.countDown();
+            writer.join();
+        }
+    }
+
+    @Test
+    void shouldKeepConcurrentWritesWhenForcingEachOne() throws Exception {
+        // GIVEN
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE, FsyncPolicy.ALWAYS, Duration.ZERO);
+        JournalBankAccountRepository repository = new JournalBankAccountRepository(journal);
+        repository.open("123", BigDecimal.ZERO);
+        repository.open("456", BigDecimal.ZERO);
+
+        // WHEN
+        List<Thread> writers = new ArrayList<>();
+        for (String accountId : List.of("123", "456")) {
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < 25; i++) {
+                    deposit(repository, accountId, "1");
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        // THEN
+        assertThat(journal.size()).isEqualTo(52);
+        JournalBankAccountRepository reopened = open();
+        assertThat(reopened.findBalanceById("123")).isEqualByComparingTo("25");
+        assertThat(reopened.findBalanceById("456")).isEqualByComparingTo("25");
+        assertThat(segmentCount()).isEqualTo(13);
+    }
+
+    private JournalBankAccountRepository open() {
+        return new JournalBankAccountRepository(
+            new MappedJournal(directory, SEGMENT_SIZE, FsyncPolicy.NEVER, Duration.ZERO));
+    }
+
+    private static void deposit(JournalBankAccountRepository repository, String accountId, String amount) {
+        BankAccount bankAccount = repository.findForUpdate(accountId);
+        bankAccount.deposit(new BigDecimal(amount));
+        repository.update(bankAccount);
+    }
+
+    private static void withdraw(JournalBankAccountRepository repository, String accountId, String amount) {
+        BankAccount bankAccount = repository.findForUpdate(accountId);
+        bankAccount.withdraw(new BigDecimal(amount));
+        repository.update(bankAccount);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private long segmentCount() {
+        try {
+            return segments().size();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
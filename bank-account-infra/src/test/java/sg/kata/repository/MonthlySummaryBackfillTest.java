@@ -0,0 +1,68 @@
+package sg.kata.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import sg.kata.exception.ConcurrentUpdateException;
+import sg.kata.service.ConflictRetryPolicy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MonthlySummaryBackfillTest {
+
+    @Test
+    void shouldRebuildEveryAccountPageByPage() {
+        // GIVEN
+        List<String> accounts = new ArrayList<>();
+        for (int i = 0; i < 501; i++) {
+            accounts.add("account-" + i);
+        }
+        List<String> rebuilt = new ArrayList<>();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MonthlySummaryBackfill backfill = new MonthlySummaryBackfill(
+            page -> page(accounts, page), rebuilt::add, retryPolicy(), meterRegistry);
+
+        // WHEN
+        long count = backfill.run();
+
+        // THEN
+        assertThat(count).isEqualTo(501);
+        assertThat(rebuilt).isEqualTo(accounts);
+        assertThat(meterRegistry.get(MonthlySummaryBackfill.BACKFILLED_ACCOUNTS_COUNTER).counter().count())
+            .isEqualTo(501);
+    }
+
+    @Test
+    void shouldRetryAnAccountThatLostItsVersionCheck() {
+        // GIVEN
+        AtomicInteger attempts = new AtomicInteger();
+        MonthlySummaryBackfill backfill = new MonthlySummaryBackfill(
+            page -> page(List.of("123"), page),
+            accountId -> {
+                if (attempts.incrementAndGet() == 1) {
+                    throw new ConcurrentUpdateException("conflict");
+                }
+            },
+            retryPolicy(), new SimpleMeterRegistry());
+
+        // WHEN
+        backfill.run();
+
+        // THEN
+        assertThat(attempts).hasValue(2);
+    }
+
+    private static List<String> page(List<String> accounts, Pageable page) {
+        int from = (int) Math.min(page.getOffset(), accounts.size());
+        return accounts.subList(from, Math.min(from + page.getPageSize(), accounts.size()));
+    }
+
+    private static ConflictRetryPolicy retryPolicy() {
+        return new ConflictRetryPolicy(3, Duration.ZERO, Duration.ZERO);
+    }
+}
@@ -0,0 +1,128 @@
+package sg.kata.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import sg.kata.entity.MonthlySummaryEntity;
+import sg.kata.model.MonthlySummary;
+import sg.kata.model.OperationType;
+import sg.kata.model.Statement;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static sg.kata.model.OperationType.DEPOSIT;
+import static sg.kata.model.OperationType.WITHDRAW;
+
+@ExtendWith(MockitoExtension.class)
+public class MonthlySummaryRollupTest {
+
+    private static final LocalDate JANUARY = LocalDate.of(2024, 1, 1);
+    private static final LocalDate FEBRUARY = LocalDate.of(2024, 2, 1);
+
+    @InjectMocks
+    private MonthlySummaryRollup rollup;
+
+    @Mock
+    private MonthlySummaryJpaRepository monthlySummaryJpaRepository;
+
+    @Captor
+    private ArgumentCaptor<MonthlySummaryEntity> summaryCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<MonthlySummaryEntity>> summariesCaptor;
+
+    @Test
+    void shouldAddStatementsToTheRowOfTheirMonth() {
+        // GIVEN
+        List<Statement> statements = List.of(
+            statement(LocalDateTime.of(2024, 1, 5, 10, 0), DEPOSIT, 50, 150),
+            statement(LocalDateTime.of(2024, 1, 6, 10, 0), WITHDRAW, 20, 130));
+        when(monthlySummaryJpaRepository.addOperations("123", JANUARY, BigDecimal.valueOf(50),
+            BigDecimal.valueOf(20), BigDecimal.valueOf(130), 2)).thenReturn(1);
+
+        // WHEN
+        rollup.record("123", statements);
+
+        // THEN
+        verify(monthlySummaryJpaRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldCreateTheRowOfANewMonthWithItsOpeningBalance() {
+        // GIVEN
+        List<Statement> statements = List.of(
+            statement(LocalDateTime.of(2024, 1, 31, 23, 0), DEPOSIT, 50, 150),
+            statement(LocalDateTime.of(2024, 2, 1, 8, 0), WITHDRAW, 30, 120));
+        when(monthlySummaryJpaRepository.addOperations("123", JANUARY, BigDecimal.valueOf(50),
+            BigDecimal.ZERO, BigDecimal.valueOf(150), 1)).thenReturn(1);
+        when(monthlySummaryJpaRepository.addOperations("123", FEBRUARY, BigDecimal.ZERO,
+            BigDecimal.valueOf(30), BigDecimal.valueOf(120), 1)).thenReturn(0);
+
+        // WHEN
+        rollup.record("123", statements);
+
+        // THEN
+        verify(monthlySummaryJpaRepository).save(summaryCaptor.capture());
+        assertThat(summaryCaptor.getValue())
+            .extracting(MonthlySummaryEntity::getMonthStart, MonthlySummaryEntity::getOpeningBalance,
+                MonthlySummaryEntity::getClosingBalance, MonthlySummaryEntity::getOperationCount)
+            .containsExactly(FEBRUARY, BigDecimal.valueOf(150), BigDecimal.valueOf(120), 1L);
+    }
+
+    @Test
+    void shouldRebuildEveryMonthFromTheWholeHistory() {
+        // GIVEN
+        List<Statement> history = List.of(
+            statement(LocalDateTime.of(2024, 1, 5, 10, 0), DEPOSIT, 50, 150),
+            statement(LocalDateTime.of(2024, 1, 6, 10, 0), WITHDRAW, 20, 130),
+            statement(LocalDateTime.of(2024, 2, 1, 8, 0), WITHDRAW, 30, 100));
+
+        // WHEN
+        rollup.rebuild("123", history);
+
+        // THEN
+        verify(monthlySummaryJpaRepository).deleteByAccountId("123");
+        verify(monthlySummaryJpaRepository).saveAll(summariesCaptor.capture());
+        assertThat(summariesCaptor.getValue())
+            .extracting(MonthlySummaryEntity::getMonthStart, MonthlySummaryEntity::getOpeningBalance,
+                MonthlySummaryEntity::getClosingBalance, MonthlySummaryEntity::getOperationCount)
+            .containsExactly(
+                tuple(JANUARY, BigDecimal.valueOf(100), BigDecimal.valueOf(130), 2L),
+                tuple(FEBRUARY, BigDecimal.valueOf(130), BigDecimal.valueOf(100), 1L));
+    }
+
+    @Test
+    void shouldReadSummariesOfTheRequestedMonths() {
+        // GIVEN
+        when(monthlySummaryJpaRepository.findByAccountIdAndMonthStartBetweenOrderByMonthStartAsc(
+            "123", JANUARY, LocalDate.of(9999, 12, 1)))
+            .thenReturn(List.of(new MonthlySummaryEntity("1", "123", JANUARY, BigDecimal.valueOf(100),
+                BigDecimal.valueOf(50), BigDecimal.valueOf(20), BigDecimal.valueOf(130), 2)));
+
+        // WHEN
+        List<MonthlySummary> summaries = rollup.find("123", YearMonth.of(2024, 1), null);
+
+        // THEN
+        assertThat(summaries).containsExactly(new MonthlySummary(YearMonth.of(2024, 1), BigDecimal.valueOf(100),
+            BigDecimal.valueOf(50), BigDecimal.valueOf(20), BigDecimal.valueOf(130), 2));
+    }
+
+    private static Statement statement(LocalDateTime date, OperationType type, long amount,
+                                       long balance) {
+        return new Statement(date, type, BigDecimal.valueOf(amount), BigDecimal.valueOf(balance));
+    }
+}
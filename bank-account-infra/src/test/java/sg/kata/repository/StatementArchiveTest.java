@@ -0,0 +1,156 @@
+package sg.kata.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import sg.kata.entity.StatementArchiveEntity;
+import sg.kata.entity.StatementEntity;
+import sg.kata.model.OperationType;
+import sg.kata.model.Statement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static sg.kata.model.OperationType.DEPOSIT;
+import static sg.kata.model.OperationType.WITHDRAW;
+
+@ExtendWith(MockitoExtension.class)
+public class StatementArchiveTest {
+
+    private static final LocalDateTime OLDEST = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime NEWEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    @InjectMocks
+    private StatementArchive statementArchive;
+
+    @Mock
+    private StatementEntityJpaRepository statementJpaRepository;
+
+    @Mock
+    private StatementArchiveJpaRepository statementArchiveJpaRepository;
+
+    @Captor
+    private ArgumentCaptor<StatementArchiveEntity> segmentCaptor;
+
+    @Test
+    void shouldMoveOldStatementsIntoASegmentWithItsClosingBalance() {
+        // GIVEN
+        LocalDateTime before = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<StatementEntity> statements = List.of(
+            statement(LocalDateTime.of(2023, 5, 1, 10, 0, 0, 123_000_000), DEPOSIT, "100.00", "100.00"),
+            statement(LocalDateTime.of(2023, 6, 1, 10, 0), WITHDRAW, "30.50", "69.50"));
+        when(statementJpaRepository.findByAccountIdAndDateLessThanOrderByDateAsc(eq("123"), eq(before), any()))
+            .thenReturn(statements);
+
+        // WHEN
+        int archived = statementArchive.archive("123", before, 1000);
+
+        // THEN
+        assertThat(archived).isEqualTo(2);
+        verify(statementArchiveJpaRepository).save(segmentCaptor.capture());
+        StatementArchiveEntity segment = segmentCaptor.getValue();
+        assertThat(segment.getFirstDate()).isEqualTo(statements.get(0).getDate());
+        assertThat(segment.getLastDate()).isEqualTo(statements.get(1).getDate());
+        assertThat(segment.getStatementCount()).isEqualTo(2);
+        assertThat(segment.getClosingBalance()).isEqualTo(new BigDecimal("69.50"));
+        assertThat(StatementArchive.decode(segment.getPayload()))
+            .extracting(Statement::getDate, Statement::getOperationType, Statement::getAmount, Statement::getBalance)
+            .containsExactly(
+                tuple(statements.get(0).getDate(), DEPOSIT, new BigDecimal("100.00"), new BigDecimal("100.00")),
+                tuple(statements.get(1).getDate(), WITHDRAW, new BigDecimal("30.50"), new BigDecimal("69.50")));
+        verify(statementJpaRepository).deleteAllInBatch(statements);
+    }
+
+    @Test
+    void shouldNotWriteAnEmptySegment() {
+        // GIVEN
+        when(statementJpaRepository.findByAccountIdAndDateLessThanOrderByDateAsc(eq("123"), any(), any()))
+            .thenReturn(List.of());
+
+        // WHEN
+        int archived = statementArchive.archive("123", LocalDateTime.of(2024, 1, 1, 0, 0), 1000);
+
+        // THEN
+        assertThat(archived).isZero();
+        verify(statementArchiveJpaRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldReadSegmentsMostRecentFirstWithinTheRange() {
+        // GIVEN
+        LocalDateTime from = LocalDateTime.of(2023, 2, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2023, 5, 1, 0, 0);
+        StatementArchiveEntity older = segment(
+            statement(LocalDateTime.of(2023, 1, 10, 10, 0), DEPOSIT, "10", "10"),
+            statement(LocalDateTime.of(2023, 2, 10, 10, 0), DEPOSIT, "20", "30"));
+        StatementArchiveEntity newer = segment(
+            statement(LocalDateTime.of(2023, 3, 10, 10, 0), DEPOSIT, "30", "60"),
+            statement(LocalDateTime.of(2023, 4, 10, 10, 0), WITHDRAW, "5", "55"),
+            statement(LocalDateTime.of(2023, 5, 10, 10, 0), DEPOSIT, "40", "95"));
+        when(statementArchiveJpaRepository
+            .findByAccountIdAndLastDateGreaterThanEqualAndFirstDateLessThanOrderByLastDateDesc("123", from, to))
+            .thenReturn(List.of(newer, older));
+
+        // WHEN
+        List<Statement> statements = statementArchive.find("123", from, to, 1, 10);
+
+        // THEN
+        assertThat(statements).extracting(Statement::getAmount)
+            .containsExactly(new BigDecimal("30"), new BigDecimal("20"));
+    }
+
+    @Test
+    void shouldStreamEverySegmentMostRecentFirst() {
+        // GIVEN
+        StatementArchiveEntity older = segment(statement(LocalDateTime.of(2023, 1, 10, 10, 0), DEPOSIT, "10", "10"));
+        StatementArchiveEntity newer = segment(
+            statement(LocalDateTime.of(2023, 3, 10, 10, 0), DEPOSIT, "30", "40"),
+            statement(LocalDateTime.of(2023, 4, 10, 10, 0), WITHDRAW, "5", "35"));
+        when(statementArchiveJpaRepository
+            .findByAccountIdAndLastDateGreaterThanEqualAndFirstDateLessThanOrderByLastDateDesc("123", OLDEST, NEWEST))
+            .thenReturn(List.of(newer, older));
+        List<BigDecimal> balances = new ArrayList<>();
+
+        // WHEN
+        long count = statementArchive.forEach("123", OLDEST, NEWEST, statement -> balances.add(statement.getBalance()));
+
+        // THEN
+        assertThat(count).isEqualTo(3);
+        assertThat(balances).containsExactly(new BigDecimal("35"), new BigDecimal("40"), new BigDecimal("10"));
+    }
+
+    private static StatementArchiveEntity segment(StatementEntity... statements) {
+        return StatementArchiveEntity.builder()
+            .accountId("123")
+            .firstDate(statements[0].getDate())
+            .lastDate(statements[statements.length - 1].getDate())
+            .statementCount(statements.length)
+            .closingBalance(statements[statements.length - 1].getBalance())
+            .payload(StatementArchive.encode(List.of(statements)))
+            .build();
+    }
+
+    private static StatementEntity statement(LocalDateTime date, OperationType operationType, String amount,
+                                             String balance) {
+        return StatementEntity.builder()
+            .accountId("123")
+            .date(date)
+            .operationType(operationType)
+            .amount(new BigDecimal(amount))
+            .balance(new BigDecimal(balance))
+            .build();
+    }
+}
@@ -0,0 +1,75 @@
+package sg.kata.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StatementArchiverTest {
+
+    private static final LocalDateTime BEFORE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Mock
+    private StatementArchive statementArchive;
+
+    @Mock
+    private StatementEntityJpaRepository statementJpaRepository;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StatementArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        archiver = new StatementArchiver(statementArchive, statementJpaRepository, meterRegistry,
+            Duration.ofDays(365), 2, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        archiver.close();
+    }
+
+    @Test
+    void shouldArchiveEveryAccountSegmentBySegment() {
+        // GIVEN
+        when(statementJpaRepository.findAccountIdsWithStatementsBefore(eq(BEFORE), any()))
+            .thenReturn(List.of("123", "456"), List.of());
+        when(statementArchive.archive("123", BEFORE, 2)).thenReturn(2, 1);
+        when(statementArchive.archive("456", BEFORE, 2)).thenReturn(2, 0);
+
+        // WHEN
+        long archived = archiver.archiveBefore(BEFORE);
+
+        // THEN
+        assertThat(archived).isEqualTo(5);
+        verify(statementArchive, times(2)).archive("123", BEFORE, 2);
+        verify(statementArchive, times(2)).archive("456", BEFORE, 2);
+        assertThat(meterRegistry.get(StatementArchiver.ARCHIVED_STATEMENTS_COUNTER).counter().count())
+            .isEqualTo(5);
+    }
+
+    @Test
+    void shouldRejectAnEmptySegmentSize() {
+        // WHEN - THEN
+        assertThrows(IllegalArgumentException.class, () -> new StatementArchiver(statementArchive,
+            statementJpaRepository, meterRegistry, Duration.ofDays(365), 0, Duration.ofHours(1)));
+    }
+}
@@ -0,0 +1,28 @@
+package sg.kata;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationExcludeFilter;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import sg.kata.service.BankAccountService;
+
+/**
+ * WebFlux entry point. JDBC and JPA stay off, and the blocking {@link BankAccountService} is left out of the scan.
+ * The two standard filters of {@code @SpringBootApplication} are kept so that test slices still narrow the scan.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+@ComponentScan(basePackages = "sg.kata", excludeFilters = {
+    @ComponentScan.Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class),
+    @ComponentScan.Filter(type = FilterType.CUSTOM, classes = AutoConfigurationExcludeFilter.class),
+    @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = BankAccountService.class)})
+public class ReactiveBankAccountApplication {
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveBankAccountApplication.class, args);
+    }
+}
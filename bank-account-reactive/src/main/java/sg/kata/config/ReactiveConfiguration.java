@@ -0,0 +1,22 @@
+package sg.kata.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import sg.kata.repository.ReactiveBankAccountRepository;
+import sg.kata.service.ReactiveBankAccountService;
+
+import java.time.Duration;
+
+@Configuration
+public class ReactiveConfiguration {
+
+    @Bean
+    public ReactiveBankAccountService reactiveBankAccountService(
+        ReactiveBankAccountRepository reactiveBankAccountRepository,
+        @Value("${bank.retry.max-attempts:5}") int maxAttempts,
+        @Value("${bank.retry.initial-backoff:5ms}") Duration initialBackoff,
+        @Value("${bank.retry.max-backoff:200ms}") Duration maxBackoff) {
+        return new ReactiveBankAccountService(reactiveBankAccountRepository, maxAttempts, initialBackoff, maxBackoff);
+    }
+}
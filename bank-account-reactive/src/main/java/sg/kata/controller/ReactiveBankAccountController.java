@@ -0,0 +1,51 @@
+package sg.kata.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sg.kata.model.Statement;
+import sg.kata.request.AccountOperationRequest;
+import sg.kata.service.ReactiveBankAccountService;
+
+import java.math.BigDecimal;
+
+@RestController
+@RequestMapping("/api/accounts")
+@RequiredArgsConstructor
+public class ReactiveBankAccountController {
+
+    public static final String DEPOSIT_SUCCESSFUL = "Deposit successful";
+    public static final String WITHDRAW_SUCCESSFUL = "Withdraw successful";
+
+
+    private final ReactiveBankAccountService bankAccountService;
+
+    @PostMapping("/deposit")
+    public Mono<ResponseEntity<String>> deposit(@RequestBody Mono<AccountOperationRequest> request) {
+        return request
+            .flatMap(operation -> bankAccountService.deposit(operation.getAccountId(), operation.getAmount()))
+            .thenReturn(ResponseEntity.ok(DEPOSIT_SUCCESSFUL));
+    }
+
+    @PostMapping("/withdraw")
+    public Mono<ResponseEntity<String>> withdraw(@RequestBody Mono<AccountOperationRequest> request) {
+        return request
+            .flatMap(operation -> bankAccountService.withdraw(operation.getAccountId(), operation.getAmount()))
+            .thenReturn(ResponseEntity.ok(WITHDRAW_SUCCESSFUL));
+    }
+
+    @GetMapping("/balance")
+    public Mono<ResponseEntity<BigDecimal>> getBalance(@RequestBody Mono<AccountOperationRequest> request) {
+        return request
+            .flatMap(operation -> bankAccountService.getBalance(operation.getAccountId()))
+            .map(ResponseEntity::ok);
+    }
+
+    @GetMapping(value = "/statement/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Statement> exportStatement(@RequestBody Mono<AccountOperationRequest> request) {
+        return request.flatMapMany(operation -> bankAccountService.streamStatements(operation.getAccountId()));
+    }
+}
@@ -0,0 +1,38 @@
+package sg.kata.exception;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import static org.springframework.http.HttpStatus.*;
+
+@RestControllerAdvice
+public class ReactiveExceptionHandler {
+
+    private static final String INTERNAL_ERROR_MESSAGE = "An unexpected error occurred.";
+
+    @ExceptionHandler(AccountNotFoundException.class)
+    public ResponseEntity<String> handleAccountNotFoundException(AccountNotFoundException exception) {
+        return ResponseEntity.status(NOT_FOUND).body(exception.getMessage());
+    }
+
+    @ExceptionHandler(InsufficientBalanceException.class)
+    public ResponseEntity<String> handleInsufficientBalanceException(InsufficientBalanceException exception) {
+        return ResponseEntity.status(BAD_REQUEST).body(exception.getMessage());
+    }
+
+    @ExceptionHandler(InvalidAmountException.class)
+    public ResponseEntity<String> handleInvalidAmountException(InvalidAmountException exception) {
+        return ResponseEntity.status(BAD_REQUEST).body(exception.getMessage());
+    }
+
+    @ExceptionHandler(ConcurrentUpdateException.class)
+    public ResponseEntity<String> handleConcurrentUpdateException(ConcurrentUpdateException exception) {
+        return ResponseEntity.status(CONFLICT).body(exception.getMessage());
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<String> handleGenericException(Exception exception) {
+        return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(INTERNAL_ERROR_MESSAGE);
+    }
+}
@@ -0,0 +1,254 @@
+package sg.kata.repository;
+
+import io.r2dbc.spi.Blob;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sg.kata.exception.AccountNotFoundException;
+import sg.kata.exception.ConcurrentUpdateException;
+import sg.kata.model.ArchivedStatements;
+import sg.kata.model.BankAccount;
+import sg.kata.model.MonthlySummary;
+import sg.kata.model.OperationType;
+import sg.kata.model.ReversedList;
+import sg.kata.model.Statement;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static sg.kata.model.OperationType.DEPOSIT;
+import static sg.kata.service.BankAccountService.*;
+
+/**
+ * R2DBC adapter over the {@code BANK_ACCOUNT} and {@code STATEMENT} tables mapped by the JPA entities, so both
+ * variants of the API can run against the same schema. Operation types are stored by ordinal, as JPA does.
+ * {@code MONTHLY_SUMMARY} is kept up to date in the transaction that inserts each statement, as the JPA adapter does.
+ * Hot-account deposits made through the blocking api are read from {@code SUB_BALANCE} and settled from
+ * {@code PENDING_DEPOSIT} the same way too, and statements moved to {@code STATEMENT_ARCHIVE} are read after the
+ * table's, so both variants can share an account. A row written before versions
+ * existed has a null {@code VERSION}, read and checked as 0.
+ */
+@Repository
+@RequiredArgsConstructor
+public class R2dbcBankAccountRepository implements ReactiveBankAccountRepository {
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    @Override
+    public Mono<BankAccount> findForUpdate(String accountId) {
+        return databaseClient.sql("SELECT BALANCE, COALESCE(VERSION, 0) AS VERSION FROM BANK_ACCOUNT"
+                + " WHERE ACCOUNT_ID = :accountId")
+            .bind("accountId", accountId)
+            .map(row -> new BankAccount(accountId, row.get("BALANCE", BigDecimal.class), new ArrayList<>(),
+                row.get("VERSION", Long.class)))
+            .one()
+            .switchIfEmpty(Mono.error(() -> new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE)));
+    }
+
+    @Override
+    public Mono<BigDecimal> findBalanceById(String accountId) {
+        return databaseClient.sql("SELECT A.BALANCE + COALESCE((SELECT SUM(S.BALANCE) FROM SUB_BALANCE S"
+                + " WHERE S.ACCOUNT_ID = A.ACCOUNT_ID), 0) AS BALANCE"
+                + " FROM BANK_ACCOUNT A WHERE A.ACCOUNT_ID = :accountId")
+            .bind("accountId", accountId)
+            .map(row -> row.get("BALANCE", BigDecimal.class))
+            .one()
+            .switchIfEmpty(Mono.error(() -> new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE)));
+    }
+
+    @Override
+    public Mono<Void> update(BankAccount bankAccount) {
+        List<Statement> statements = bankAccount.getStatements();
+        if (statements.isEmpty()
+            || statements.get(statements.size() - 1).getBalance().compareTo(bankAccount.getBalance()) != 0) {
+            return Mono.error(new IllegalArgumentException(UPDATE_WITHOUT_STATEMENT));
+        }
+        Statement statement = statements.get(statements.size() - 1);
+        BigDecimal delta = statement.getOperationType() == DEPOSIT
+            ? statement.getAmount()
+            : statement.getAmount().negate();
+
+        return balanceUpdate(bankAccount.getAccountId(), delta, bankAccount.getVersion())
+            .then(statementInsert(bankAccount.getAccountId(), statement))
+            .then(recordMonthlySummaries(bankAccount.getAccountId(), List.of(statement)))
+            .as(transactionalOperator::transactional)
+            .doOnSuccess(rows -> bankAccount.setVersion(bankAccount.getVersion() + 1))
+            .then();
+    }
+
+    /**
+     * Writes the pending deposits as statements with the account's version check, then takes exactly the settled
+     * amounts off their slots, so deposits committed meanwhile stay pending. The version is read before the pending
+     * deposits, so that a concurrent settlement of the same deposits fails the version check.
+     */
+    @Override
+    public Mono<Void> settleSlots(String accountId) {
+        return findForUpdate(accountId)
+            .flatMap(bankAccount -> databaseClient.sql("SELECT DEPOSIT_ID, SLOT, \"DATE\", AMOUNT"
+                    + " FROM PENDING_DEPOSIT WHERE ACCOUNT_ID = :accountId ORDER BY \"DATE\"")
+                .bind("accountId", accountId)
+                .map(row -> new PendingDeposit(row.get("DEPOSIT_ID", String.class), row.get("SLOT", Integer.class),
+                    row.get("DATE", LocalDateTime.class), row.get("AMOUNT", BigDecimal.class)))
+                .all()
+                .collectList()
+                .flatMap(pendingDeposits -> pendingDeposits.isEmpty()
+                    ? Mono.<Void>empty()
+                    : settle(bankAccount, pendingDeposits)))
+            .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Streams the statements left in {@code STATEMENT}, then the archived segments, each decoded only once the
+     * previous one is consumed, most recent first.
+     */
+    @Override
+    public Flux<Statement> findStatements(String accountId) {
+        return databaseClient.sql("SELECT \"DATE\", OPERATION_TYPE, AMOUNT, BALANCE FROM STATEMENT"
+                + " WHERE ACCOUNT_ID = :accountId ORDER BY \"DATE\" DESC")
+            .bind("accountId", accountId)
+            .map(this::toStatement)
+            .all()
+            .concatWith(databaseClient.sql("SELECT PAYLOAD FROM STATEMENT_ARCHIVE WHERE ACCOUNT_ID = :accountId"
+                    + " ORDER BY LAST_DATE DESC")
+                .bind("accountId", accountId)
+                .map(row -> row.get("PAYLOAD", Blob.class))
+                .all()
+                .concatMap(R2dbcBankAccountRepository::read, 1)
+                .concatMapIterable(payload -> ReversedList.of(ArchivedStatements.decode(payload)), 1));
+    }
+
+    private static Mono<byte[]> read(Blob blob) {
+        return Flux.from(blob.stream())
+            .collect(ByteArrayOutputStream::new, (bytes, buffer) -> {
+                byte[] chunk = new byte[buffer.remaining()];
+                buffer.get(chunk);
+                bytes.writeBytes(chunk);
+            })
+            .map(ByteArrayOutputStream::toByteArray);
+    }
+
+    private Mono<Void> settle(BankAccount bankAccount, List<PendingDeposit> pendingDeposits) {
+        String accountId = bankAccount.getAccountId();
+        BigDecimal balance = bankAccount.getBalance();
+        List<Statement> statements = new ArrayList<>(pendingDeposits.size());
+        Map<Integer, BigDecimal> settledBySlot = new HashMap<>();
+        for (PendingDeposit pendingDeposit : pendingDeposits) {
+            balance = balance.add(pendingDeposit.amount());
+            statements.add(new Statement(pendingDeposit.date(), DEPOSIT, pendingDeposit.amount(), balance));
+            settledBySlot.merge(pendingDeposit.slot(), pendingDeposit.amount(), BigDecimal::add);
+        }
+        return balanceUpdate(accountId, balance.subtract(bankAccount.getBalance()), bankAccount.getVersion())
+            .thenMany(Flux.fromIterable(statements).concatMap(statement -> statementInsert(accountId, statement)))
+            .then(recordMonthlySummaries(accountId, statements))
+            .thenMany(Flux.fromIterable(settledBySlot.entrySet())
+                .concatMap(settled -> databaseClient.sql("UPDATE SUB_BALANCE SET BALANCE = BALANCE - :amount"
+                        + " WHERE ACCOUNT_ID = :accountId AND SLOT = :slot")
+                    .bind("amount", settled.getValue())
+                    .bind("accountId", accountId)
+                    .bind("slot", settled.getKey())
+                    .fetch()
+                    .rowsUpdated()))
+            .thenMany(Flux.fromIterable(pendingDeposits)
+                .concatMap(pendingDeposit -> databaseClient.sql("DELETE FROM PENDING_DEPOSIT WHERE DEPOSIT_ID = :id")
+                    .bind("id", pendingDeposit.id())
+                    .fetch()
+                    .rowsUpdated()))
+            .then();
+    }
+
+    private Mono<Long> balanceUpdate(String accountId, BigDecimal delta, long version) {
+        return databaseClient.sql("UPDATE BANK_ACCOUNT SET BALANCE = BALANCE + :delta,"
+                + " VERSION = COALESCE(VERSION, 0) + 1"
+                + " WHERE ACCOUNT_ID = :accountId AND COALESCE(VERSION, 0) = :version")
+            .bind("delta", delta)
+            .bind("accountId", accountId)
+            .bind("version", version)
+            .fetch()
+            .rowsUpdated()
+            .flatMap(rows -> rows == 0
+                ? Mono.error(new ConcurrentUpdateException(CONCURRENT_UPDATE_MESSAGE))
+                : Mono.just(rows));
+    }
+
+    private Mono<Long> statementInsert(String accountId, Statement statement) {
+        return databaseClient.sql("INSERT INTO STATEMENT"
+                + " (STATEMENT_ID, ACCOUNT_ID, \"DATE\", OPERATION_TYPE, AMOUNT, BALANCE)"
+                + " VALUES (:id, :accountId, :date, :operationType, :amount, :balance)")
+            .bind("id", UUID.randomUUID().toString())
+            .bind("accountId", accountId)
+            .bind("date", statement.getDate())
+            .bind("operationType", statement.getOperationType().ordinal())
+            .bind("amount", statement.getAmount())
+            .bind("balance", statement.getBalance())
+            .fetch()
+            .rowsUpdated();
+    }
+
+    /**
+     * Adds the statements, folded per month, to their month's {@code MONTHLY_SUMMARY} row, created by the month's
+     * first statement.
+     */
+    private Mono<Void> recordMonthlySummaries(String accountId, List<Statement> newStatements) {
+        return Mono.defer(() -> {
+            Map<YearMonth, MonthlySummary> additions = new LinkedHashMap<>();
+            for (Statement statement : newStatements) {
+                additions.compute(YearMonth.from(statement.getDate()),
+                    (month, summary) -> summary == null ? MonthlySummary.of(statement) : summary.add(statement));
+            }
+            return Flux.fromIterable(additions.values())
+                .concatMap(addition -> databaseClient.sql("UPDATE MONTHLY_SUMMARY"
+                        + " SET TOTAL_DEPOSITS = TOTAL_DEPOSITS + :deposits,"
+                        + " TOTAL_WITHDRAWALS = TOTAL_WITHDRAWALS + :withdrawals, CLOSING_BALANCE = :closingBalance,"
+                        + " OPERATION_COUNT = OPERATION_COUNT + :operationCount"
+                        + " WHERE ACCOUNT_ID = :accountId AND MONTH_START = :monthStart")
+                    .bind("deposits", addition.totalDeposits())
+                    .bind("withdrawals", addition.totalWithdrawals())
+                    .bind("closingBalance", addition.closingBalance())
+                    .bind("operationCount", addition.operationCount())
+                    .bind("accountId", accountId)
+                    .bind("monthStart", addition.month().atDay(1))
+                    .fetch()
+                    .rowsUpdated()
+                    .flatMap(rows -> rows > 0 ? Mono.just(rows) : databaseClient.sql("INSERT INTO MONTHLY_SUMMARY"
+                            + " (MONTHLY_SUMMARY_ID, ACCOUNT_ID, MONTH_START, OPENING_BALANCE, TOTAL_DEPOSITS,"
+                            + " TOTAL_WITHDRAWALS, CLOSING_BALANCE, OPERATION_COUNT) VALUES (:id, :accountId,"
+                            + " :monthStart, :openingBalance, :deposits, :withdrawals, :closingBalance, :operationCount)")
+                        .bind("id", UUID.randomUUID().toString())
+                        .bind("accountId", accountId)
+                        .bind("monthStart", addition.month().atDay(1))
+                        .bind("openingBalance", addition.openingBalance())
+                        .bind("deposits", addition.totalDeposits())
+                        .bind("withdrawals", addition.totalWithdrawals())
+                        .bind("closingBalance", addition.closingBalance())
+                        .bind("operationCount", addition.operationCount())
+                        .fetch()
+                        .rowsUpdated()))
+                .then();
+        });
+    }
+
+    private Statement toStatement(Readable row) {
+        return Statement.builder()
+            .date(row.get("DATE", LocalDateTime.class))
+            .operationType(OperationType.values()[row.get("OPERATION_TYPE", Integer.class)])
+            .amount(row.get("AMOUNT", BigDecimal.class))
+            .balance(row.get("BALANCE", BigDecimal.class))
+            .build();
+    }
+
+    private record PendingDeposit(String id, int slot, LocalDateTime date, BigDecimal amount) {
+    }
+}
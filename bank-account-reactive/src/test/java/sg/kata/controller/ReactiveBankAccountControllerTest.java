@@ -0,0 +1,99 @@
+package sg.kata.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sg.kata.exception.AccountNotFoundException;
+import sg.kata.exception.InsufficientBalanceException;
+import sg.kata.model.Statement;
+import sg.kata.service.ReactiveBankAccountService;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static sg.kata.controller.ReactiveBankAccountController.DEPOSIT_SUCCESSFUL;
+import static sg.kata.model.OperationType.DEPOSIT;
+import static sg.kata.service.BankAccountService.INSUFFICIENT_BALANCE_MESSAGE;
+import static sg.kata.service.BankAccountService.INVALID_ACCOUNT_MESSAGE;
+
+@WebFluxTest(ReactiveBankAccountController.class)
+public class ReactiveBankAccountControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private ReactiveBankAccountService service;
+
+    @Test
+    void shouldMakeADeposit() {
+        // GIVEN
+        when(service.deposit("123", BigDecimal.valueOf(100))).thenReturn(Mono.empty());
+
+        // WHEN - THEN
+        webTestClient.post().uri("/api/accounts/deposit")
+            .contentType(APPLICATION_JSON)
+            .bodyValue("{\"accountId\": \"123\", \"amount\": 100}")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class).isEqualTo(DEPOSIT_SUCCESSFUL);
+        verify(service).deposit("123", BigDecimal.valueOf(100));
+    }
+
+    @Test
+    void shouldNotWithdrawMoreThanBalance() {
+        // GIVEN
+        when(service.withdraw("123", BigDecimal.valueOf(100)))
+            .thenReturn(Mono.error(new InsufficientBalanceException(INSUFFICIENT_BALANCE_MESSAGE)));
+
+        // WHEN - THEN
+        webTestClient.post().uri("/api/accounts/withdraw")
+            .contentType(APPLICATION_JSON)
+            .bodyValue("{\"accountId\": \"123\", \"amount\": 100}")
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody(String.class).isEqualTo(INSUFFICIENT_BALANCE_MESSAGE);
+    }
+
+    @Test
+    void shouldNotFindBalanceOfInvalidAccount() {
+        // GIVEN
+        when(service.getBalance("123")).thenReturn(Mono.error(new AccountNotFoundException(INVALID_ACCOUNT_MESSAGE)));
+
+        // WHEN - THEN
+        webTestClient.method(GET).uri("/api/accounts/balance")
+            .contentType(APPLICATION_JSON)
+            .bodyValue("{\"accountId\": \"123\"}")
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldStreamStatementsAsNdjson() {
+        // GIVEN
+        LocalDateTime date = LocalDateTime.of(2024, 1, 2, 10, 0);
+        when(service.streamStatements("123")).thenReturn(Flux.just(
+            new Statement(date, DEPOSIT, BigDecimal.TEN, BigDecimal.TEN)));
+
+        // WHEN - THEN
+        webTestClient.method(GET).uri("/api/accounts/statement/export")
+            .contentType(APPLICATION_JSON)
+            .accept(APPLICATION_NDJSON)
+            .bodyValue("{\"accountId\": \"123\"}")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(APPLICATION_NDJSON)
+            .expectBody(String.class)
+            .value(body -> assertThat(body).contains("\"operationType\":\"DEPOSIT\"", "\"balance\":10"));
+    }
+}
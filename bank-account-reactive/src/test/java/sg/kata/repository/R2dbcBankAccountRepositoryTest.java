@@ -0,0 +1,199 @@
+package sg.kata.repository;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import sg.kata.exception.ConcurrentUpdateException;
+import sg.kata.model.ArchivedStatements;
+import sg.kata.model.BankAccount;
+import sg.kata.model.OperationType;
+import sg.kata.model.Statement;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static sg.kata.model.OperationType.DEPOSIT;
+import static sg.kata.model.OperationType.WITHDRAW;
+
+public class R2dbcBankAccountRepositoryTest {
+
+    private static final LocalDate JANUARY = LocalDate.of(2024, 1, 1);
+
+    private DatabaseClient databaseClient;
+    private R2dbcBankAccountRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(
+            "r2dbc:h2:mem:///" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        databaseClient = DatabaseClient.create(connectionFactory);
+        repository = new R2dbcBankAccountRepository(databaseClient,
+            TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory)));
+        Flux.just(
+                "CREATE TABLE BANK_ACCOUNT (ACCOUNT_ID VARCHAR(255) PRIMARY KEY, BALANCE DECIMAL(38, 2),"
+                    + " VERSION BIGINT)",
+                "CREATE TABLE STATEMENT (STATEMENT_ID VARCHAR(255) PRIMARY KEY, ACCOUNT_ID VARCHAR(255),"
+                    + " \"DATE\" TIMESTAMP, OPERATION_TYPE INT, AMOUNT DECIMAL(38, 2), BALANCE DECIMAL(38, 2))",
+                "CREATE TABLE MONTHLY_SUMMARY (MONTHLY_SUMMARY_ID VARCHAR(255) PRIMARY KEY, ACCOUNT_ID VARCHAR(255),"
+                    + " MONTH_START DATE, OPENING_BALANCE DECIMAL(38, 2), TOTAL_DEPOSITS DECIMAL(38, 2),"
+                    + " TOTAL_WITHDRAWALS DECIMAL(38, 2), CLOSING_BALANCE DECIMAL(38, 2), OPERATION_COUNT BIGINT,"
+                    + " UNIQUE (ACCOUNT_ID, MONTH_START))",
+                "CREATE TABLE SUB_BALANCE (SUB_BALANCE_ID VARCHAR(255) PRIMARY KEY, ACCOUNT_ID VARCHAR(255), SLOT INT,"
+                    + " BALANCE DECIMAL(38, 2), UNIQUE (ACCOUNT_ID, SLOT))",
+                "CREATE TABLE STATEMENT_ARCHIVE (SEGMENT_ID VARCHAR(255) PRIMARY KEY, ACCOUNT_ID VARCHAR(255),"
+                    + " FIRST_DATE TIMESTAMP, LAST_DATE TIMESTAMP, STATEMENT_COUNT INT, CLOSING_BALANCE DECIMAL(38, 2),"
+                    + " PAYLOAD BLOB)",
+                "CREATE TABLE PENDING_DEPOSIT (DEPOSIT_ID VARCHAR(255) PRIMARY KEY, ACCOUNT_ID VARCHAR(255), SLOT INT,"
+                    + " \"DATE\" TIMESTAMP, AMOUNT DECIMAL(38, 2))",
+                "INSERT INTO BANK_ACCOUNT VALUES ('123', 100, 0)")
+            .concatMap(sql -> databaseClient.sql(sql).fetch().rowsUpdated())
+            .blockLast();
+    }
+
+    @Test
+    void shouldRecordMonthlySummariesWithTheStatements() {
+        // GIVEN
+        update(LocalDateTime.of(2024, 1, 5, 10, 0), DEPOSIT, 50);
+        update(LocalDateTime.of(2024, 1, 6, 10, 0), WITHDRAW, 20);
+
+        // WHEN
+        Map<String, Object> summary = databaseClient.sql("SELECT * FROM MONTHLY_SUMMARY").fetch().one().block();
+
+        // THEN
+        assertThat(summary.get("MONTH_START")).isEqualTo(JANUARY);
+        assertThat((BigDecimal) summary.get("OPENING_BALANCE")).isEqualByComparingTo("100");
+        assertThat((BigDecimal) summary.get("TOTAL_DEPOSITS")).isEqualByComparingTo("50");
+        assertThat((BigDecimal) summary.get("TOTAL_WITHDRAWALS")).isEqualByComparingTo("20");
+        assertThat((BigDecimal) summary.get("CLOSING_BALANCE")).isEqualByComparingTo("130");
+        assertThat(summary.get("OPERATION_COUNT")).isEqualTo(2L);
+    }
+
+    @Test
+    void shouldIncludeSubBalancesInTheBalance() {
+        // GIVEN
+        depositToSlot("d1", 0, LocalDateTime.of(2024, 1, 5, 10, 0), 30);
+
+        // WHEN - THEN
+        assertThat(repository.findBalanceById("123").block()).isEqualByComparingTo("130");
+    }
+
+    @Test
+    void shouldSettlePendingDepositsInDateOrder() {
+        // GIVEN
+        depositToSlot("d1", 0, LocalDateTime.of(2024, 1, 6, 10, 0), 30);
+        depositToSlot("d2", 1, LocalDateTime.of(2024, 1, 5, 10, 0), 20);
+
+        // WHEN
+        repository.settleSlots("123").block();
+
+        // THEN
+        BankAccount bankAccount = repository.findForUpdate("123").block();
+        assertThat(bankAccount.getBalance()).isEqualByComparingTo("150");
+        assertThat(bankAccount.getVersion()).isEqualTo(1L);
+        assertThat(repository.findBalanceById("123").block()).isEqualByComparingTo("150");
+        assertThat(repository.findStatements("123").collectList().block())
+            .extracting(Statement::getAmount, Statement::getBalance)
+            .containsExactly(
+                tuple(new BigDecimal("30.00"), new BigDecimal("150.00")),
+                tuple(new BigDecimal("20.00"), new BigDecimal("120.00")));
+        assertThat(databaseClient.sql("SELECT COUNT(*) FROM PENDING_DEPOSIT").map(row -> row.get(0, Long.class))
+            .one().block()).isZero();
+        assertThat((BigDecimal) databaseClient.sql("SELECT * FROM MONTHLY_SUMMARY").fetch().one().block()
+            .get("TOTAL_DEPOSITS")).isEqualByComparingTo("50");
+    }
+
+    @Test
+    void shouldStreamArchivedStatementsAfterTheTable() {
+        // GIVEN
+        archive("s1", new Statement(LocalDateTime.of(2023, 1, 5, 10, 0), DEPOSIT, BigDecimal.TEN, BigDecimal.TEN));
+        archive("s2", new Statement(LocalDateTime.of(2023, 2, 5, 10, 0), DEPOSIT, BigDecimal.ONE,
+                BigDecimal.valueOf(11)),
+            new Statement(LocalDateTime.of(2023, 3, 5, 10, 0), WITHDRAW, BigDecimal.ONE, BigDecimal.TEN));
+        update(LocalDateTime.of(2024, 1, 5, 10, 0), DEPOSIT, 50);
+
+        // WHEN
+        List<Statement> statements = repository.findStatements("123").collectList().block();
+
+        // THEN
+        assertThat(statements)
+            .extracting(Statement::getDate)
+            .containsExactly(
+                LocalDateTime.of(2024, 1, 5, 10, 0),
+                LocalDateTime.of(2023, 3, 5, 10, 0),
+                LocalDateTime.of(2023, 2, 5, 10, 0),
+                LocalDateTime.of(2023, 1, 5, 10, 0));
+    }
+
+    @Test
+    void shouldCheckTheVersionOfARowWrittenWithoutOne() {
+        // GIVEN
+        databaseClient.sql("UPDATE BANK_ACCOUNT SET VERSION = NULL").fetch().rowsUpdated().block();
+        BankAccount stale = repository.findForUpdate("123").block();
+        update(LocalDateTime.of(2024, 1, 5, 10, 0), DEPOSIT, 50);
+        stale.getStatements().add(new Statement(LocalDateTime.of(2024, 1, 5, 11, 0), DEPOSIT, BigDecimal.TEN,
+            BigDecimal.valueOf(110)));
+        stale.setBalance(BigDecimal.valueOf(110));
+
+        // WHEN - THEN
+        assertThat(stale.getVersion()).isZero();
+        assertThrows(ConcurrentUpdateException.class, () -> repository.update(stale).block());
+        assertThat(repository.findForUpdate("123").block().getVersion()).isEqualTo(1L);
+        assertThat(repository.findBalanceById("123").block()).isEqualByComparingTo("150");
+    }
+
+    private void archive(String segmentId, Statement... statements) {
+        databaseClient.sql("INSERT INTO STATEMENT_ARCHIVE VALUES (:id, '123', :firstDate, :lastDate, :count, :closing,"
+                + " :payload)")
+            .bind("id", segmentId)
+            .bind("firstDate", statements[0].getDate())
+            .bind("lastDate", statements[statements.length - 1].getDate())
+            .bind("count", statements.length)
+            .bind("closing", statements[statements.length - 1].getBalance())
+            .bind("payload", ArchivedStatements.encode(List.of(statements)))
+            .fetch()
+            .rowsUpdated()
+            .block();
+    }
+
+    private void depositToSlot(String depositId, int slot, LocalDateTime date, long amount) {
+        databaseClient.sql("MERGE INTO SUB_BALANCE S USING (VALUES (:slot)) V(SLOT) ON S.ACCOUNT_ID = '123'"
+                + " AND S.SLOT = V.SLOT WHEN MATCHED THEN UPDATE SET BALANCE = S.BALANCE + :amount"
+                + " WHEN NOT MATCHED THEN INSERT VALUES (:id, '123', :slot, :amount)")
+            .bind("slot", slot)
+            .bind("amount", BigDecimal.valueOf(amount))
+            .bind("id", depositId)
+            .fetch()
+            .rowsUpdated()
+            .block();
+        databaseClient.sql("INSERT INTO PENDING_DEPOSIT VALUES (:id, '123', :slot, :date, :amount)")
+            .bind("id", depositId)
+            .bind("slot", slot)
+            .bind("date", date)
+            .bind("amount", BigDecimal.valueOf(amount))
+            .fetch()
+            .rowsUpdated()
+            .block();
+    }
+
+    private void update(LocalDateTime date, OperationType operationType, long amount) {
+        BankAccount bankAccount = repository.findForUpdate("123").block();
+        BigDecimal balance = operationType == DEPOSIT
+            ? bankAccount.getBalance().add(BigDecimal.valueOf(amount))
+            : bankAccount.getBalance().subtract(BigDecimal.valueOf(amount));
+        bankAccount.getStatements().add(new Statement(date, operationType, BigDecimal.valueOf(amount), balance));
+        bankAccount.setBalance(balance);
+        repository.update(bankAccount).block();
+    }
+}